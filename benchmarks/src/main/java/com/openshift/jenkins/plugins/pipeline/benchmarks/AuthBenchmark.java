@@ -0,0 +1,106 @@
+package com.openshift.jenkins.plugins.pipeline.benchmarks;
+
+import hudson.EnvVars;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Scanner;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.openshift.jenkins.plugins.pipeline.Auth;
+
+/*
+ * Certificate handling and bearer token lookup, as done for every step run.  The "Uncached" variants change the
+ * CA_CERT value on every call (by trailing white space), so the certificate is parsed and the trust manager built each time.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class AuthBenchmark {
+
+	private static final String API_URL = "https://openshift.default.svc.cluster.local:443";
+
+	private String pem;
+	private EnvVars env;
+	private File tokenFile;
+	private Map<String, String> vars;
+	private int counter = 0;
+
+	@Setup
+	public void setup() throws IOException {
+		InputStream in = AuthBenchmark.class.getResourceAsStream("/ca.crt");
+		try (Scanner s = new Scanner(in, "US-ASCII").useDelimiter("\\A")) {
+			pem = s.next();
+		}
+		env = new EnvVars();
+		env.put("CA_CERT", pem);
+
+		tokenFile = File.createTempFile("token", null);
+		Files.write(tokenFile.toPath(), "eyJhbGciOiJSUzI1NiIsInR5cCI6IkpXVCJ9.benchmark.token".getBytes(StandardCharsets.UTF_8));
+		vars = new HashMap<String, String>();
+		vars.put("AUTH_TOKEN", tokenFile.getAbsolutePath());
+	}
+
+	@TearDown
+	public void tearDown() {
+		tokenFile.delete();
+	}
+
+	@Benchmark
+	public Auth createInstance() {
+		return Auth.createInstance(null, API_URL, env);
+	}
+
+	@Benchmark
+	public Auth createInstanceUncached() {
+		return Auth.createInstance(null, API_URL, uncachedEnv());
+	}
+
+	@Benchmark
+	public Auth createLocalTrustStore() {
+		Auth auth = Auth.createInstance(null, API_URL, env);
+		Auth.createLocalTrustStore(auth, API_URL);
+		return auth;
+	}
+
+	@Benchmark
+	public Auth createLocalTrustStoreUncached() {
+		Auth auth = Auth.createInstance(null, API_URL, uncachedEnv());
+		Auth.createLocalTrustStore(auth, API_URL);
+		return auth;
+	}
+
+	@Benchmark
+	public String deriveBearerTokenFromFile() {
+		return Auth.deriveBearerToken(null, null, false, vars, null);
+	}
+
+	private EnvVars uncachedEnv() {
+		EnvVars e = new EnvVars();
+		StringBuilder sb = new StringBuilder(pem);
+		for (int i = counter++ % 1000; i > 0; i--)
+			sb.append(' ');
+		e.put("CA_CERT", sb.toString());
+		return e;
+	}
+}
@@ -0,0 +1,89 @@
+package com.openshift.jenkins.plugins.pipeline.benchmarks;
+
+import hudson.model.TaskListener;
+
+import java.lang.reflect.Proxy;
+import java.util.concurrent.TimeUnit;
+
+import org.jboss.dmr.ModelNode;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.openshift.internal.restclient.ResourceFactory;
+import com.openshift.jenkins.plugins.pipeline.Deployment;
+import com.openshift.restclient.IClient;
+
+/*
+ * Decoding the DeploymentConfig encoded in a ReplicationController's annotation and comparing its image with the
+ * latest one, as the build verifier does for each DeploymentConfig triggered by the build's image.  The api server is
+ * stood in for by a client which returns the same ReplicationController, so only the plugin's side is measured.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class DeploymentBenchmark {
+
+	private static final String PREVIOUS_IMAGE = "0000000000000000000000000000000000000000000000000000000000000000";
+	private static final String LATEST_IMAGE = "ffffffffffffffffffffffffffffffffffffffffffffffffffffffffffffffff";
+
+	private IClient client;
+
+	@Setup
+	public void setup() {
+		ModelNode rc = new ModelNode();
+		rc.get("kind").set("ReplicationController");
+		rc.get("apiVersion").set("v1");
+		rc.get("metadata", "name").set("frontend-1");
+		rc.get("metadata", "namespace").set("test");
+		rc.get("metadata", "annotations", "openshift.io/encoded-deployment-config").set(deploymentConfig().toJSONString(true));
+		rc.get("spec", "replicas").set(1);
+		String rcJson = rc.toJSONString(true);
+
+		ResourceFactory[] factory = new ResourceFactory[1];
+		client = (IClient) Proxy.newProxyInstance(IClient.class.getClassLoader(), new Class<?>[] {IClient.class}, (proxy, method, args) -> {
+			if ("get".equals(method.getName()))
+				return factory[0].create(rcJson);
+			if ("getResourceFactory".equals(method.getName()))
+				return factory[0];
+			return null;
+		});
+		factory[0] = new ResourceFactory(client);
+	}
+
+	@Benchmark
+	public boolean didImageChangeFromPreviousVersion() {
+		return Deployment.didImageChangeFromPreviousVersion(client, 2, false, TaskListener.NULL, "frontend", "test", LATEST_IMAGE, "frontend:latest");
+	}
+
+	private static ModelNode deploymentConfig() {
+		ModelNode dc = new ModelNode();
+		dc.get("kind").set("DeploymentConfig");
+		dc.get("apiVersion").set("v1");
+		dc.get("metadata", "name").set("frontend");
+		dc.get("metadata", "namespace").set("test");
+		ModelNode trigger = dc.get("spec", "triggers").add();
+		trigger.get("type").set("ImageChange");
+		trigger.get("imageChangeParams", "automatic").set(true);
+		trigger.get("imageChangeParams", "containerNames").add("frontend");
+		trigger.get("imageChangeParams", "from", "kind").set("ImageStreamTag");
+		trigger.get("imageChangeParams", "from", "name").set("frontend:latest");
+		trigger.get("imageChangeParams", "lastTriggeredImage").set("172.30.1.1:5000/test/frontend@sha256:" + PREVIOUS_IMAGE);
+		dc.get("spec", "triggers").add().get("type").set("ConfigChange");
+		ModelNode container = dc.get("spec", "template", "spec", "containers").add();
+		container.get("name").set("frontend");
+		container.get("image").set("172.30.1.1:5000/test/frontend@sha256:" + PREVIOUS_IMAGE);
+		dc.get("status", "latestVersion").set(1);
+		return dc;
+	}
+}
@@ -0,0 +1,84 @@
+package com.openshift.jenkins.plugins.pipeline.benchmarks;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.jboss.dmr.ModelNode;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.openshift.jenkins.plugins.pipeline.ResourceWatcher;
+
+/*
+ * JSON handling of the create step (a List of items, as pasted into the step) and of the watches (one event per line).
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class JsonBenchmark {
+
+	@Param({"10", "100", "1000"})
+	private int items;
+
+	private String list;
+	private String[] events;
+
+	@Setup
+	public void setup() {
+		StringBuilder sb = new StringBuilder("{\"kind\":\"List\",\"apiVersion\":\"v1\",\"items\":[");
+		for (int i = 0; i < items; i++) {
+			if (i > 0)
+				sb.append(',');
+			sb.append(service(i));
+		}
+		list = sb.append("]}").toString();
+
+		events = new String[items];
+		for (int i = 0; i < items; i++) {
+			events[i] = "{\"type\":\"MODIFIED\",\"object\":{\"kind\":\"Build\",\"apiVersion\":\"v1\",\"metadata\":{\"name\":\"frontend-" + i
+					+ "\",\"namespace\":\"test\",\"resourceVersion\":\"" + (1000 + i) + "\"},\"status\":{\"phase\":\"Running\"}}}";
+		}
+	}
+
+	// what OpenShiftCreator does before making its POSTs
+	@Benchmark
+	public List<String> parseList() {
+		ModelNode resources = ModelNode.fromJSONString(list);
+		List<String> kinds = new ArrayList<String>();
+		for (ModelNode node : resources.get("items").asList())
+			kinds.add(node.get("kind").asString());
+		return kinds;
+	}
+
+	// what ResourceWatcher does for each line of a watch response
+	@Benchmark
+	public String parseWatchEvents() {
+		String rv = null;
+		for (String line : events) {
+			ModelNode event = ModelNode.fromJSONString(line);
+			ModelNode object = event.get("object");
+			if ("Running".equals(ResourceWatcher.getString(object, "status", "phase")))
+				rv = ResourceWatcher.getResourceVersion(object);
+		}
+		return rv;
+	}
+
+	private static String service(int i) {
+		return "{\"kind\":\"Service\",\"apiVersion\":\"v1\",\"metadata\":{\"name\":\"frontend-" + i + "\",\"labels\":{\"app\":\"frontend\"},"
+				+ "\"annotations\":{\"description\":\"Exposes and load balances the application pods\"}},"
+				+ "\"spec\":{\"ports\":[{\"name\":\"web\",\"port\":8080,\"targetPort\":8080}],\"selector\":{\"name\":\"frontend-" + i + "\"}}}";
+	}
+}
@@ -0,0 +1,1043 @@
+package com.openshift.jenkins.plugins.pipeline.benchmarks;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.security.KeyStore;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import javax.net.ssl.KeyManagerFactory;
+import javax.net.ssl.SSLContext;
+
+import org.jboss.dmr.ModelNode;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpsConfigurator;
+import com.sun.net.httpserver.HttpsServer;
+
+/*
+ * An in process stand in for the OpenShift api server, with just enough of it for the plugin's steps to run against:
+ * pods, services, replication controllers, builds (and their logs), build configs, deployment configs and image streams,
+ * with get / list / create / update / delete, label and field selectors, and watches.  Builds and deployments move through
+ * their phases on their own, a configurable time apart;  a completed build pushes a new image to its output image stream
+ * tag, which redeploys the deployment configs with an automatic ImageChange trigger on that tag, as the real controllers would.
+ *
+ * Watches resume from the resourceVersion they are given, replaying what they missed from a bounded history of recent
+ * events;  one whose resourceVersion is older than that history gets a 410 Gone ERROR event, as it would from the real
+ * thing, and has to list again.
+ *
+ * Every request can be delayed, to stand in for a remote or busy api server, and is counted by verb and resource
+ * (i.e. "get buildconfigs", "watch builds", "instantiate buildconfigs") so the cost of a step can be measured.
+ *
+ *   MockApiServer server = new MockApiServer();
+ *   server.start();
+ *   server.addBuildConfig("test", "frontend", "frontend:latest");
+ *   // point the steps at server.getURL(), with server.getCertificate() as the CA_CERT
+ *   server.stop();
+ */
+public class MockApiServer {
+
+	public static final String API = "/api/v1";
+	public static final String OAPI = "/oapi/v1";
+
+	public static final String BUILD_POD_NAME_ANNOTATION = "openshift.io/build.pod-name";
+	public static final String BUILD_NAME_LABEL = "openshift.io/build.name";
+	public static final String BUILD_CONFIG_LABEL = "openshift.io/build-config.name";
+	public static final String DEPLOYMENT_CONFIG_ANNOTATION = "openshift.io/deployment-config.name";
+	public static final String DEPLOYMENT_PHASE_ANNOTATION = "openshift.io/deployment.phase";
+	public static final String ENCODED_DEPLOYMENT_CONFIG_ANNOTATION = "openshift.io/encoded-deployment-config";
+
+	private static final String REGISTRY = "172.30.1.1:5000";
+	private static final String KEY_STORE = "/mock-api-server.p12";
+	private static final String CERTIFICATE = "/mock-api-server.crt";
+	private static final char[] KEY_STORE_PASSWORD = "changeit".toCharArray();
+
+	// resource plural to its kind and the api it is served from
+	private static final Map<String, String[]> KINDS = new TreeMap<String, String[]>();
+
+	static {
+		KINDS.put("pods", new String[] {"Pod", API});
+		KINDS.put("services", new String[] {"Service", API});
+		KINDS.put("replicationcontrollers", new String[] {"ReplicationController", API});
+		KINDS.put("builds", new String[] {"Build", OAPI});
+		KINDS.put("buildconfigs", new String[] {"BuildConfig", OAPI});
+		KINDS.put("deploymentconfigs", new String[] {"DeploymentConfig", OAPI});
+		KINDS.put("imagestreams", new String[] {"ImageStream", OAPI});
+	}
+
+	// plural|namespace|name to the stored object;  stored objects are never modified, updates replace them
+	private final ConcurrentSkipListMap<String, ModelNode> objects = new ConcurrentSkipListMap<String, ModelNode>();
+	private final CopyOnWriteArrayList<Watch> watches = new CopyOnWriteArrayList<Watch>();
+	private final ConcurrentSkipListMap<String, AtomicLong> requests = new ConcurrentSkipListMap<String, AtomicLong>();
+	private final AtomicLong resourceVersion = new AtomicLong(1000);
+	// the most recent events, oldest first, for watches resuming from a resourceVersion
+	private final ArrayDeque<Event> history = new ArrayDeque<Event>();
+	// the newest resourceVersion no longer in the history;  a watch from before it cannot be resumed
+	private long compacted = resourceVersion.get();
+	private final AtomicLong images = new AtomicLong();
+
+	private volatile long latency = 0;
+	private volatile long phaseDelay = 500;
+	private volatile long scaleDelay = 0;
+	private volatile long watchTimeout = 60 * 1000;
+	private volatile int watchHistory = 1000;
+	private volatile int logLines = 100;
+	private volatile String[] buildPhases = {"New", "Pending", "Running", "Complete"};
+	private volatile String[] deploymentPhases = {"New", "Pending", "Running", "Complete"};
+
+	private HttpsServer server;
+	private ExecutorService executor;
+	private ScheduledExecutorService scheduler;
+	private volatile boolean running;
+
+	public synchronized void start() throws Exception {
+		if (running)
+			return;
+		executor = Executors.newCachedThreadPool(r -> daemon(r, "MockApiServer request"));
+		scheduler = Executors.newSingleThreadScheduledExecutor(r -> daemon(r, "MockApiServer controller"));
+		server = HttpsServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 0);
+		server.setHttpsConfigurator(new HttpsConfigurator(createSSLContext()));
+		server.setExecutor(executor);
+		server.createContext("/", this::handle);
+		server.start();
+		running = true;
+	}
+
+	public synchronized void stop() {
+		if (!running)
+			return;
+		running = false;
+		server.stop(0);
+		scheduler.shutdownNow();
+		executor.shutdownNow();
+	}
+
+	public String getURL() {
+		return "https://127.0.0.1:" + server.getAddress().getPort();
+	}
+
+	// the PEM encoded certificate the server presents, for use as the steps' CA_CERT
+	public String getCertificate() throws IOException {
+		return read(MockApiServer.class.getResourceAsStream(CERTIFICATE));
+	}
+
+	// delay, in milliseconds, before every request is answered (watches and followed logs only for their response headers)
+	public void setLatency(long latency) {
+		this.latency = latency;
+	}
+
+	// time, in milliseconds, builds and deployments spend in each of their phases
+	public void setPhaseDelay(long phaseDelay) {
+		this.phaseDelay = phaseDelay;
+	}
+
+	// time, in milliseconds, before a replication controller's status catches up with a change in its replica count
+	public void setScaleDelay(long scaleDelay) {
+		this.scaleDelay = scaleDelay;
+	}
+
+	// longest a watch is kept open, in milliseconds, when the request does not say (with timeoutSeconds)
+	public void setWatchTimeout(long watchTimeout) {
+		this.watchTimeout = watchTimeout;
+	}
+
+	// number of recent events kept for watches to resume from
+	public void setWatchHistory(int watchHistory) {
+		this.watchHistory = watchHistory;
+	}
+
+	public void setLogLines(int logLines) {
+		this.logLines = logLines;
+	}
+
+	// the phases a build goes through, the last of which it stays in;  the image is pushed when it reaches Complete
+	public void setBuildPhases(String... buildPhases) {
+		this.buildPhases = buildPhases.clone();
+	}
+
+	// the deployment.phase annotations a new replication controller goes through
+	public void setDeploymentPhases(String... deploymentPhases) {
+		this.deploymentPhases = deploymentPhases.clone();
+	}
+
+	public long getRequestCount() {
+		long total = 0;
+		for (AtomicLong count : requests.values())
+			total += count.get();
+		return total;
+	}
+
+	// "<verb> <resource>" to the number of such requests since the server started (or was reset)
+	public Map<String, Long> getRequestCounts() {
+		Map<String, Long> map = new TreeMap<String, Long>();
+		for (Map.Entry<String, AtomicLong> entry : requests.entrySet())
+			map.put(entry.getKey(), entry.getValue().get());
+		return map;
+	}
+
+	public void resetRequestCounts() {
+		requests.clear();
+	}
+
+	/*
+	 * Seeding
+	 */
+
+	// a copy of the stored object, or null
+	public ModelNode get(String plural, String namespace, String name) {
+		ModelNode object = objects.get(key(plural, namespace, name));
+		return object != null ? object.clone() : null;
+	}
+
+	public synchronized ModelNode create(String plural, ModelNode object) {
+		ModelNode copy = object.clone();
+		String[] kind = KINDS.get(plural);
+		if (kind == null)
+			throw new IllegalArgumentException("unknown resource " + plural);
+		copy.get("kind").set(kind[0]);
+		copy.get("apiVersion").set("v1");
+		if (!copy.get("metadata").has("creationTimestamp"))
+			copy.get("metadata", "creationTimestamp").set(timestamp());
+		if (!copy.get("metadata").has("uid"))
+			copy.get("metadata", "uid").set(java.util.UUID.randomUUID().toString());
+		return store(plural, copy, objects.containsKey(key(plural, copy)) ? "MODIFIED" : "ADDED");
+	}
+
+	public void addPods(String namespace, String prefix, int count) {
+		for (int i = 0; i < count; i++) {
+			ModelNode pod = metadata(namespace, prefix + "-" + i);
+			pod.get("metadata", "labels", "app").set(prefix);
+			ModelNode container = pod.get("spec", "containers").add();
+			container.get("name").set(prefix);
+			container.get("image").set(REGISTRY + "/" + namespace + "/" + prefix + ":latest");
+			pod.get("status", "phase").set("Running");
+			pod.get("status", "podIP").set("10.128." + (i / 250) % 256 + "." + (i % 250 + 1));
+			create("pods", pod);
+		}
+	}
+
+	public void addService(String namespace, String name, int port) {
+		ModelNode svc = metadata(namespace, name);
+		ModelNode p = svc.get("spec", "ports").add();
+		p.get("port").set(port);
+		p.get("targetPort").set(port);
+		p.get("protocol").set("TCP");
+		svc.get("spec", "selector", "name").set(name);
+		svc.get("spec", "clusterIP").set("172.30.0." + (Math.abs(name.hashCode()) % 250 + 1));
+		create("services", svc);
+	}
+
+	// an image stream with one image already pushed to the tag
+	public void addImageStream(String namespace, String name, String tag) {
+		synchronized (this) {
+			ModelNode is = metadata(namespace, name);
+			is.get("spec").setEmptyObject();
+			is.get("status", "dockerImageRepository").set(REGISTRY + "/" + namespace + "/" + name);
+			is.get("status", "tags").setEmptyList();
+			create("imagestreams", is);
+		}
+		pushImage(namespace, name + ":" + tag);
+	}
+
+	// a source build config whose output goes to the image stream tag (i.e. "frontend:latest")
+	public void addBuildConfig(String namespace, String name, String outputTag) {
+		ModelNode bc = metadata(namespace, name);
+		bc.get("metadata", "labels", "app").set(name);
+		bc.get("spec", "source", "type").set("Git");
+		bc.get("spec", "source", "git", "uri").set("https://github.com/openshift/" + name + ".git");
+		bc.get("spec", "strategy", "type").set("Source");
+		bc.get("spec", "strategy", "sourceStrategy", "from", "kind").set("ImageStreamTag");
+		bc.get("spec", "strategy", "sourceStrategy", "from", "name").set("nodejs:latest");
+		bc.get("spec", "strategy", "sourceStrategy", "from", "namespace").set("openshift");
+		if (outputTag != null) {
+			bc.get("spec", "output", "to", "kind").set("ImageStreamTag");
+			bc.get("spec", "output", "to", "name").set(outputTag);
+		}
+		bc.get("spec", "triggers").setEmptyList();
+		bc.get("status", "lastVersion").set(0);
+		create("buildconfigs", bc);
+	}
+
+	// a deployment config, already deployed once, which redeploys when an image is pushed to the image stream tag (if not null)
+	public void addDeploymentConfig(String namespace, String name, String imageTag, int replicas) {
+		String image = REGISTRY + "/" + namespace + "/" + name + ":latest";
+		ModelNode is = imageTag != null ? objects.get(key("imagestreams", namespace, imageTag.split(":")[0])) : null;
+		if (is != null) {
+			ModelNode latest = getTagImage(is, imageTag.split(":")[1]);
+			if (latest != null)
+				image = latest.get("dockerImageReference").asString();
+		}
+
+		ModelNode dc = metadata(namespace, name);
+		dc.get("metadata", "labels", "app").set(name);
+		dc.get("spec", "replicas").set(replicas);
+		dc.get("spec", "selector", "name").set(name);
+		dc.get("spec", "strategy", "type").set("Rolling");
+		ModelNode config = dc.get("spec", "triggers").add();
+		config.get("type").set("ConfigChange");
+		if (imageTag != null) {
+			ModelNode trigger = dc.get("spec", "triggers").add();
+			trigger.get("type").set("ImageChange");
+			trigger.get("imageChangeParams", "automatic").set(true);
+			trigger.get("imageChangeParams", "containerNames").add(name);
+			trigger.get("imageChangeParams", "from", "kind").set("ImageStreamTag");
+			trigger.get("imageChangeParams", "from", "name").set(imageTag);
+			trigger.get("imageChangeParams", "lastTriggeredImage").set(image);
+		}
+		dc.get("spec", "template", "metadata", "labels", "name").set(name);
+		ModelNode container = dc.get("spec", "template", "spec", "containers").add();
+		container.get("name").set(name);
+		container.get("image").set(image);
+		dc.get("status", "latestVersion").set(1);
+		ModelNode cause = dc.get("status", "details", "causes").add();
+		cause.get("type").set("ConfigChange");
+		ModelNode stored = create("deploymentconfigs", dc);
+
+		ModelNode rc = replicationController(stored);
+		rc.get("metadata", "annotations", DEPLOYMENT_PHASE_ANNOTATION).set("Complete");
+		rc.get("status", "replicas").set(replicas);
+		create("replicationcontrollers", rc);
+	}
+
+	/*
+	 * Request handling
+	 */
+
+	private void handle(HttpExchange exchange) throws IOException {
+		try {
+			String method = exchange.getRequestMethod();
+			String path = exchange.getRequestURI().getPath();
+			Map<String, String> query = parseQuery(exchange.getRequestURI().getRawQuery());
+			if (latency > 0)
+				Thread.sleep(latency);
+
+			if (path.equals("/api") || path.equals("/oapi") || path.equals("/apis") || path.equals(API) || path.equals(OAPI) || path.startsWith("/version")) {
+				count("get", "discovery");
+				respond(exchange, 200, discovery(path));
+				return;
+			}
+
+			// <api>/namespaces/<namespace>/<plural>[/<name>[/<subresource>]]
+			String prefix = path.startsWith(OAPI + "/") ? OAPI : path.startsWith(API + "/") ? API : null;
+			String[] segments = prefix != null ? path.substring(prefix.length() + 1).split("/") : new String[0];
+			if (segments.length < 3 || segments.length > 5 || !"namespaces".equals(segments[0]) || !KINDS.containsKey(segments[2])
+					|| !KINDS.get(segments[2])[1].equals(prefix)) {
+				count(method.toLowerCase(), "unknown");
+				respond(exchange, 404, status(404, "NotFound", "the server could not find the requested resource " + path));
+				return;
+			}
+			String namespace = segments[1];
+			String plural = segments[2];
+			String name = segments.length > 3 ? segments[3] : null;
+			String subresource = segments.length > 4 ? segments[4] : null;
+
+			if ("GET".equals(method) && name == null && "true".equals(query.get("watch"))) {
+				count("watch", plural);
+				watch(exchange, plural, namespace, query);
+			} else if ("GET".equals(method) && name == null) {
+				count("list", plural);
+				ModelNode list = new ModelNode();
+				list.get("kind").set(KINDS.get(plural)[0] + "List");
+				list.get("apiVersion").set("v1");
+				list.get("metadata", "resourceVersion").set(String.valueOf(resourceVersion.get()));
+				list.get("items").setEmptyList();
+				for (ModelNode object : list(plural, namespace, query.get("labelSelector"), query.get("fieldSelector")))
+					list.get("items").add(object);
+				respond(exchange, 200, list);
+			} else if ("GET".equals(method) && subresource == null) {
+				count("get", plural);
+				ModelNode object = objects.get(key(plural, namespace, name));
+				if (object == null)
+					respond(exchange, 404, notFound(plural, name));
+				else
+					respond(exchange, 200, object);
+			} else if ("GET".equals(method) && "builds".equals(plural) && "log".equals(subresource)) {
+				count("log", plural);
+				log(exchange, namespace, name, "true".equals(query.get("follow")));
+			} else if ("POST".equals(method) && name == null) {
+				count("create", plural);
+				ModelNode object = ModelNode.fromJSONString(read(exchange.getRequestBody()));
+				object.get("metadata", "namespace").set(namespace);
+				if (objects.containsKey(key(plural, object)))
+					respond(exchange, 409, status(409, "AlreadyExists", plural + " \"" + object.get("metadata", "name").asString() + "\" already exists"));
+				else
+					respond(exchange, 201, create(plural, object));
+			} else if ("POST".equals(method) && "buildconfigs".equals(plural) && "instantiate".equals(subresource)) {
+				count("instantiate", plural);
+				ModelNode bc = objects.get(key(plural, namespace, name));
+				if (bc == null)
+					respond(exchange, 404, notFound(plural, name));
+				else
+					respond(exchange, 201, startBuild(namespace, name));
+			} else if ("POST".equals(method) && "builds".equals(plural) && "clone".equals(subresource)) {
+				count("clone", plural);
+				ModelNode build = objects.get(key(plural, namespace, name));
+				if (build == null)
+					respond(exchange, 404, notFound(plural, name));
+				else
+					respond(exchange, 201, startBuild(namespace, build.get("metadata", "labels", BUILD_CONFIG_LABEL).asString()));
+			} else if ("PUT".equals(method) && name != null && subresource == null) {
+				count("update", plural);
+				ModelNode object = ModelNode.fromJSONString(read(exchange.getRequestBody()));
+				ModelNode updated = update(plural, namespace, name, object);
+				if (updated == null)
+					respond(exchange, 404, notFound(plural, name));
+				else
+					respond(exchange, 200, updated);
+			} else if ("DELETE".equals(method) && name != null && subresource == null) {
+				count("delete", plural);
+				ModelNode deleted = delete(plural, namespace, name);
+				if (deleted == null)
+					respond(exchange, 404, notFound(plural, name));
+				else
+					respond(exchange, 200, status(200, null, null));
+			} else {
+				count(method.toLowerCase(), plural);
+				respond(exchange, 405, status(405, "MethodNotAllowed", method + " is not supported on " + path));
+			}
+		} catch (InterruptedException e) {
+			// stopping
+		} catch (Exception e) {
+			try {
+				respond(exchange, 500, status(500, "InternalError", String.valueOf(e)));
+			} catch (IOException e1) {
+				// headers already sent
+			}
+		} finally {
+			exchange.close();
+		}
+	}
+
+	private void watch(HttpExchange exchange, String plural, String namespace, Map<String, String> query) throws IOException, InterruptedException {
+		Watch watch = new Watch(plural, namespace, query.get("labelSelector"), query.get("fieldSelector"));
+		long timeout = query.containsKey("timeoutSeconds") ? Long.parseLong(query.get("timeoutSeconds")) * 1000 : watchTimeout;
+		long deadline = System.currentTimeMillis() + timeout;
+		long from = 0;
+		try {
+			if (query.get("resourceVersion") != null)
+				from = Long.parseLong(query.get("resourceVersion"));
+		} catch (NumberFormatException e) {
+		}
+		boolean expired = false;
+		synchronized (this) {
+			if (from <= 0) {
+				// without a resourceVersion to resume from, the watch starts with the current state, as it does on the real thing
+				for (ModelNode object : list(plural, namespace, watch.labelSelector, watch.fieldSelector))
+					watch.events.add(event("ADDED", object));
+			} else if (from < compacted) {
+				expired = true;
+				watch.events.add(event("ERROR", status(410, "Gone", "too old resource version: " + from + " (" + compacted + ")")));
+			} else {
+				// replay what happened since
+				for (Event e : history) {
+					if (e.resourceVersion > from && watch.wants(e.plural, e.object))
+						watch.events.add(event(e.type, e.object));
+				}
+			}
+			if (!expired)
+				watches.add(watch);
+		}
+		try {
+			exchange.getResponseHeaders().set("Content-Type", "application/json");
+			exchange.sendResponseHeaders(200, 0);
+			OutputStream out = exchange.getResponseBody();
+			while (running && System.currentTimeMillis() < deadline) {
+				ModelNode event = watch.events.poll(Math.min(1000, Math.max(1, deadline - System.currentTimeMillis())), TimeUnit.MILLISECONDS);
+				if (event == null)
+					continue;
+				out.write((event.toJSONString(true) + "\n").getBytes(StandardCharsets.UTF_8));
+				out.flush();
+				// the real thing ends the watch after the ERROR
+				if ("ERROR".equals(event.get("type").asString()))
+					break;
+			}
+		} catch (IOException e) {
+			// the client went away
+		} finally {
+			watches.remove(watch);
+		}
+	}
+
+	private void log(HttpExchange exchange, String namespace, String name, boolean follow) throws IOException, InterruptedException {
+		if (!objects.containsKey(key("builds", namespace, name))) {
+			respond(exchange, 404, notFound("builds", name));
+			return;
+		}
+		exchange.getResponseHeaders().set("Content-Type", "text/plain");
+		exchange.sendResponseHeaders(200, 0);
+		OutputStream out = exchange.getResponseBody();
+		int lines = logLines;
+		for (int i = 1; i <= lines; i++)
+			out.write(("Step " + i + "/" + lines + " : RUN npm install --quiet  # " + name + "\n").getBytes(StandardCharsets.UTF_8));
+		out.flush();
+		if (!follow)
+			return;
+		// the followed log ends when the build does
+		while (running) {
+			ModelNode build = objects.get(key("builds", namespace, name));
+			if (build == null || isTerminal(build.get("status", "phase").asString()))
+				break;
+			Thread.sleep(100);
+		}
+		out.write(("Push successful\n").getBytes(StandardCharsets.UTF_8));
+	}
+
+	/*
+	 * The controllers
+	 */
+
+	private synchronized ModelNode startBuild(String namespace, String bcName) {
+		ModelNode bc = objects.get(key("buildconfigs", namespace, bcName)).clone();
+		int number = bc.get("status", "lastVersion").asInt() + 1;
+		bc.get("status", "lastVersion").set(number);
+		store("buildconfigs", bc, "MODIFIED");
+
+		String name = bcName + "-" + number;
+		ModelNode build = metadata(namespace, name);
+		build.get("metadata", "labels", "buildconfig").set(bcName);
+		build.get("metadata", "labels", BUILD_CONFIG_LABEL).set(bcName);
+		build.get("metadata", "annotations", BUILD_POD_NAME_ANNOTATION).set(name + "-build");
+		build.get("metadata", "annotations", "openshift.io/build.number").set(String.valueOf(number));
+		build.get("spec").set(bc.get("spec").clone());
+		build.get("spec").get("triggers").set(new ModelNode());
+		build.get("status", "phase").set(buildPhases[0]);
+		build.get("status", "config", "kind").set("BuildConfig");
+		build.get("status", "config", "name").set(bcName);
+		ModelNode stored = create("builds", build);
+		schedule(() -> advanceBuild(namespace, name, 1));
+		return stored;
+	}
+
+	private void advanceBuild(String namespace, String name, int phase) {
+		String[] phases = buildPhases;
+		if (phase >= phases.length)
+			return;
+		String output = null;
+		synchronized (this) {
+			ModelNode build = objects.get(key("builds", namespace, name));
+			if (build == null || isTerminal(build.get("status", "phase").asString()))
+				return;
+			build = build.clone();
+			build.get("status", "phase").set(phases[phase]);
+			if ("Complete".equals(phases[phase]) && build.get("spec", "output", "to").has("name"))
+				output = build.get("spec", "output", "to", "name").asString();
+			store("builds", build, "MODIFIED");
+
+			// the build pod shows up once the build leaves New
+			String podName = build.get("metadata", "annotations", BUILD_POD_NAME_ANNOTATION).asString();
+			ModelNode pod = objects.get(key("pods", namespace, podName));
+			pod = pod != null ? pod.clone() : metadata(namespace, podName);
+			pod.get("metadata", "labels", BUILD_NAME_LABEL).set(name);
+			pod.get("status", "phase").set(podPhase(phases[phase]));
+			create("pods", pod);
+		}
+		if (output != null)
+			pushImage(namespace, output);
+		if (phase + 1 < phases.length)
+			schedule(() -> advanceBuild(namespace, name, phase + 1));
+	}
+
+	// what the registry and the image change controller do when a build pushes to an image stream tag
+	private void pushImage(String namespace, String imageTag) {
+		String[] nameAndTag = imageTag.split(":");
+		String isName = nameAndTag[0];
+		String tag = nameAndTag.length > 1 ? nameAndTag[1] : "latest";
+		String hex = digest(namespace + "/" + imageTag + "/" + images.incrementAndGet());
+		String reference = REGISTRY + "/" + namespace + "/" + isName + "@sha256:" + hex;
+
+		List<ModelNode> triggered = new ArrayList<ModelNode>();
+		synchronized (this) {
+			ModelNode is = objects.get(key("imagestreams", namespace, isName));
+			if (is == null) {
+				is = metadata(namespace, isName);
+				is.get("spec").setEmptyObject();
+				is.get("status", "dockerImageRepository").set(REGISTRY + "/" + namespace + "/" + isName);
+				is.get("status", "tags").setEmptyList();
+			} else {
+				is = is.clone();
+			}
+			ModelNode item = new ModelNode();
+			item.get("created").set(timestamp());
+			item.get("dockerImageReference").set(reference);
+			item.get("image").set("sha256:" + hex);
+			item.get("generation").set(images.get());
+
+			ModelNode tags = new ModelNode().setEmptyList();
+			boolean found = false;
+			for (ModelNode t : is.get("status", "tags").asList()) {
+				if (tag.equals(t.get("tag").asString())) {
+					ModelNode items = new ModelNode().setEmptyList();
+					items.add(item);
+					for (ModelNode i : t.get("items").asList())
+						items.add(i);
+					t.get("items").set(items);
+					found = true;
+				}
+				tags.add(t);
+			}
+			if (!found) {
+				ModelNode t = new ModelNode();
+				t.get("tag").set(tag);
+				t.get("items").add(item);
+				tags.add(t);
+			}
+			is.get("status", "tags").set(tags);
+			create("imagestreams", is);
+
+			for (ModelNode dc : list("deploymentconfigs", namespace, null, null)) {
+				if (triggersOn(dc, imageTag))
+					triggered.add(dc);
+			}
+			for (ModelNode dc : triggered)
+				redeploy(dc, imageTag, reference);
+		}
+	}
+
+	private static boolean triggersOn(ModelNode dc, String imageTag) {
+		if (!dc.get("spec").has("triggers"))
+			return false;
+		for (ModelNode trigger : dc.get("spec", "triggers").asList()) {
+			if ("ImageChange".equals(trigger.get("type").asString()) && trigger.get("imageChangeParams").has("from")
+					&& imageTag.equals(trigger.get("imageChangeParams", "from", "name").asString())
+					&& (!trigger.get("imageChangeParams").has("automatic") || trigger.get("imageChangeParams", "automatic").asBoolean()))
+				return true;
+		}
+		return false;
+	}
+
+	private synchronized void redeploy(ModelNode current, String imageTag, String reference) {
+		ModelNode dc = current.clone();
+		List<String> containerNames = new ArrayList<String>();
+		ModelNode triggers = new ModelNode().setEmptyList();
+		for (ModelNode trigger : dc.get("spec", "triggers").asList()) {
+			if ("ImageChange".equals(trigger.get("type").asString()) && imageTag.equals(trigger.get("imageChangeParams", "from", "name").asString())) {
+				trigger.get("imageChangeParams", "lastTriggeredImage").set(reference);
+				if (trigger.get("imageChangeParams").has("containerNames")) {
+					for (ModelNode n : trigger.get("imageChangeParams", "containerNames").asList())
+						containerNames.add(n.asString());
+				}
+			}
+			triggers.add(trigger);
+		}
+		dc.get("spec", "triggers").set(triggers);
+		ModelNode containers = new ModelNode().setEmptyList();
+		for (ModelNode container : dc.get("spec", "template", "spec", "containers").asList()) {
+			if (containerNames.isEmpty() || containerNames.contains(container.get("name").asString()))
+				container.get("image").set(reference);
+			containers.add(container);
+		}
+		dc.get("spec", "template", "spec", "containers").set(containers);
+		dc.get("status", "latestVersion").set(dc.get("status", "latestVersion").asInt() + 1);
+		ModelNode causes = new ModelNode().setEmptyList();
+		ModelNode cause = causes.add();
+		cause.get("type").set("ImageChange");
+		cause.get("imageTrigger", "from", "kind").set("ImageStreamTag");
+		cause.get("imageTrigger", "from", "name").set(imageTag);
+		dc.get("status", "details", "causes").set(causes);
+		deploy(store("deploymentconfigs", dc, "MODIFIED"));
+	}
+
+	// a new replication controller for the deployment config's latest version, which then goes through the deployment phases
+	private synchronized void deploy(ModelNode dc) {
+		ModelNode rc = replicationController(dc);
+		rc.get("metadata", "annotations", DEPLOYMENT_PHASE_ANNOTATION).set(deploymentPhases[0]);
+		rc.get("status", "replicas").set(0);
+		ModelNode stored = create("replicationcontrollers", rc);
+		String namespace = stored.get("metadata", "namespace").asString();
+		String name = stored.get("metadata", "name").asString();
+		schedule(() -> advanceDeployment(namespace, name, 1));
+	}
+
+	private void advanceDeployment(String namespace, String name, int phase) {
+		String[] phases = deploymentPhases;
+		if (phase >= phases.length)
+			return;
+		synchronized (this) {
+			ModelNode rc = objects.get(key("replicationcontrollers", namespace, name));
+			if (rc == null)
+				return;
+			rc = rc.clone();
+			rc.get("metadata", "annotations", DEPLOYMENT_PHASE_ANNOTATION).set(phases[phase]);
+			if ("Complete".equals(phases[phase]))
+				rc.get("status", "replicas").set(rc.get("spec", "replicas").asInt());
+			store("replicationcontrollers", rc, "MODIFIED");
+		}
+		if (phase + 1 < phases.length)
+			schedule(() -> advanceDeployment(namespace, name, phase + 1));
+	}
+
+	private ModelNode replicationController(ModelNode dc) {
+		String namespace = dc.get("metadata", "namespace").asString();
+		String dcName = dc.get("metadata", "name").asString();
+		int version = dc.get("status", "latestVersion").asInt();
+		ModelNode rc = metadata(namespace, dcName + "-" + version);
+		rc.get("metadata", "labels", DEPLOYMENT_CONFIG_ANNOTATION).set(dcName);
+		rc.get("metadata", "annotations", DEPLOYMENT_CONFIG_ANNOTATION).set(dcName);
+		rc.get("metadata", "annotations", "openshift.io/deployment-config.latest-version").set(String.valueOf(version));
+		rc.get("metadata", "annotations", ENCODED_DEPLOYMENT_CONFIG_ANNOTATION).set(dc.toJSONString(true));
+		rc.get("spec", "replicas").set(dc.get("spec", "replicas").asInt());
+		rc.get("spec", "selector").set(dc.get("spec", "selector").clone());
+		rc.get("spec", "template").set(dc.get("spec", "template").clone());
+		return rc;
+	}
+
+	private synchronized ModelNode update(String plural, String namespace, String name, ModelNode object) {
+		ModelNode current = objects.get(key(plural, namespace, name));
+		if (current == null)
+			return null;
+		object.get("kind").set(KINDS.get(plural)[0]);
+		object.get("apiVersion").set("v1");
+		object.get("metadata", "namespace").set(namespace);
+		object.get("metadata", "name").set(name);
+
+		if ("replicationcontrollers".equals(plural) && object.get("spec", "replicas").asInt() != current.get("status", "replicas").asInt()) {
+			// the replication manager catches up with the new replica count
+			if (scaleDelay <= 0) {
+				object.get("status", "replicas").set(object.get("spec", "replicas").asInt());
+			} else {
+				object.get("status", "replicas").set(current.get("status", "replicas").asInt());
+				schedule(() -> scaled(namespace, name), scaleDelay);
+			}
+		}
+		ModelNode stored = store(plural, object, "MODIFIED");
+
+		// a bump of latestVersion is a request for a new deployment
+		if ("deploymentconfigs".equals(plural) && stored.get("status", "latestVersion").asInt() > current.get("status", "latestVersion").asInt())
+			deploy(stored);
+		return stored;
+	}
+
+	private synchronized void scaled(String namespace, String name) {
+		ModelNode rc = objects.get(key("replicationcontrollers", namespace, name));
+		if (rc == null)
+			return;
+		rc = rc.clone();
+		rc.get("status", "replicas").set(rc.get("spec", "replicas").asInt());
+		store("replicationcontrollers", rc, "MODIFIED");
+	}
+
+	private synchronized ModelNode delete(String plural, String namespace, String name) {
+		ModelNode removed = objects.remove(key(plural, namespace, name));
+		if (removed != null) {
+			removed = removed.clone();
+			removed.get("metadata", "resourceVersion").set(String.valueOf(resourceVersion.incrementAndGet()));
+			publish(plural, "DELETED", removed);
+		}
+		return removed;
+	}
+
+	/*
+	 * Storage and watch events
+	 */
+
+	private synchronized ModelNode store(String plural, ModelNode object, String type) {
+		object.get("metadata", "resourceVersion").set(String.valueOf(resourceVersion.incrementAndGet()));
+		objects.put(key(plural, object), object);
+		publish(plural, type, object);
+		return object.clone();
+	}
+
+	// called with the lock held, so the history and the open watches see the events in the same order
+	private void publish(String plural, String type, ModelNode object) {
+		history.add(new Event(plural, type, object));
+		while (history.size() > Math.max(0, watchHistory))
+			compacted = history.remove().resourceVersion;
+		for (Watch watch : watches) {
+			if (watch.wants(plural, object))
+				watch.events.add(event(type, object));
+		}
+	}
+
+	private List<ModelNode> list(String plural, String namespace, String labelSelector, String fieldSelector) {
+		List<ModelNode> list = new ArrayList<ModelNode>();
+		String from = plural + "|" + namespace + "|";
+		for (Map.Entry<String, ModelNode> entry : objects.tailMap(from).entrySet()) {
+			if (!entry.getKey().startsWith(from))
+				break;
+			if (matches(entry.getValue(), labelSelector, fieldSelector))
+				list.add(entry.getValue());
+		}
+		return list;
+	}
+
+	// equality based selectors only (a=b,c=d, and a!=b for fields), which is all the plugin uses
+	private static boolean matches(ModelNode object, String labelSelector, String fieldSelector) {
+		if (labelSelector != null && labelSelector.length() > 0) {
+			for (String requirement : labelSelector.split(",")) {
+				String[] kv = requirement.split("==?", 2);
+				ModelNode labels = object.get("metadata", "labels");
+				if (kv.length != 2 || !labels.has(kv[0]) || !kv[1].equals(labels.get(kv[0]).asString()))
+					return false;
+			}
+		}
+		if (fieldSelector != null && fieldSelector.length() > 0) {
+			for (String requirement : fieldSelector.split(",")) {
+				boolean negated = requirement.contains("!=");
+				String[] kv = requirement.split(negated ? "!=" : "==?", 2);
+				if (kv.length != 2)
+					return false;
+				// a build's "status" field is its phase
+				String field = "status".equals(kv[0]) ? "status.phase" : kv[0];
+				String value = null;
+				ModelNode node = object;
+				for (String p : field.split("\\.")) {
+					if (!node.has(p)) {
+						node = null;
+						break;
+					}
+					node = node.get(p);
+				}
+				if (node != null && node.isDefined())
+					value = node.asString();
+				if (negated == kv[1].equals(value))
+					return false;
+			}
+		}
+		return true;
+	}
+
+	private static ModelNode event(String type, ModelNode object) {
+		ModelNode event = new ModelNode();
+		event.get("type").set(type);
+		event.get("object").set(object);
+		return event;
+	}
+
+	private void schedule(Runnable r) {
+		schedule(r, phaseDelay);
+	}
+
+	private void schedule(Runnable r, long delay) {
+		if (running)
+			scheduler.schedule(r, delay, TimeUnit.MILLISECONDS);
+	}
+
+	private void count(String verb, String resource) {
+		requests.computeIfAbsent(verb + " " + resource, k -> new AtomicLong()).incrementAndGet();
+	}
+
+	/*
+	 * Helpers
+	 */
+
+	private static ModelNode discovery(String path) {
+		ModelNode node = new ModelNode();
+		if (path.equals("/api") || path.equals("/oapi")) {
+			node.get("kind").set("APIVersions");
+			node.get("versions").add("v1");
+		} else if (path.equals("/apis")) {
+			node.get("kind").set("APIGroupList");
+			node.get("groups").setEmptyList();
+		} else if (path.startsWith("/version")) {
+			node.get("major").set("1");
+			node.get("minor").set("3");
+			node.get("gitVersion").set(path.equals("/version") ? "v1.3.0" : "v1.3.0-mock");
+		} else {
+			node.get("kind").set("APIResourceList");
+			node.get("groupVersion").set("v1");
+			node.get("resources").setEmptyList();
+			for (Map.Entry<String, String[]> entry : KINDS.entrySet()) {
+				if (!entry.getValue()[1].equals(path))
+					continue;
+				ModelNode resource = node.get("resources").add();
+				resource.get("name").set(entry.getKey());
+				resource.get("namespaced").set(true);
+				resource.get("kind").set(entry.getValue()[0]);
+			}
+			if (path.equals(OAPI)) {
+				ModelNode instantiate = node.get("resources").add();
+				instantiate.get("name").set("buildconfigs/instantiate");
+				instantiate.get("namespaced").set(true);
+				instantiate.get("kind").set("BuildRequest");
+				ModelNode clone = node.get("resources").add();
+				clone.get("name").set("builds/clone");
+				clone.get("namespaced").set(true);
+				clone.get("kind").set("BuildRequest");
+				ModelNode log = node.get("resources").add();
+				log.get("name").set("builds/log");
+				log.get("namespaced").set(true);
+				log.get("kind").set("BuildLog");
+			}
+		}
+		return node;
+	}
+
+	private static ModelNode status(int code, String reason, String message) {
+		ModelNode status = new ModelNode();
+		status.get("kind").set("Status");
+		status.get("apiVersion").set("v1");
+		status.get("status").set(code < 300 ? "Success" : "Failure");
+		if (message != null)
+			status.get("message").set(message);
+		if (reason != null)
+			status.get("reason").set(reason);
+		status.get("code").set(code);
+		return status;
+	}
+
+	private static ModelNode notFound(String plural, String name) {
+		return status(404, "NotFound", plural + " \"" + name + "\" not found");
+	}
+
+	private static void respond(HttpExchange exchange, int code, ModelNode body) throws IOException {
+		byte[] bytes = body.toJSONString(true).getBytes(StandardCharsets.UTF_8);
+		exchange.getResponseHeaders().set("Content-Type", "application/json");
+		exchange.sendResponseHeaders(code, bytes.length);
+		OutputStream out = exchange.getResponseBody();
+		out.write(bytes);
+		out.flush();
+	}
+
+	private static ModelNode metadata(String namespace, String name) {
+		ModelNode node = new ModelNode();
+		node.get("metadata", "name").set(name);
+		node.get("metadata", "namespace").set(namespace);
+		return node;
+	}
+
+	private static ModelNode getTagImage(ModelNode is, String tag) {
+		if (!is.get("status").has("tags"))
+			return null;
+		for (ModelNode t : is.get("status", "tags").asList()) {
+			if (tag.equals(t.get("tag").asString()) && t.has("items") && t.get("items").asList().size() > 0)
+				return t.get("items").asList().get(0);
+		}
+		return null;
+	}
+
+	private static boolean isTerminal(String phase) {
+		return "Complete".equals(phase) || "Failed".equals(phase) || "Error".equals(phase) || "Cancelled".equals(phase);
+	}
+
+	private static String podPhase(String buildPhase) {
+		if ("Complete".equals(buildPhase))
+			return "Succeeded";
+		if ("Failed".equals(buildPhase) || "Error".equals(buildPhase) || "Cancelled".equals(buildPhase))
+			return "Failed";
+		return "New".equals(buildPhase) ? "Pending" : buildPhase;
+	}
+
+	private static String key(String plural, ModelNode object) {
+		return key(plural, object.get("metadata", "namespace").asString(), object.get("metadata", "name").asString());
+	}
+
+	private static String key(String plural, String namespace, String name) {
+		return plural + "|" + namespace + "|" + name;
+	}
+
+	private static String timestamp() {
+		java.text.SimpleDateFormat format = new java.text.SimpleDateFormat("yyyy-MM-dd'T'HH:mm:ss'Z'");
+		format.setTimeZone(java.util.TimeZone.getTimeZone("UTC"));
+		return format.format(new java.util.Date());
+	}
+
+	private static String digest(String value) {
+		try {
+			byte[] bytes = MessageDigest.getInstance("SHA-256").digest(value.getBytes(StandardCharsets.UTF_8));
+			StringBuilder sb = new StringBuilder(bytes.length * 2);
+			for (byte b : bytes) {
+				sb.append(Character.forDigit((b >> 4) & 0xf, 16));
+				sb.append(Character.forDigit(b & 0xf, 16));
+			}
+			return sb.toString();
+		} catch (NoSuchAlgorithmException e) {
+			throw new IllegalStateException(e);
+		}
+	}
+
+	private static Map<String, String> parseQuery(String rawQuery) throws IOException {
+		Map<String, String> query = new HashMap<String, String>();
+		if (rawQuery == null)
+			return query;
+		for (String param : rawQuery.split("&")) {
+			String[] kv = param.split("=", 2);
+			query.put(URLDecoder.decode(kv[0], "UTF-8"), kv.length > 1 ? URLDecoder.decode(kv[1], "UTF-8") : "");
+		}
+		return query;
+	}
+
+	private static String read(InputStream in) throws IOException {
+		try {
+			ByteArrayOutputStream out = new ByteArrayOutputStream();
+			byte[] buf = new byte[8192];
+			int len;
+			while ((len = in.read(buf)) != -1)
+				out.write(buf, 0, len);
+			return new String(out.toByteArray(), StandardCharsets.UTF_8);
+		} finally {
+			in.close();
+		}
+	}
+
+	private static SSLContext createSSLContext() throws Exception {
+		KeyStore keyStore = KeyStore.getInstance("PKCS12");
+		try (InputStream in = MockApiServer.class.getResourceAsStream(KEY_STORE)) {
+			keyStore.load(in, KEY_STORE_PASSWORD);
+		}
+		KeyManagerFactory kmf = KeyManagerFactory.getInstance(KeyManagerFactory.getDefaultAlgorithm());
+		kmf.init(keyStore, KEY_STORE_PASSWORD);
+		SSLContext context = SSLContext.getInstance("TLS");
+		context.init(kmf.getKeyManagers(), null, null);
+		return context;
+	}
+
+	private static Thread daemon(Runnable r, String name) {
+		Thread t = new Thread(r, name);
+		t.setDaemon(true);
+		return t;
+	}
+
+	private static final class Watch {
+		private final String plural;
+		private final String namespace;
+		private final String labelSelector;
+		private final String fieldSelector;
+		private final BlockingQueue<ModelNode> events = new LinkedBlockingQueue<ModelNode>();
+
+		private Watch(String plural, String namespace, String labelSelector, String fieldSelector) {
+			this.plural = plural;
+			this.namespace = namespace;
+			this.labelSelector = labelSelector;
+			this.fieldSelector = fieldSelector;
+		}
+
+		private boolean wants(String plural, ModelNode object) {
+			return this.plural.equals(plural) && namespace.equals(object.get("metadata", "namespace").asString()) && matches(object, labelSelector, fieldSelector);
+		}
+	}
+
+	private static final class Event {
+		private final String plural;
+		private final String type;
+		private final ModelNode object;
+		private final long resourceVersion;
+
+		private Event(String plural, String type, ModelNode object) {
+			this.plural = plural;
+			this.type = type;
+			this.object = object;
+			this.resourceVersion = Long.parseLong(object.get("metadata", "resourceVersion").asString());
+		}
+	}
+}
@@ -0,0 +1,68 @@
+package com.openshift.jenkins.plugins.pipeline.benchmarks;
+
+import hudson.EnvVars;
+import hudson.model.TaskListener;
+
+import java.util.HashMap;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.openshift.jenkins.plugins.pipeline.OpenShiftBuilder;
+
+/*
+ * Resolving a step's fields against the build environment, as done at the start of every step run.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class OverrideBenchmark {
+
+	private OpenShiftBuilder builder;
+	private EnvVars env;
+	private HashMap<String, String> originals;
+
+	@Setup
+	public void setup() {
+		builder = new OpenShiftBuilder("API_URL", "BLD_CFG", "PROJECT", "", "false", "COMMIT_ID", "", "false", "false");
+		env = new EnvVars();
+		// a typical build environment, most of which has nothing to do with the step
+		for (int i = 0; i < 50; i++)
+			env.put("UNRELATED_VAR_" + i, "value" + i);
+		env.put("API_URL", "https://openshift.default.svc.cluster.local");
+		env.put("BLD_CFG", "frontend");
+		env.put("PROJECT", "test");
+		env.put("COMMIT_ID", "0123456789abcdef");
+		originals = new HashMap<String, String>();
+		originals.put("apiURL", "API_URL");
+		originals.put("bldCfg", "BLD_CFG");
+		originals.put("namespace", "PROJECT");
+		originals.put("commitID", "COMMIT_ID");
+	}
+
+	@Benchmark
+	public HashMap<String, String> inspectBuildEnvAndOverrideFields() {
+		return builder.inspectBuildEnvAndOverrideFields(env, TaskListener.NULL, false);
+	}
+
+	@Benchmark
+	public HashMap<String, String> inspectAndRestore() {
+		HashMap<String, String> overrides = builder.inspectBuildEnvAndOverrideFields(env, TaskListener.NULL, false);
+		builder.restoreOverridenFields(overrides, TaskListener.NULL);
+		// put the parameter names back for the next invocation
+		builder.restoreOverridenFields(originals, TaskListener.NULL);
+		return overrides;
+	}
+}
@@ -0,0 +1,274 @@
+package com.openshift.jenkins.plugins.pipeline.benchmarks;
+
+import hudson.EnvVars;
+import hudson.model.TaskListener;
+import hudson.scm.SCMDescriptor;
+import hudson.util.NullStream;
+import hudson.util.StreamTaskListener;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.OutputStreamWriter;
+import java.io.PrintWriter;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryMXBean;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.Callable;
+
+import jenkins.model.Jenkins;
+
+import org.junit.runner.Description;
+import org.junit.runners.model.Statement;
+import org.jvnet.hudson.test.JenkinsRule;
+
+import com.openshift.jenkins.plugins.pipeline.Auth;
+import com.openshift.jenkins.plugins.pipeline.BuildPhaseMonitor;
+import com.openshift.jenkins.plugins.pipeline.ClientRegistry;
+import com.openshift.jenkins.plugins.pipeline.DeploymentTriggerIndex;
+import com.openshift.jenkins.plugins.pipeline.IOpenShiftPlugin;
+import com.openshift.jenkins.plugins.pipeline.ImageStreamPollCoordinator;
+import com.openshift.jenkins.plugins.pipeline.OpenShiftBuilder;
+import com.openshift.jenkins.plugins.pipeline.OpenShiftDeployer;
+import com.openshift.jenkins.plugins.pipeline.OpenShiftImageStreams;
+import com.openshift.jenkins.plugins.pipeline.OpenShiftScaler;
+import com.openshift.restclient.authorization.TokenAuthorizationStrategy;
+
+/*
+ * Runs the plugin's steps against a MockApiServer holding a namespace the size of a large, long lived project (by default
+ * 10,000 pods and 1,000 deployment configs, 10 of which redeploy on the image the build produces) and reports, for each
+ * step run, the api server requests it made, its wall time, what it allocated on the step's thread and the heap still in
+ * use afterwards.  The steps look up their descriptors, so the runs happen inside a JenkinsRule.
+ *
+ *   mvn install
+ *   mvn -f benchmarks/pom.xml -Pscale compile exec:exec
+ *
+ * The sizes and timings come from system properties (see the scale profile in benchmarks/pom.xml):  scale.pods, scale.dcs,
+ * scale.triggered, scale.polls, scale.runs, scale.latency, scale.phaseDelay, scale.logLines and scale.verbose;  scale.result
+ * names a file the results are also written to, as JSON.
+ *
+ * The plugin keeps process wide state across step runs:  the shared clients (and with them their ResourceCache and
+ * GetCoalescer), the image stream polls, and the build and deployment config watches.  So each result records how much of
+ * that was already warm when the step started.  With scale.cold, the clients and image stream polls are dropped before
+ * every step run, so each run starts from what a freshly started Jenkins would have;  the watches stay, as there is no
+ * stopping them from outside, and are still reported.
+ */
+public class ScaleSuite {
+
+	private static final String NAMESPACE = "scale";
+	private static final String TOKEN = "scale-suite-token";
+
+	private final int pods = Integer.getInteger("scale.pods", 10000);
+	private final int dcs = Integer.getInteger("scale.dcs", 1000);
+	private final int triggered = Integer.getInteger("scale.triggered", 10);
+	private final int polls = Integer.getInteger("scale.polls", 100);
+	private final int runs = Integer.getInteger("scale.runs", 3);
+	private final long latency = Long.getLong("scale.latency", 5);
+	private final long phaseDelay = Long.getLong("scale.phaseDelay", 500);
+	private final int logLines = Integer.getInteger("scale.logLines", 1000);
+	private final boolean verbose = Boolean.getBoolean("scale.verbose");
+	private final boolean cold = Boolean.getBoolean("scale.cold");
+	private final String result = System.getProperty("scale.result");
+
+	private final List<Result> results = new ArrayList<Result>();
+	private MockApiServer server;
+	private EnvVars env;
+	private TaskListener listener;
+
+	public static void main(String[] args) throws Throwable {
+		JenkinsRule jenkins = new JenkinsRule();
+		jenkins.apply(new Statement() {
+			@Override
+			public void evaluate() throws Throwable {
+				new ScaleSuite().run();
+			}
+		}, Description.createTestDescription(ScaleSuite.class, "scale")).evaluate();
+		// the shared watches the steps leave behind are daemon threads, but Jenkins' own timers are not
+		System.exit(0);
+	}
+
+	public void run() throws Exception {
+		server = new MockApiServer();
+		server.setPhaseDelay(phaseDelay);
+		server.setLogLines(logLines);
+		server.start();
+		try {
+			long start = System.currentTimeMillis();
+			seed();
+			System.out.println("seeded " + NAMESPACE + " with " + pods + " pods and " + dcs + " deployment configs (" + triggered
+					+ " triggered by frontend:latest) in " + (System.currentTimeMillis() - start) + " ms");
+			// latency only applies to the steps, not to seeding
+			server.setLatency(latency);
+
+			env = new EnvVars();
+			env.put("CA_CERT", server.getCertificate());
+			listener = new StreamTaskListener(verbose ? System.out : new NullStream());
+			String url = server.getURL();
+
+			for (int run = 1; run <= runs; run++) {
+				final int replicas = run % 2 == 0 ? 1 : 2;
+				measure("OpenShiftBuilder", run, () -> step(new OpenShiftBuilder(url, "frontend", NAMESPACE, TOKEN, String.valueOf(verbose), "", "", "true", "true")));
+				measure("OpenShiftDeployer", run, () -> step(new OpenShiftDeployer(url, "app-0", NAMESPACE, TOKEN, String.valueOf(verbose))));
+				measure("OpenShiftScaler", run, () -> step(new OpenShiftScaler(url, "app-0", NAMESPACE, String.valueOf(replicas), TOKEN, String.valueOf(verbose), "true")));
+				measure("OpenShiftImageStreams x" + polls, run, () -> {
+					// the same tag polled by many jobs, as happens when many jobs are triggered by one image
+					boolean found = true;
+					for (int i = 0; i < polls; i++)
+						found &= new PolledImageStreams(url).poll(listener, env) != null;
+					return found;
+				});
+			}
+		} finally {
+			server.stop();
+		}
+		report();
+	}
+
+	private void seed() {
+		server.addPods(NAMESPACE, "app", pods);
+		server.addImageStream(NAMESPACE, "frontend", "latest");
+		server.addBuildConfig(NAMESPACE, "frontend", "frontend:latest");
+		server.addService(NAMESPACE, "frontend", 8080);
+		for (int i = 0; i < dcs; i++) {
+			// the rest trigger on images of their own, so the build has to find its deployment configs among them
+			server.addDeploymentConfig(NAMESPACE, "app-" + i, i < triggered ? "frontend:latest" : "app-" + i + ":latest", 1);
+		}
+	}
+
+	private boolean step(IOpenShiftPlugin step) {
+		// what doItCore does before calling coreLogic, without needing a Run
+		step.setAuth(Auth.createInstance(null, step.getApiURL(), env));
+		step.setToken(new TokenAuthorizationStrategy(TOKEN));
+		return step.coreLogic(null, listener, env, new HashMap<String, String>());
+	}
+
+	private void measure(String name, int run, Callable<Boolean> step) throws Exception {
+		if (cold) {
+			ClientRegistry.invalidateAll();
+			ImageStreamPollCoordinator.reset();
+		}
+		String warm = "clients " + ClientRegistry.getSize() + " image stream polls " + ImageStreamPollCoordinator.getSize()
+				+ " build watches " + BuildPhaseMonitor.getSize() + " trigger indexes " + DeploymentTriggerIndex.getSize();
+		MemoryMXBean memory = ManagementFactory.getMemoryMXBean();
+		Map<String, Long> before = server.getRequestCounts();
+		memory.gc();
+		long heapBefore = memory.getHeapMemoryUsage().getUsed();
+		long allocatedBefore = allocated();
+		long start = System.nanoTime();
+		boolean successful = step.call();
+		long millis = (System.nanoTime() - start) / 1000000;
+		long allocated = allocated() - allocatedBefore;
+		memory.gc();
+		long retained = memory.getHeapMemoryUsage().getUsed() - heapBefore;
+
+		Map<String, Long> requests = new TreeMap<String, Long>();
+		for (Map.Entry<String, Long> entry : server.getRequestCounts().entrySet()) {
+			long count = entry.getValue() - (before.containsKey(entry.getKey()) ? before.get(entry.getKey()) : 0);
+			if (count > 0)
+				requests.put(entry.getKey(), count);
+		}
+		Result r = new Result(name, run, successful, millis, allocated, retained, requests, warm);
+		results.add(r);
+		System.out.println(r);
+	}
+
+	// bytes allocated by the current thread, if the JVM can tell
+	private static long allocated() {
+		java.lang.management.ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+		if (threads instanceof com.sun.management.ThreadMXBean)
+			return ((com.sun.management.ThreadMXBean) threads).getThreadAllocatedBytes(Thread.currentThread().getId());
+		return 0;
+	}
+
+	private void report() throws Exception {
+		System.out.println();
+		System.out.println(String.format("%-28s %4s %5s %9s %9s %12s %12s", "step", "run", "ok", "millis", "requests", "allocated KB", "retained KB"));
+		for (Result r : results) {
+			System.out.println(String.format("%-28s %4d %5s %9d %9d %12d %12d", r.step, r.run, r.successful, r.millis, r.getRequestCount(),
+					r.allocated / 1024, r.retained / 1024));
+		}
+		if (result == null)
+			return;
+		File file = new File(result);
+		if (file.getParentFile() != null)
+			file.getParentFile().mkdirs();
+		try (PrintWriter out = new PrintWriter(new OutputStreamWriter(new FileOutputStream(file), StandardCharsets.UTF_8))) {
+			out.println("[");
+			for (int i = 0; i < results.size(); i++)
+				out.println("  " + results.get(i).toJSON() + (i < results.size() - 1 ? "," : ""));
+			out.println("]");
+		}
+		System.out.println("\nresults written to " + file.getAbsolutePath());
+	}
+
+	// the SCM's poll, without the AbstractProject compareRemoteRevisionWith needs
+	private static final class PolledImageStreams extends OpenShiftImageStreams {
+		private PolledImageStreams(String url) {
+			super("frontend", "latest", url, NAMESPACE, TOKEN, "false");
+		}
+
+		private String poll(TaskListener listener, EnvVars env) {
+			return getCommitId(listener, env, new HashMap<String, String>());
+		}
+
+		@Override
+		public SCMDescriptor<?> getDescriptor() {
+			return (SCMDescriptor<?>) Jenkins.getInstance().getDescriptorOrDie(OpenShiftImageStreams.class);
+		}
+	}
+
+	private static final class Result {
+		private final String step;
+		private final int run;
+		private final boolean successful;
+		private final long millis;
+		private final long allocated;
+		private final long retained;
+		private final Map<String, Long> requests;
+		// the shared state already in place when the step started
+		private final String warm;
+
+		private Result(String step, int run, boolean successful, long millis, long allocated, long retained, Map<String, Long> requests, String warm) {
+			this.step = step;
+			this.run = run;
+			this.successful = successful;
+			this.millis = millis;
+			this.allocated = allocated;
+			this.retained = retained;
+			this.requests = requests;
+			this.warm = warm;
+		}
+
+		private long getRequestCount() {
+			long total = 0;
+			for (long count : requests.values())
+				total += count;
+			return total;
+		}
+
+		private String toJSON() {
+			StringBuilder sb = new StringBuilder("{\"step\":\"").append(step).append("\",\"run\":").append(run)
+					.append(",\"successful\":").append(successful).append(",\"millis\":").append(millis)
+					.append(",\"allocatedBytes\":").append(allocated).append(",\"retainedBytes\":").append(retained)
+					.append(",\"warm\":\"").append(warm).append("\",\"requests\":{");
+			boolean first = true;
+			for (Map.Entry<String, Long> entry : requests.entrySet()) {
+				if (!first)
+					sb.append(',');
+				sb.append('"').append(entry.getKey()).append("\":").append(entry.getValue());
+				first = false;
+			}
+			return sb.append("}}").toString();
+		}
+
+		@Override
+		public String toString() {
+			return step + " run " + run + (successful ? " succeeded" : " FAILED") + " in " + millis + " ms, " + getRequestCount()
+					+ " requests " + requests + ", allocated " + (allocated / 1024) + " KB, retained " + (retained / 1024) + " KB, warm: " + warm;
+		}
+	}
+}
@@ -0,0 +1,270 @@
+package com.openshift.jenkins.plugins.pipeline;
+
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.function.Supplier;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+import com.openshift.restclient.IClient;
+import com.openshift.restclient.OpenShiftException;
+import com.openshift.restclient.model.IResource;
+
+/*
+ * Latency, count and error metrics for each REST call the plugin makes to the api server, per verb and kind (i.e.
+ * "get DeploymentConfig", "trigger BuildConfig", "log Build").  They are shown on the "OpenShift API Metrics" management
+ * page (see ApiMetricsLink) and over JMX, so that the steps which are expensive at scale can be found without
+ * turning on verbose logging in every job.
+ */
+public class ApiMetrics implements ApiMetricsMXBean {
+
+	private static final Logger LOGGER = Logger.getLogger(ApiMetrics.class.getName());
+
+	public static final String OBJECT_NAME = "com.openshift.jenkins.plugins.pipeline:type=ApiMetrics";
+
+	// upper bounds, in milliseconds, of the latency histogram buckets;  anything slower lands in the last, unbounded, bucket
+	static final long[] BUCKETS = {10, 25, 50, 100, 250, 500, 1000, 2500, 5000, 10000};
+
+	// the IClient methods that go to the api server
+	private static final String[] CALL_METHODS = {"get", "list", "watch", "create", "update", "delete", "execute"};
+
+	private static final ApiMetrics INSTANCE = new ApiMetrics();
+
+	private final ConcurrentSkipListMap<String, Call> calls = new ConcurrentSkipListMap<String, Call>();
+
+	static {
+		try {
+			MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+			ObjectName name = new ObjectName(OBJECT_NAME);
+			// left over from a previous load of the plugin
+			if (server.isRegistered(name))
+				server.unregisterMBean(name);
+			server.registerMBean(INSTANCE, name);
+		} catch (Exception e) {
+			LOGGER.log(Level.WARNING, "could not register " + OBJECT_NAME, e);
+		}
+	}
+
+	private ApiMetrics() {
+	}
+
+	public static ApiMetrics getInstance() {
+		return INSTANCE;
+	}
+
+	public static void record(String verb, String kind, long millis, String error) {
+		String key = verb + " " + (kind != null ? kind : "?");
+		Call call = INSTANCE.calls.computeIfAbsent(key, k -> new Call(k));
+		call.record(millis, error);
+	}
+
+	// times a call made outside of the IClient, i.e. a build trigger through the resource's capability
+	public static <T> T time(String verb, String kind, Supplier<T> call) {
+		long start = System.currentTimeMillis();
+		String error = null;
+		try {
+			return call.get();
+		} catch (RuntimeException e) {
+			error = getError(e);
+			throw e;
+		} finally {
+			record(verb, kind, System.currentTimeMillis() - start, error);
+		}
+	}
+
+	// an IClient whose api calls are timed; wrap the client nearest to the transport, so cache hits and rate limiting do not count
+	public static IClient wrap(IClient client) {
+		if (client == null)
+			return null;
+		return DelegatingClient.wrap(client, (delegate, method, args) -> {
+			String verb = method.getName();
+			if (!isCall(verb))
+				return DelegatingClient.invoke(delegate, method, args);
+			long start = System.currentTimeMillis();
+			String error = null;
+			try {
+				return DelegatingClient.invoke(delegate, method, args);
+			} catch (Throwable t) {
+				error = getError(t);
+				throw t;
+			} finally {
+				record(verb, getKind(args), System.currentTimeMillis() - start, error);
+			}
+		});
+	}
+
+	// the status code, as for the calls made on a raw connection, when the api server answered;  otherwise what went wrong
+	static String getError(Throwable t) {
+		if (t instanceof OpenShiftException) {
+			OpenShiftException e = (OpenShiftException) t;
+			if (e.getStatus() != null)
+				return "HTTP " + e.getStatus().getCode();
+		}
+		return t.getClass().getSimpleName();
+	}
+
+	public List<Call> getCalls() {
+		return new ArrayList<Call>(calls.values());
+	}
+
+	public static String getBucketLabel(int i) {
+		return i < BUCKETS.length ? "<= " + BUCKETS[i] + " ms" : "> " + BUCKETS[BUCKETS.length - 1] + " ms";
+	}
+
+	public static int getBucketCount() {
+		return BUCKETS.length + 1;
+	}
+
+	@Override
+	public Map<String, Long> getCounts() {
+		Map<String, Long> map = new TreeMap<String, Long>();
+		for (Call call : calls.values())
+			map.put(call.getName(), call.getCount());
+		return map;
+	}
+
+	@Override
+	public Map<String, Long> getErrors() {
+		Map<String, Long> map = new TreeMap<String, Long>();
+		for (Call call : calls.values())
+			map.put(call.getName(), call.getErrors());
+		return map;
+	}
+
+	@Override
+	public Map<String, Long> getMeanMillis() {
+		Map<String, Long> map = new TreeMap<String, Long>();
+		for (Call call : calls.values())
+			map.put(call.getName(), call.getMeanMillis());
+		return map;
+	}
+
+	@Override
+	public Map<String, Long> getMaxMillis() {
+		Map<String, Long> map = new TreeMap<String, Long>();
+		for (Call call : calls.values())
+			map.put(call.getName(), call.getMaxMillis());
+		return map;
+	}
+
+	@Override
+	public Map<String, Long> getLatencyHistogram() {
+		Map<String, Long> map = new TreeMap<String, Long>();
+		for (Call call : calls.values()) {
+			for (int i = 0; i < getBucketCount(); i++)
+				map.put(call.getName() + " " + (i < BUCKETS.length ? String.valueOf(BUCKETS[i]) : "+inf"), call.getBucket(i));
+		}
+		return map;
+	}
+
+	@Override
+	public Map<String, Long> getErrorCodes() {
+		Map<String, Long> map = new TreeMap<String, Long>();
+		for (Call call : calls.values()) {
+			for (Map.Entry<String, AtomicLong> entry : call.errorCodes.entrySet())
+				map.put(call.getName() + " " + entry.getKey(), entry.getValue().get());
+		}
+		return map;
+	}
+
+	@Override
+	public void reset() {
+		calls.clear();
+	}
+
+	private static boolean isCall(String methodName) {
+		for (String m : CALL_METHODS) {
+			if (m.equals(methodName))
+				return true;
+		}
+		return false;
+	}
+
+	// get / list / watch take the kind first, create / update / delete the resource
+	private static String getKind(Object[] args) {
+		if (args == null || args.length == 0)
+			return null;
+		if (args[0] instanceof String)
+			return (String) args[0];
+		if (args[0] instanceof IResource)
+			return ((IResource) args[0]).getKind();
+		// execute(httpMethod, kind, ...)
+		if (args.length > 1 && args[1] instanceof String)
+			return (String) args[1];
+		return null;
+	}
+
+	public static final class Call {
+		private final String name;
+		private final AtomicLong count = new AtomicLong();
+		private final AtomicLong errors = new AtomicLong();
+		private final AtomicLong totalMillis = new AtomicLong();
+		private final AtomicLong maxMillis = new AtomicLong();
+		private final AtomicLongArray buckets = new AtomicLongArray(BUCKETS.length + 1);
+		private final ConcurrentHashMap<String, AtomicLong> errorCodes = new ConcurrentHashMap<String, AtomicLong>();
+
+		private Call(String name) {
+			this.name = name;
+		}
+
+		private void record(long millis, String error) {
+			count.incrementAndGet();
+			totalMillis.addAndGet(millis);
+			maxMillis.accumulateAndGet(millis, Math::max);
+			int i = 0;
+			while (i < BUCKETS.length && millis > BUCKETS[i])
+				i++;
+			buckets.incrementAndGet(i);
+			if (error != null) {
+				errors.incrementAndGet();
+				errorCodes.computeIfAbsent(error, k -> new AtomicLong()).incrementAndGet();
+			}
+		}
+
+		public String getName() {
+			return name;
+		}
+
+		public long getCount() {
+			return count.get();
+		}
+
+		public long getErrors() {
+			return errors.get();
+		}
+
+		public long getMeanMillis() {
+			long c = count.get();
+			return c > 0 ? totalMillis.get() / c : 0;
+		}
+
+		public long getMaxMillis() {
+			return maxMillis.get();
+		}
+
+		public long getBucket(int i) {
+			return buckets.get(i);
+		}
+
+		public List<Long> getBuckets() {
+			List<Long> list = new ArrayList<Long>();
+			for (int i = 0; i < buckets.length(); i++)
+				list.add(buckets.get(i));
+			return list;
+		}
+
+		public String getErrorCodes() {
+			return new TreeMap<String, AtomicLong>(errorCodes).toString();
+		}
+	}
+}
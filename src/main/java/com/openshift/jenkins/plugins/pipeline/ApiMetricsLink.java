@@ -0,0 +1,64 @@
+package com.openshift.jenkins.plugins.pipeline;
+
+import hudson.Extension;
+import hudson.model.ManagementLink;
+
+import java.io.IOException;
+
+import javax.servlet.ServletException;
+
+import jenkins.model.Jenkins;
+
+import org.kohsuke.stapler.StaplerRequest;
+import org.kohsuke.stapler.StaplerResponse;
+import org.kohsuke.stapler.interceptor.RequirePOST;
+
+/*
+ * The "OpenShift API Metrics" page under Manage Jenkins, showing the ApiMetrics collected since startup (or the last reset).
+ */
+@Extension
+public class ApiMetricsLink extends ManagementLink {
+
+	@Override
+	public String getIconFileName() {
+		return "monitor.png";
+	}
+
+	@Override
+	public String getUrlName() {
+		return "openshift-api-metrics";
+	}
+
+	@Override
+	public String getDisplayName() {
+		return "OpenShift API Metrics";
+	}
+
+	@Override
+	public String getDescription() {
+		return "Latency, counts and errors of the REST calls the OpenShift steps make to the api server, per verb and kind.";
+	}
+
+	public ApiMetrics getMetrics() {
+		return ApiMetrics.getInstance();
+	}
+
+	public String getBucketLabel(int i) {
+		return ApiMetrics.getBucketLabel(i);
+	}
+
+	public int getBucketCount() {
+		return ApiMetrics.getBucketCount();
+	}
+
+	public String getLimiterStats() {
+		return ApiRateLimiter.getStats() + ", " + GetCoalescer.getStats() + ", " + ResourceCache.getStats() + ", " + ClientRegistry.getStats();
+	}
+
+	@RequirePOST
+	public void doReset(StaplerRequest req, StaplerResponse rsp) throws IOException, ServletException {
+		Jenkins.getInstance().checkPermission(Jenkins.ADMINISTER);
+		ApiMetrics.getInstance().reset();
+		rsp.sendRedirect(".");
+	}
+}
@@ -0,0 +1,26 @@
+package com.openshift.jenkins.plugins.pipeline;
+
+import java.util.Map;
+
+/*
+ * The JMX view of ApiMetrics, registered as com.openshift.jenkins.plugins.pipeline:type=ApiMetrics;  each map is keyed
+ * by "<verb> <kind>", i.e. "get DeploymentConfig".
+ */
+public interface ApiMetricsMXBean {
+
+	Map<String, Long> getCounts();
+
+	Map<String, Long> getErrors();
+
+	Map<String, Long> getMeanMillis();
+
+	Map<String, Long> getMaxMillis();
+
+	// "<verb> <kind> <bucket>" to the number of calls that took at most bucket milliseconds (or "+inf")
+	Map<String, Long> getLatencyHistogram();
+
+	// "<verb> <kind> <error>" to the number of calls failing that way, the error being an HTTP status or exception name
+	Map<String, Long> getErrorCodes();
+
+	void reset();
+}
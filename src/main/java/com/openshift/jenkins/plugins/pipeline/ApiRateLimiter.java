@@ -0,0 +1,145 @@
+package com.openshift.jenkins.plugins.pipeline;
+
+import java.net.URISyntaxException;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+import com.openshift.restclient.IClient;
+
+/*
+ * A token bucket per api server that all of the plugin's requests to that api server go through, so that many concurrent
+ * steps polling in tight loops get spread out on the Jenkins side instead of tripping the api server's own throttling (429s),
+ * which would slow every job.  Mutating calls (build triggers, updates, cancels, creates) take priority:  while one is
+ * waiting for a token, status reads queue behind it.
+ *
+ * The rate (requests per second) and burst size can be set with -Dcom.openshift.jenkins.plugins.pipeline.ApiRateLimiter.rate=...
+ * and -Dcom.openshift.jenkins.plugins.pipeline.ApiRateLimiter.burst=...;  a rate of 0 turns the limiting off.
+ */
+public class ApiRateLimiter {
+
+	private static final double RATE = Double.parseDouble(System.getProperty(ApiRateLimiter.class.getName() + ".rate", "20"));
+	private static final int BURST = Integer.getInteger(ApiRateLimiter.class.getName() + ".burst", 40);
+
+	// the IClient methods that go to the api server
+	private static final Set<String> READ_METHODS = new HashSet<String>(Arrays.asList("get", "list", "watch"));
+	private static final Set<String> MUTATING_METHODS = new HashSet<String>(Arrays.asList("create", "update", "delete", "execute"));
+
+	private static final ConcurrentHashMap<String, ApiRateLimiter> limiters = new ConcurrentHashMap<String, ApiRateLimiter>();
+	private static final AtomicLong requests = new AtomicLong();
+	private static final AtomicLong throttled = new AtomicLong();
+	private static final AtomicLong throttledMillis = new AtomicLong();
+
+	private double tokens = BURST;
+	private long lastRefill = System.currentTimeMillis();
+	private int queuedReads = 0;
+	private int queuedWrites = 0;
+
+	private ApiRateLimiter() {
+	}
+
+	// blocks until a request to apiURL may be made
+	public static void acquire(String apiURL, boolean mutating) {
+		requests.incrementAndGet();
+		if (RATE <= 0 || apiURL == null)
+			return;
+		limiters.computeIfAbsent(normalize(apiURL), k -> new ApiRateLimiter()).take(mutating);
+	}
+
+	// an IClient whose api calls go through the limiter for apiURL
+	public static IClient wrap(String apiURL, IClient client) {
+		if (client == null || RATE <= 0)
+			return client;
+		return DelegatingClient.wrap(client, (delegate, method, args) -> {
+			String name = method.getName();
+			if (MUTATING_METHODS.contains(name))
+				acquire(apiURL, true);
+			else if (READ_METHODS.contains(name))
+				acquire(apiURL, false);
+			return DelegatingClient.invoke(delegate, method, args);
+		});
+	}
+
+	public static long getRequests() {
+		return requests.get();
+	}
+
+	public static long getThrottled() {
+		return throttled.get();
+	}
+
+	public static long getThrottledMillis() {
+		return throttledMillis.get();
+	}
+
+	public static int getQueued() {
+		int queued = 0;
+		for (ApiRateLimiter limiter : limiters.values()) {
+			synchronized (limiter) {
+				queued += limiter.queuedReads + limiter.queuedWrites;
+			}
+		}
+		return queued;
+	}
+
+	public static String getStats() {
+		return "api requests " + getRequests() + " throttled " + getThrottled() + " (" + getThrottledMillis() + " ms) queued now " + getQueued();
+	}
+
+	private synchronized void take(boolean mutating) {
+		refill();
+		if (tokens >= 1 && (mutating || queuedWrites == 0)) {
+			tokens -= 1;
+			return;
+		}
+
+		throttled.incrementAndGet();
+		long start = System.currentTimeMillis();
+		if (mutating)
+			queuedWrites++;
+		else
+			queuedReads++;
+		try {
+			while (true) {
+				refill();
+				if (tokens >= 1 && (mutating || queuedWrites == 0)) {
+					tokens -= 1;
+					return;
+				}
+				long sleep = (long) Math.ceil((1 - tokens) * 1000 / RATE);
+				try {
+					wait(Math.max(1, sleep));
+				} catch (InterruptedException e) {
+					// let the request through; the caller is being aborted and will notice soon enough
+					Thread.currentThread().interrupt();
+					return;
+				}
+			}
+		} finally {
+			if (mutating)
+				queuedWrites--;
+			else
+				queuedReads--;
+			throttledMillis.addAndGet(System.currentTimeMillis() - start);
+			// reads parked behind a write can go again
+			notifyAll();
+		}
+	}
+
+	private void refill() {
+		long now = System.currentTimeMillis();
+		tokens = Math.min(BURST, tokens + (now - lastRefill) * RATE / 1000);
+		lastRefill = now;
+	}
+
+	// watches and log streams hand us their full url, so key on the api server's origin
+	private static String normalize(String apiURL) {
+		try {
+			return Auth.getOrigin(apiURL);
+		} catch (URISyntaxException e) {
+			return apiURL;
+		}
+	}
+}
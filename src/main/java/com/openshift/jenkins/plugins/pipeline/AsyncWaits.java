@@ -0,0 +1,191 @@
+package com.openshift.jenkins.plugins.pipeline;
+
+import java.util.ArrayList;
+import java.util.Set;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/*
+ * The waits of one run of a step, as CompletableFutures rather than sleeping poll loops, so that however many steps are
+ * waiting no thread is held between polls:  each poll is scheduled on a timer shared by all steps, and the waits on
+ * build phases are completed by the project's shared build watch (see BuildPhaseMonitor).  The timer thread only ever
+ * hands work off;  the probes and continuations, which make (possibly rate limited) api calls, run on a separate bounded
+ * pool, so a few slow calls hold up only each other rather than every step's timers.  A Pipeline step run through
+ * OpenShiftPipelineStep releases its thread for the whole wait;  the classic build step path blocks its executor thread in
+ * await, as before.  Cancelling the waits (i.e. when the run is aborted) stops their polls and fails whatever depends on them.
+ *
+ * The number of pool threads, which are only started as the waits need them, can be set with
+ * -Dcom.openshift.jenkins.plugins.pipeline.AsyncWaits.threads=...
+ */
+public class AsyncWaits {
+
+	private static final int THREADS = Integer.getInteger(AsyncWaits.class.getName() + ".threads", 32);
+
+	// for the timers only
+	private static final ScheduledExecutorService timer = Executors.newSingleThreadScheduledExecutor(daemons("OpenShift step wait timer"));
+
+	// for the probes and continuations, which block on the api server
+	private static final ThreadPoolExecutor pool = new ThreadPoolExecutor(THREADS, THREADS, 60, TimeUnit.SECONDS,
+			new LinkedBlockingQueue<Runnable>(), daemons("OpenShift step waits"));
+
+	static {
+		pool.allowCoreThreadTimeOut(true);
+	}
+
+	public interface Probe<T> {
+		// returns null while whatever is being waited on is not there yet
+		T probe();
+	}
+
+	private final Set<CompletableFuture<?>> pending = ConcurrentHashMap.newKeySet();
+	private volatile boolean cancelled = false;
+	// for a fork, our place in the parent's waits
+	private CompletableFuture<Void> link;
+
+	// where the steps continue once a wait is over;  never the thread that completed the wait, which may be a watch's
+	public static Executor executor() {
+		return pool;
+	}
+
+	private static ThreadFactory daemons(String name) {
+		AtomicInteger count = new AtomicInteger();
+		return r -> {
+			Thread t = new Thread(r, name + " #" + count.incrementAndGet());
+			t.setDaemon(true);
+			return t;
+		};
+	}
+
+	// the cause of a failed wait, without the CompletionException / ExecutionException wrapping
+	public static Throwable cause(Throwable t) {
+		while ((t instanceof CompletionException || t instanceof ExecutionException) && t.getCause() != null)
+			t = t.getCause();
+		return t;
+	}
+
+	/*
+	 * Runs the probe on the pool now, then again as polling paces it, until it returns something, which the future completes
+	 * with;  completes with null if the deadline passes first.
+	 */
+	public <T> CompletableFuture<T> poll(Probe<T> probe, PollingPolicy polling, long deadline) {
+		CompletableFuture<T> result = track(new CompletableFuture<T>());
+		pool.execute(() -> probe(result, probe, polling, deadline));
+		return result;
+	}
+
+	private <T> void probe(CompletableFuture<T> result, Probe<T> probe, PollingPolicy polling, long deadline) {
+		if (result.isDone())
+			return;
+		polling.polled();
+		try {
+			T value = probe.probe();
+			if (value != null) {
+				result.complete(value);
+				return;
+			}
+		} catch (Throwable t) {
+			result.completeExceptionally(t);
+			return;
+		}
+		long delay = polling.next(deadline);
+		if (delay < 0)
+			result.complete(null);
+		else
+			timer.schedule(() -> pool.execute(() -> probe(result, probe, polling, deadline)), delay, TimeUnit.MILLISECONDS);
+	}
+
+	// completes as future does, or exceptionally with a TimeoutException at the deadline, in which case future is cancelled
+	public <T> CompletableFuture<T> within(CompletableFuture<T> future, long deadline) {
+		CompletableFuture<T> result = track(new CompletableFuture<T>());
+		ScheduledFuture<?> timeout = timer.schedule(() -> {
+			if (result.completeExceptionally(new TimeoutException()))
+				future.cancel(true);
+		}, Math.max(1, deadline - System.currentTimeMillis()), TimeUnit.MILLISECONDS);
+		future.whenComplete((value, t) -> {
+			timeout.cancel(false);
+			if (t != null)
+				result.completeExceptionally(t);
+			else
+				result.complete(value);
+		});
+		result.whenComplete((value, t) -> {
+			if (result.isCancelled())
+				future.cancel(true);
+		});
+		return result;
+	}
+
+	// runs task on the pool;  for the short, blocking api calls between waits
+	public <T> CompletableFuture<T> supply(Supplier<T> task) {
+		return track(CompletableFuture.supplyAsync(task, pool));
+	}
+
+	// waits of their own, for work the caller may want to stop early (i.e. the rest of a set of checks, once one fails), which
+	// are also cancelled when these are
+	public AsyncWaits fork() {
+		AsyncWaits child = new AsyncWaits();
+		child.link = track(new CompletableFuture<Void>());
+		child.link.whenComplete((v, t) -> child.cancel());
+		return child;
+	}
+
+	// stops every wait of this step run
+	public void cancel() {
+		cancelled = true;
+		for (CompletableFuture<?> future : new ArrayList<CompletableFuture<?>>(pending))
+			future.cancel(true);
+		if (link != null)
+			link.complete(null);
+	}
+
+	public boolean isCancelled() {
+		return cancelled;
+	}
+
+	/*
+	 * Blocks the calling thread until future completes, for the classic build step path.  Returns null if the thread is
+	 * interrupted (i.e. the build was aborted), after cancelling the waits.
+	 */
+	public <T> T await(CompletableFuture<T> future) {
+		try {
+			return future.get();
+		} catch (InterruptedException e) {
+			cancel();
+			Thread.currentThread().interrupt();
+			return null;
+		} catch (CancellationException e) {
+			return null;
+		} catch (ExecutionException e) {
+			Throwable t = cause(e);
+			if (t instanceof CancellationException)
+				return null;
+			if (t instanceof RuntimeException)
+				throw (RuntimeException) t;
+			if (t instanceof Error)
+				throw (Error) t;
+			throw new RuntimeException(t);
+		}
+	}
+
+	private <T> CompletableFuture<T> track(CompletableFuture<T> future) {
+		pending.add(future);
+		future.whenComplete((value, t) -> pending.remove(future));
+		if (cancelled)
+			future.cancel(true);
+		return future;
+	}
+}
@@ -7,17 +7,23 @@ import java.io.FileInputStream;
 import java.io.FileNotFoundException;
 import java.io.IOException;
 import java.io.InputStream;
-import java.io.ObjectInputStream;
 import java.io.UnsupportedEncodingException;
 import java.net.URI;
+import java.net.URISyntaxException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
 import java.security.KeyStore;
+import java.security.cert.CertificateEncodingException;
+import java.security.cert.CertificateException;
 import java.security.cert.CertificateFactory;
 import java.security.cert.X509Certificate;
-import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
+import javax.net.ssl.SSLContext;
 import javax.net.ssl.SSLSession;
+import javax.net.ssl.SSLSocketFactory;
 import javax.net.ssl.TrustManager;
 import javax.net.ssl.TrustManagerFactory;
 import javax.net.ssl.X509TrustManager;
@@ -37,9 +43,19 @@ public class Auth implements ISSLCertificateCallback {
 	
 	private X509Certificate cert = null;
 	private TaskListener listener = null;
-	private static X509TrustManager x509TrustManager;
-	private Auth(X509Certificate cert, TaskListener listener) {
+	// the api server this instance was created for; the trust manager for it and our CA is looked up
+	// from trustManagerCache, so concurrent steps against different clusters never share one
+	private String apiURL = null;
+	// parsed CA certs, and the trust managers / socket factories built from them, are reused across steps;  each cache holds
+	// up to MAX_CACHED_CERTS entries, and is simply emptied when it fills
+	private static final int MAX_CACHED_CERTS = 64;
+	private static final ConcurrentHashMap<String, X509Certificate> certCache = new ConcurrentHashMap<String, X509Certificate>();
+	private static final ConcurrentHashMap<String, X509TrustManager> trustManagerCache = new ConcurrentHashMap<String, X509TrustManager>();
+	private static final ConcurrentHashMap<String, SSLSocketFactory> socketFactoryCache = new ConcurrentHashMap<String, SSLSocketFactory>();
+	private static final ConcurrentHashMap<String, CachedFile> fileCache = new ConcurrentHashMap<String, CachedFile>();
+	private Auth(X509Certificate cert, String apiURL, TaskListener listener) {
 		this.cert = cert;
+		this.apiURL = apiURL;
 		this.listener = listener;
 	}
 	
@@ -50,14 +66,14 @@ public class Auth implements ISSLCertificateCallback {
 			if (listener != null)
 				listener.getLogger().println("Auth - cert file exists - " + f.exists() + ", CA_CERT - " + env.get("CA_CERT") + "\n skip tls - " + env.get("SKIP_TLS"));
 			try {
-				auth = new Auth(createCert(f, env.get("CA_CERT"), listener, apiURL), listener);
+				auth = new Auth(createCert(f, env.get("CA_CERT"), listener, apiURL), apiURL, listener);
 			} catch (Exception e) {
 				if (listener != null)
 					e.printStackTrace(listener.getLogger());
-				auth = new Auth(null, listener);
+				auth = new Auth(null, apiURL, listener);
 			}
 		} else {
-			auth = new Auth(null, listener);
+			auth = new Auth(null, apiURL, listener);
 		}
 		return auth;
 	}
@@ -71,22 +87,9 @@ public class Auth implements ISSLCertificateCallback {
 				if (auth.listener != null) {
 					auth.listener.getLogger().println("Auth - x509 created cert is " + auth.getCert().toString());
 				}
-		        URI uri = new URI(apiURL);
-				KeyStore ks = KeyStore.getInstance(KeyStore.getDefaultType());
-				// need this load to initialize the key store, and allow for the subsequent set certificate entry
-				ks.load(null, null);
-				ks.setCertificateEntry(uri.toASCIIString(), auth.getCert());
-				TrustManagerFactory tmfactory = TrustManagerFactory.getInstance(TrustManagerFactory.getDefaultAlgorithm());
-				tmfactory.init(ks);
-				x509TrustManager = null;
-				for (TrustManager trustManager : tmfactory.getTrustManagers()) {
-					if (trustManager instanceof X509TrustManager) {
-						x509TrustManager = (X509TrustManager) trustManager;
-						if (auth.listener != null) {
-							auth.listener.getLogger().println("Auth - x509 trust mgr certs " + Arrays.toString(x509TrustManager.getAcceptedIssuers()));
-						}
-						break;
-					}
+				X509TrustManager x509TrustManager = getLocalTrustManager(auth.getCert(), apiURL);
+				if (auth.listener != null) {
+					auth.listener.getLogger().println("Auth - x509 trust mgr certs " + Arrays.toString(x509TrustManager.getAcceptedIssuers()));
 				}
 				
 			} catch (Throwable t) {
@@ -95,6 +98,104 @@ public class Auth implements ISSLCertificateCallback {
 			}
 		}		
 	}
+	// our own HttpURLConnection based calls (i.e. watches) do not go through the trust handling in openshift-restclient-java,
+	// so mimic it here:  the JVM's default trust store first, then the CA from createInstance (or anything when in skip tls mode)
+	public SSLSocketFactory createSSLSocketFactory(String apiURL) throws Exception {
+		String origin = getOrigin(apiURL);
+		String key = origin + "|" + fingerprint(cert);
+		SSLSocketFactory factory = socketFactoryCache.get(key);
+		if (factory == null) {
+			factory = buildSSLSocketFactory(origin);
+			if (socketFactoryCache.size() >= MAX_CACHED_CERTS)
+				socketFactoryCache.clear();
+			socketFactoryCache.put(key, factory);
+		}
+		return factory;
+	}
+	
+	private SSLSocketFactory buildSSLSocketFactory(String apiURL) throws Exception {
+		final X509TrustManager defaultTrustManager = findX509TrustManager(null);
+		X509TrustManager localTrustManager = null;
+		if (cert != null) {
+			localTrustManager = getLocalTrustManager(cert, apiURL);
+		}
+		final X509TrustManager fallbackTrustManager = localTrustManager;
+		final boolean skipTLS = cert == null;
+		X509TrustManager trustManager = new X509TrustManager() {
+			@Override
+			public void checkClientTrusted(X509Certificate[] chain, String authType) throws CertificateException {
+				defaultTrustManager.checkClientTrusted(chain, authType);
+			}
+
+			@Override
+			public void checkServerTrusted(X509Certificate[] chain, String authType) throws CertificateException {
+				try {
+					defaultTrustManager.checkServerTrusted(chain, authType);
+				} catch (CertificateException e) {
+					if (skipTLS)
+						return;
+					if (fallbackTrustManager == null)
+						throw e;
+					fallbackTrustManager.checkServerTrusted(chain, authType);
+				}
+			}
+
+			@Override
+			public X509Certificate[] getAcceptedIssuers() {
+				return defaultTrustManager.getAcceptedIssuers();
+			}
+		};
+		SSLContext sslContext = SSLContext.getInstance("TLS");
+		sslContext.init(null, new TrustManager[] { trustManager }, null);
+		return sslContext.getSocketFactory();
+	}
+	
+	// a trust manager that trusts just the given CA, built once per api server and CA; reads are lock free, and at worst
+	// two steps racing on a new api server / CA pair both build an equivalent trust manager
+	private static X509TrustManager getLocalTrustManager(X509Certificate cert, String apiURL) throws Exception {
+		String origin = getOrigin(apiURL);
+		String key = origin + "|" + fingerprint(cert);
+		X509TrustManager trustManager = trustManagerCache.get(key);
+		if (trustManager == null) {
+			KeyStore ks = KeyStore.getInstance(KeyStore.getDefaultType());
+			// need this load to initialize the key store, and allow for the subsequent set certificate entry
+			ks.load(null, null);
+			ks.setCertificateEntry(origin, cert);
+			trustManager = findX509TrustManager(ks);
+			if (trustManagerCache.size() >= MAX_CACHED_CERTS)
+				trustManagerCache.clear();
+			trustManagerCache.put(key, trustManager);
+		}
+		return trustManager;
+	}
+	
+	static String getOrigin(String apiURL) throws URISyntaxException {
+		URI uri = new URI(apiURL);
+		if (uri.getScheme() == null || uri.getAuthority() == null)
+			return uri.toASCIIString();
+		return uri.getScheme() + "://" + uri.getAuthority();
+	}
+	
+	static String fingerprint(X509Certificate cert) {
+		if (cert == null)
+			return "skip-tls";
+		try {
+			return ClientRegistry.hash(cert.getEncoded());
+		} catch (CertificateEncodingException e) {
+			return cert.getSerialNumber().toString();
+		}
+	}
+	
+	private static X509TrustManager findX509TrustManager(KeyStore ks) throws Exception {
+		TrustManagerFactory tmfactory = TrustManagerFactory.getInstance(TrustManagerFactory.getDefaultAlgorithm());
+		tmfactory.init(ks);
+		for (TrustManager trustManager : tmfactory.getTrustManagers()) {
+			if (trustManager instanceof X509TrustManager)
+				return (X509TrustManager) trustManager;
+		}
+		throw new IllegalStateException("no X509TrustManager available");
+	}
+	
 	@Override
 	public boolean allowCertificate(final X509Certificate[] certificateChain) {
 		// this will be called if the trustManager.checkServerTrusted call fails in openshift-restclient-java;
@@ -110,6 +211,14 @@ public class Auth implements ISSLCertificateCallback {
 			return true;
 		}
 
+		X509TrustManager x509TrustManager = null;
+		try {
+			if (apiURL != null)
+				x509TrustManager = getLocalTrustManager(cert, apiURL);
+		} catch (Throwable t) {
+			if (listener != null)
+				t.printStackTrace(listener.getLogger());
+		}
 		if (x509TrustManager != null) {
 			try {
 				x509TrustManager.checkServerTrusted(certificateChain, "RSA");
@@ -137,6 +246,11 @@ public class Auth implements ISSLCertificateCallback {
 		//also lines up with what was observed in k8s jennkins plugin
 		return true;
 	}
+	// a listener-less copy for clients that are shared across steps via ClientRegistry
+	Auth forSharedUse() {
+		return new Auth(cert, apiURL, null);
+	}
+	
 	public boolean useCert() {
 		return cert != null;
 	}
@@ -146,40 +260,39 @@ public class Auth implements ISSLCertificateCallback {
 	}
 	
 	private static String pullTokenFromFile(File f, TaskListener listener) {
-		FileInputStream fis = null;
-		String authToken = null;
-		boolean verbose = listener != null;
 		try {
-			fis = new FileInputStream(f);
-			ArrayList<Integer> al = new ArrayList<Integer>();
-			int rawbyte = -1;
-			while ((rawbyte = fis.read()) != -1) {
-				al.add(rawbyte);
-			}
-			
-			byte[] buf = new byte[al.size()];
-			for (int i = 0; i < al.size(); i++) {
-				buf[i] = (byte)al.get(i).intValue();
-			}
-    		synchronized(Auth.class) {
-    			if (authToken == null || authToken.length() == 0) {
-    				authToken = new String(buf);
-    			}
-    		}
-			
-		} catch (FileNotFoundException e) {
-			if (verbose)
-				e.printStackTrace(listener.getLogger());
+			return readFile(f);
 		} catch (IOException e) {
-			if (verbose)
+			if (listener != null)
 				e.printStackTrace(listener.getLogger());
-		} finally {
-			try {
-				fis.close();
-			} catch (Throwable e) {
-			}
 		}
-		return authToken;
+		return null;
+	}
+	
+	// token and CA files are read with a single NIO read and the content kept; a later call only rereads the file when its
+	// modification time or size changed (i.e. the service account token was rotated), so each step just pays for a stat
+	static String readFile(File f) throws IOException {
+		String path = f.getAbsolutePath();
+		long lastModified = f.lastModified();
+		long length = f.length();
+		CachedFile cached = fileCache.get(path);
+		if (cached != null && cached.lastModified == lastModified && cached.length == length)
+			return cached.content;
+		String content = new String(Files.readAllBytes(f.toPath()), StandardCharsets.UTF_8);
+		fileCache.put(path, new CachedFile(lastModified, length, content));
+		return content;
+	}
+	
+	private static final class CachedFile {
+		private final long lastModified;
+		private final long length;
+		private final String content;
+		
+		private CachedFile(long lastModified, long length, String content) {
+			this.lastModified = lastModified;
+			this.length = length;
+			this.content = content;
+		}
 	}
 	
 	public static String deriveBearerToken(String at, TaskListener listener, boolean verbose, Map<String,String> vars, EnvVars env) {
@@ -305,37 +418,11 @@ public class Auth implements ISSLCertificateCallback {
 			if (f.exists()) {
     			if (verbose && listener != null)
         			listener.getLogger().println("Cert file exists " + f.getAbsolutePath());
-    			FileInputStream fis = null;
-    			ObjectInputStream ois = null;
     			try {
-    				fis = new FileInputStream(f);
-    				ArrayList<Integer> al = new ArrayList<Integer>();
-    				int rawbyte = -1;
-    				while ((rawbyte = fis.read()) != -1) {
-    					al.add(rawbyte);
-    				}
-    				
-    				byte[] buf = new byte[al.size()];
-    				for (int i = 0; i < al.size(); i++) {
-    					buf[i] = (byte)al.get(i).intValue();
-    				}
-    	    		synchronized(Auth.class) {
-    	    			if (caCert == null || caCert.length() == 0) {
-    	    				caCert = new String(buf);
-    	    			}
-    	    		}
-    				
-    			} catch (FileNotFoundException e) {
+    				caCert = readFile(f);
+    			} catch (IOException e) {
     				if (verbose && listener != null)
     					e.printStackTrace(listener.getLogger());
-				} catch (IOException e) {
-					if (verbose && listener != null)
-						e.printStackTrace(listener.getLogger());
-				} finally {
-    				try {
-						fis.close();
-					} catch (Throwable e) {
-					}
     			}
 			} else {
 				if (verbose && listener != null)
@@ -368,9 +455,31 @@ public class Auth implements ISSLCertificateCallback {
     	if (listener != null && certString != null) {
     		listener.getLogger().println("Auth - using user inputted cert string");
     	}
+    	// parsing the cert is only redone when the user provided cert changes, or when the cert file is modified
+    	String key = null;
+    	if (certString != null) {
+    		key = "data:" + ClientRegistry.hash(certString);
+    	} else if (caCertFile != null) {
+    		key = "file:" + caCertFile.getAbsolutePath() + ":" + caCertFile.lastModified() + ":" + caCertFile.length();
+    	}
+    	X509Certificate cert = key != null ? certCache.get(key) : null;
+    	if (cert != null)
+    		return cert;
+    	
     	InputStream pemInputStream = getInputStreamFromDataOrFile(certString, caCertFile);
-		CertificateFactory certFactory = CertificateFactory.getInstance("X509");
-		X509Certificate cert = (X509Certificate) certFactory.generateCertificate(pemInputStream);
+    	try {
+    		CertificateFactory certFactory = CertificateFactory.getInstance("X509");
+    		cert = (X509Certificate) certFactory.generateCertificate(pemInputStream);
+    	} finally {
+    		if (pemInputStream != null)
+    			pemInputStream.close();
+    	}
+    	if (key != null) {
+    		// entries for since modified files or other user provided certs just age out
+    		if (certCache.size() >= MAX_CACHED_CERTS)
+    			certCache.clear();
+    		certCache.put(key, cert);
+    	}
 		return cert;        
     }
 	
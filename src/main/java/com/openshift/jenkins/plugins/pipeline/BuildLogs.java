@@ -0,0 +1,161 @@
+package com.openshift.jenkins.plugins.pipeline;
+
+import hudson.model.TaskListener;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.net.HttpURLConnection;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.time.format.DateTimeParseException;
+import java.time.temporal.ChronoUnit;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import com.openshift.restclient.ResourceKind;
+
+/*
+ * Follows a build's log to the Jenkins console a line at a time, for OpenShiftBuilder and OpenShiftMultiBuilder.  The log
+ * is asked for with timestamps, which are not printed, so that when the stream drops before the build is done we can
+ * reconnect from where it dropped (sinceTime) rather than download the whole log again and skip what we already printed.
+ * Reconnects back off as polls do (see PollingPolicy).
+ */
+public class BuildLogs {
+
+	// reconnects in a row that get no further into the log before we give up on it
+	public static final int RECONNECT_ATTEMPTS = 5;
+
+	private final String url;
+	private final Auth auth;
+	private final String token;
+	private final String bldId;
+	private final String prefix;
+	private final String displayName;
+	private final String apiURL;
+	// where the log has been printed up to:  the last timestamp, and how many lines carried it
+	private Instant last;
+	private int linesAtLast;
+	// on a reconnect, the lines at the last timestamp still to come around again
+	private int repeats;
+
+	// prefix goes in front of every line, i.e. to tell apart the logs of builds printed together
+	public BuildLogs(String apiURL, Auth auth, String token, String namespace, String bldId, String prefix, String displayName) {
+		this.url = apiURL + "/oapi/v1/namespaces/" + namespace + "/builds/" + bldId + "/log?follow=true&timestamps=true";
+		this.apiURL = apiURL;
+		this.auth = auth;
+		this.token = token;
+		this.bldId = bldId;
+		this.prefix = prefix;
+		this.displayName = displayName;
+	}
+
+	/*
+	 * Returns once the log ends (i.e. the build is done), the deadline passes, or the reconnects run out;  also once stopped
+	 * is set, if given, in which case the caller is expected to have disconnected the connection we registered in connections.
+	 */
+	public void follow(long deadline, Map<HttpURLConnection, String> connections, AtomicBoolean stopped, boolean chatty, TaskListener listener) {
+		PollingPolicy backoff = new PollingPolicy();
+		int failures = 0;
+		while (System.currentTimeMillis() < deadline && !isStopped(stopped)) {
+			HttpURLConnection conn = null;
+			BufferedReader logs = null;
+			int printed = 0;
+			try {
+				long start = System.currentTimeMillis();
+				String since = last != null ? "&sinceTime=" + last.truncatedTo(ChronoUnit.SECONDS) : "";
+				conn = ResourceWatcher.openConnection(url + since, auth, token, (int) Math.max(1, deadline - System.currentTimeMillis()));
+				if (connections != null)
+					connections.put(conn, bldId);
+				if (isStopped(stopped))
+					return;
+				int rc = conn.getResponseCode();
+				// time to the response headers; the rest is the build itself producing output
+				ApiMetrics.record("log", ResourceKind.BUILD, System.currentTimeMillis() - start, rc != HttpURLConnection.HTTP_OK ? "HTTP " + rc : null);
+				if (rc != HttpURLConnection.HTTP_OK) {
+					listener.getLogger().println(prefix + String.format(MessageConstants.HTTP_ERR, rc, displayName, apiURL));
+					return;
+				}
+				logs = new BufferedReader(new InputStreamReader(conn.getInputStream(), StandardCharsets.UTF_8));
+				repeats = linesAtLast;
+				String line;
+				while ((line = logs.readLine()) != null) {
+					if (print(line, listener))
+						printed++;
+				}
+				// end of the followed log means the build is done
+				return;
+			} catch (IOException e) {
+				// also how we get here when the caller is done with the build and closes the connection on us
+				if (isStopped(stopped))
+					return;
+				if (chatty)
+					e.printStackTrace(listener.getLogger());
+				if (printed > 0) {
+					failures = 0;
+					backoff = new PollingPolicy();
+				}
+				if (++failures > RECONNECT_ATTEMPTS)
+					return;
+				long delay = backoff.next(deadline);
+				if (delay < 0)
+					return;
+				if (chatty)
+					listener.getLogger().println("\nOpenShift log stream for " + bldId + " interrupted at " + last + ", reconnecting in " + delay + " ms");
+				try {
+					Thread.sleep(delay);
+				} catch (InterruptedException ie) {
+					Thread.currentThread().interrupt();
+					return;
+				}
+			} finally {
+				if (logs != null) {
+					try {
+						logs.close();
+					} catch (IOException e) {
+					}
+				}
+				if (conn != null) {
+					if (connections != null)
+						connections.remove(conn);
+					conn.disconnect();
+				}
+			}
+		}
+	}
+
+	// prints the line without its timestamp, unless a reconnect sent it again;  returns whether it was printed
+	private boolean print(String line, TaskListener listener) {
+		int space = line.indexOf(' ');
+		Instant time = null;
+		if (space > 0) {
+			try {
+				time = Instant.parse(line.substring(0, space));
+			} catch (DateTimeParseException e) {
+			}
+		}
+		if (time == null) {
+			listener.getLogger().println(prefix + line);
+			return true;
+		}
+		// sinceTime only goes to the second, so the lines from the start of that second on come again
+		if (last != null && time.isBefore(last))
+			return false;
+		if (time.equals(last) && repeats > 0) {
+			repeats--;
+			return false;
+		}
+		listener.getLogger().println(prefix + line.substring(space + 1));
+		if (time.equals(last)) {
+			linesAtLast++;
+		} else {
+			last = time;
+			linesAtLast = 1;
+		}
+		return true;
+	}
+
+	private static boolean isStopped(AtomicBoolean stopped) {
+		return stopped != null && stopped.get();
+	}
+}
@@ -0,0 +1,156 @@
+package com.openshift.jenkins.plugins.pipeline;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.jboss.dmr.ModelNode;
+
+/*
+ * Multiplexes the waits on OpenShift builds in a project (per api server and credential) onto one watch on builds,
+ * instead of each waiting step opening and servicing its own watch.  A waiter registers the build and the phases it
+ * is waiting out, and gets a CompletableFuture that completes with the build's new phase, so nothing has to poll or
+ * hold a connection per build.  The watch (and its thread) only runs while there are waiters; if the api server will
+ * not let us watch, the futures complete exceptionally and callers fall back on polling.
+ */
+public class BuildPhaseMonitor {
+
+	// how long a single watch request stays open before we re-establish it
+	private static final long WATCH_PERIOD = 60 * 1000;
+
+	private static final ConcurrentHashMap<String, NamespaceMonitor> monitors = new ConcurrentHashMap<String, NamespaceMonitor>();
+
+	private BuildPhaseMonitor() {
+	}
+
+	// resourceVersion is that of the build as the caller last saw it; as the watch may already be past that point, callers
+	// should check the build again after registering.  Cancel the returned future to stop waiting.
+	public static CompletableFuture<String> register(String apiURL, Auth auth, String token, String namespace, String bldId,
+			String resourceVersion, String... waitPhases) {
+		String key = apiURL + "|" + namespace + "|" + ClientRegistry.hash(token);
+		while (true) {
+			NamespaceMonitor monitor = monitors.computeIfAbsent(key,
+					k -> new NamespaceMonitor(k, new ResourceWatcher(apiURL, auth, token), namespace, resourceVersion));
+			CompletableFuture<String> future = monitor.add(bldId, waitPhases);
+			if (future != null)
+				return future;
+			// that monitor just shut down, start a fresh one
+			monitors.remove(key, monitor);
+		}
+	}
+
+	public static int getSize() {
+		return monitors.size();
+	}
+
+	private static final class Waiter {
+		private final CompletableFuture<String> future = new CompletableFuture<String>();
+		private final List<String> waitPhases;
+
+		private Waiter(String... waitPhases) {
+			this.waitPhases = Arrays.asList(waitPhases);
+		}
+	}
+
+	private static final class NamespaceMonitor implements Runnable {
+		private final String key;
+		private final ResourceWatcher watcher;
+		private final String namespace;
+		private final Map<String, List<Waiter>> waiters = new HashMap<String, List<Waiter>>();
+		private String resourceVersion;
+		private boolean started = false;
+		private boolean retired = false;
+
+		private NamespaceMonitor(String key, ResourceWatcher watcher, String namespace, String resourceVersion) {
+			this.key = key;
+			this.watcher = watcher;
+			this.namespace = namespace;
+			this.resourceVersion = resourceVersion;
+		}
+
+		private synchronized CompletableFuture<String> add(String bldId, String... waitPhases) {
+			if (retired)
+				return null;
+			Waiter waiter = new Waiter(waitPhases);
+			List<Waiter> list = waiters.get(bldId);
+			if (list == null) {
+				list = new ArrayList<Waiter>();
+				waiters.put(bldId, list);
+			}
+			list.add(waiter);
+			if (!started) {
+				started = true;
+				Thread t = new Thread(this, "OpenShift build watch " + key.substring(0, key.lastIndexOf('|')));
+				t.setDaemon(true);
+				t.start();
+			}
+			return waiter.future;
+		}
+
+		// drops waiters that completed or were cancelled, and retires the monitor once nobody is waiting
+		private synchronized boolean retireIfIdle() {
+			Iterator<List<Waiter>> iter = waiters.values().iterator();
+			while (iter.hasNext()) {
+				List<Waiter> list = iter.next();
+				list.removeIf(w -> w.future.isDone());
+				if (list.isEmpty())
+					iter.remove();
+			}
+			if (waiters.isEmpty())
+				retired = true;
+			return retired;
+		}
+
+		private synchronized void dispatch(String type, ModelNode object) {
+			String bldId = ResourceWatcher.getString(object, "metadata", "name");
+			List<Waiter> list = bldId != null ? waiters.get(bldId) : null;
+			if (list == null)
+				return;
+			String phase = ResourceWatcher.getString(object, "status", "phase");
+			Iterator<Waiter> iter = list.iterator();
+			while (iter.hasNext()) {
+				Waiter waiter = iter.next();
+				if ("DELETED".equals(type) || !waiter.waitPhases.contains(phase)) {
+					waiter.future.complete(phase);
+					iter.remove();
+				}
+			}
+			if (list.isEmpty())
+				waiters.remove(bldId);
+		}
+
+		private synchronized void failAll(Throwable t) {
+			retired = true;
+			for (List<Waiter> list : waiters.values()) {
+				for (Waiter waiter : list)
+					waiter.future.completeExceptionally(t);
+			}
+			waiters.clear();
+		}
+
+		@Override
+		public void run() {
+			try {
+				while (!retireIfIdle()) {
+					watcher.watch(ResourceWatcher.OAPI, namespace, "builds", null, null, resourceVersion,
+							System.currentTimeMillis() + WATCH_PERIOD, (type, object) -> {
+								String rv = ResourceWatcher.getResourceVersion(object);
+								if (rv != null)
+									resourceVersion = rv;
+								dispatch(type, object);
+								return retireIfIdle();
+							});
+				}
+			} catch (Throwable t) {
+				failAll(t);
+			} finally {
+				monitors.remove(key, this);
+			}
+		}
+	}
+}
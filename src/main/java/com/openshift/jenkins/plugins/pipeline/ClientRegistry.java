@@ -0,0 +1,186 @@
+package com.openshift.jenkins.plugins.pipeline;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+import com.openshift.restclient.ClientBuilder;
+import com.openshift.restclient.IClient;
+import com.openshift.restclient.authorization.TokenAuthorizationStrategy;
+
+public class ClientRegistry {
+
+	// clients not used for this long (in milliseconds) are dropped on the next lookup; override with -Dcom.openshift.jenkins.plugins.pipeline.ClientRegistry.idleTimeout=...
+	private static final long IDLE_TIMEOUT = Long.getLong(ClientRegistry.class.getName() + ".idleTimeout", 10 * 60 * 1000);
+
+	private static final ConcurrentHashMap<Key, CachedClient> clients = new ConcurrentHashMap<Key, CachedClient>();
+	private static final AtomicLong hits = new AtomicLong();
+	private static final AtomicLong misses = new AtomicLong();
+	private static final AtomicLong evictions = new AtomicLong();
+
+	private ClientRegistry() {
+	}
+
+	// the IClient, along with the HttpURLConnection based transport underneath it, keeps its SSL socket factory
+	// and the JDK keep-alive cache warm, so reusing a client across steps against the same
+	// api server / credential / CA avoids redoing the TLS handshake and resource factory setup for each step
+	public static IClient getClient(String apiURL, Auth auth, TokenAuthorizationStrategy token) {
+		if (apiURL == null || auth == null || token == null)
+			return null;
+		evictIdle();
+		Key key = new Key(apiURL, hash(token.getToken()), fingerprint(auth));
+		CachedClient entry = clients.get(key);
+		if (entry != null) {
+			hits.incrementAndGet();
+			entry.touch();
+			return entry.client;
+		}
+
+		misses.incrementAndGet();
+		// the shared client outlives the step that created it, so do not tie its cert callback to that step's listener
+		Auth sharedAuth = auth.forSharedUse();
+		IClient client = new ClientBuilder(apiURL).sslCertificateCallback(sharedAuth).resourceFactory(token).sslCertificate(apiURL, sharedAuth.getCert()).build();
+		if (client == null)
+			return null;
+		// recently fetched read mostly resources are served from the cache, and identical concurrent gets are merged,
+		// before anything is counted against the api server's rate limit
+		client = ResourceCache.wrap(GetCoalescer.wrap(ApiRateLimiter.wrap(apiURL, ApiMetrics.wrap(client))));
+
+		// the token hash is part of the key, so a rotated token simply maps to a new client; the client for
+		// the old token stops being looked up and is dropped once it goes idle (or explicitly via invalidate)
+		CachedClient prev = clients.putIfAbsent(key, new CachedClient(client));
+		if (prev != null) {
+			prev.touch();
+			return prev.client;
+		}
+		return client;
+	}
+
+	public static void invalidate(String apiURL, String token) {
+		if (apiURL == null)
+			return;
+		String tokenHash = token != null ? hash(token) : null;
+		Iterator<Key> iter = clients.keySet().iterator();
+		while (iter.hasNext()) {
+			Key key = iter.next();
+			if (key.apiURL.equals(apiURL) && (tokenHash == null || key.tokenHash.equals(tokenHash))) {
+				iter.remove();
+				evictions.incrementAndGet();
+			}
+		}
+	}
+
+	public static void invalidateAll() {
+		evictions.addAndGet(clients.size());
+		clients.clear();
+	}
+
+	public static long getHits() {
+		return hits.get();
+	}
+
+	public static long getMisses() {
+		return misses.get();
+	}
+
+	public static long getEvictions() {
+		return evictions.get();
+	}
+
+	public static int getSize() {
+		return clients.size();
+	}
+
+	public static String getStats() {
+		return "client registry size " + getSize() + " hits " + getHits() + " misses " + getMisses() + " evictions " + getEvictions();
+	}
+
+	private static void evictIdle() {
+		long now = System.currentTimeMillis();
+		Iterator<Map.Entry<Key, CachedClient>> iter = clients.entrySet().iterator();
+		while (iter.hasNext()) {
+			Map.Entry<Key, CachedClient> e = iter.next();
+			if (now - e.getValue().lastUsed > IDLE_TIMEOUT) {
+				iter.remove();
+				evictions.incrementAndGet();
+			}
+		}
+	}
+
+	private static String fingerprint(Auth auth) {
+		return Auth.fingerprint(auth.getCert());
+	}
+
+	static String hash(String value) {
+		if (value == null)
+			return "";
+		return hash(value.getBytes(StandardCharsets.UTF_8));
+	}
+
+	static String hash(byte[] value) {
+		try {
+			return hex(MessageDigest.getInstance("SHA-256").digest(value));
+		} catch (NoSuchAlgorithmException e) {
+			return Integer.toHexString(java.util.Arrays.hashCode(value));
+		}
+	}
+
+	private static String hex(byte[] bytes) {
+		StringBuilder sb = new StringBuilder(bytes.length * 2);
+		for (byte b : bytes) {
+			sb.append(Character.forDigit((b >> 4) & 0xf, 16));
+			sb.append(Character.forDigit(b & 0xf, 16));
+		}
+		return sb.toString();
+	}
+
+	private static final class Key {
+		private final String apiURL;
+		private final String tokenHash;
+		private final String caFingerprint;
+
+		private Key(String apiURL, String tokenHash, String caFingerprint) {
+			this.apiURL = apiURL;
+			this.tokenHash = tokenHash;
+			this.caFingerprint = caFingerprint;
+		}
+
+		@Override
+		public int hashCode() {
+			final int prime = 31;
+			int result = 1;
+			result = prime * result + apiURL.hashCode();
+			result = prime * result + tokenHash.hashCode();
+			result = prime * result + caFingerprint.hashCode();
+			return result;
+		}
+
+		@Override
+		public boolean equals(Object obj) {
+			if (this == obj)
+				return true;
+			if (obj == null || getClass() != obj.getClass())
+				return false;
+			Key other = (Key) obj;
+			return apiURL.equals(other.apiURL) && tokenHash.equals(other.tokenHash) && caFingerprint.equals(other.caFingerprint);
+		}
+	}
+
+	private static final class CachedClient {
+		private final IClient client;
+		private volatile long lastUsed;
+
+		private CachedClient(IClient client) {
+			this.client = client;
+			this.lastUsed = System.currentTimeMillis();
+		}
+
+		private void touch() {
+			lastUsed = System.currentTimeMillis();
+		}
+	}
+}
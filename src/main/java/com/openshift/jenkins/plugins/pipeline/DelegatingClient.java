@@ -0,0 +1,65 @@
+package com.openshift.jenkins.plugins.pipeline;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+
+import com.openshift.restclient.IClient;
+
+/*
+ * The layers ClientRegistry puts in front of the IClient (ApiMetrics, ApiRateLimiter, GetCoalescer, ResourceCache) are
+ * dynamic proxies, each handing the wrapped client whatever calls it does not act on itself.  This builds them, so that
+ * every layer passes calls through the same way, with the wrapped client's own exceptions rather than reflection's.
+ */
+public class DelegatingClient {
+
+	public interface Handler {
+		// called for every IClient method;  use DelegatingClient.invoke to pass the call on to client
+		Object invoke(IClient client, Method method, Object[] args) throws Throwable;
+	}
+
+	private DelegatingClient() {
+	}
+
+	public static IClient wrap(IClient client, Handler handler) {
+		return (IClient) Proxy.newProxyInstance(IClient.class.getClassLoader(), new Class<?>[] {IClient.class}, new Invoker(client, handler));
+	}
+
+	public static Object invoke(IClient client, Method method, Object[] args) throws Throwable {
+		try {
+			return method.invoke(client, args);
+		} catch (InvocationTargetException e) {
+			throw e.getCause();
+		}
+	}
+
+	// the handler of type, if client is a layer built by wrap, or one of the layers underneath it, has one
+	public static <H extends Handler> H getHandler(IClient client, Class<H> type) {
+		while (client != null && Proxy.isProxyClass(client.getClass())) {
+			InvocationHandler h = Proxy.getInvocationHandler(client);
+			if (!(h instanceof Invoker))
+				return null;
+			Invoker invoker = (Invoker) h;
+			if (type.isInstance(invoker.handler))
+				return type.cast(invoker.handler);
+			client = invoker.client;
+		}
+		return null;
+	}
+
+	private static final class Invoker implements InvocationHandler {
+		private final IClient client;
+		private final Handler handler;
+
+		private Invoker(IClient client, Handler handler) {
+			this.client = client;
+			this.handler = handler;
+		}
+
+		@Override
+		public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+			return handler.invoke(client, method, args);
+		}
+	}
+}
@@ -4,11 +4,14 @@ import hudson.model.TaskListener;
 
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
 
 import org.jboss.dmr.ModelNode;
 
 import com.openshift.internal.restclient.model.DeploymentConfig;
 import com.openshift.restclient.IClient;
+import com.openshift.restclient.NotFoundException;
 import com.openshift.restclient.ResourceKind;
 import com.openshift.restclient.model.IBuildConfig;
 import com.openshift.restclient.model.IDeploymentConfig;
@@ -16,36 +19,53 @@ import com.openshift.restclient.model.IReplicationController;
 
 public class Deployment {
 
-	
 	public static boolean doesDCTriggerOnImageTag(IDeploymentConfig dc, String imageTag, boolean chatty, TaskListener listener, long wait) {
+		return doesDCTriggerOnImageTagBy(dc, imageTag, chatty, listener, null, null, System.currentTimeMillis() + (wait / 3));
+	}
+	
+	// same as doesDCTriggerOnImageTag, but bounded by an absolute deadline so several DCs can share one;  with a client, the dc
+	// is fetched again for each look at its triggers, without one only the dc as given is looked at
+	public static boolean doesDCTriggerOnImageTagBy(IDeploymentConfig dc, String imageTag, boolean chatty, TaskListener listener,
+			IClient client, String namespace, long deadline) {
+		AsyncWaits waits = new AsyncWaits();
+		return Boolean.TRUE.equals(waits.await(doesDCTriggerOnImageTagAsync(dc, imageTag, chatty, listener, client, namespace, deadline, waits)));
+	}
+	
+	public static CompletableFuture<Boolean> doesDCTriggerOnImageTagAsync(IDeploymentConfig dc, String imageTag, boolean chatty, TaskListener listener,
+			IClient client, String namespace, long deadline, AsyncWaits waits) {
 		if (dc == null || imageTag == null)
 			throw new RuntimeException("needed param null for doesDCTriggerOnImageTag");
-		if (listener == null)
-			chatty = false;
-		
-		long currTime = System.currentTimeMillis();
-		while (System.currentTimeMillis() - (wait / 3) <= currTime) {
-			if (!dc.haveTriggersFired()) {
-			
-				if (chatty)
+		return waitOnDCTriggersAsync(dc, chatty, listener, client, namespace, deadline, waits).thenApply(latest -> latest.didImageTrigger(imageTag));
+	}
+	
+	// polls the dc's triggers on the shared AsyncWaits pool rather than sleeping in between, completing with the dc as last seen
+	private static CompletableFuture<IDeploymentConfig> waitOnDCTriggersAsync(IDeploymentConfig dc, boolean chatty, TaskListener listener,
+			IClient client, String namespace, long deadline, AsyncWaits waits) {
+		final boolean verbose = chatty && listener != null;
+		
+		// the dc the first look is at was just fetched;  each later look fetches it again, past the ResourceCache, as that is
+		// where the trigger shows up
+		IDeploymentConfig[] latest = {dc};
+		PollingPolicy polling = new PollingPolicy();
+		return waits.poll(() -> {
+			if (client != null && polling.getPolls() > 1) {
+				IDeploymentConfig fresh = ResourceCache.bypass(() -> client.get(ResourceKind.DEPLOYMENT_CONFIG, dc.getName(), namespace));
+				if (fresh != null)
+					latest[0] = fresh;
+			}
+			if (!latest[0].haveTriggersFired()) {
+				if (verbose)
 					listener.getLogger().println("\n could not find a cause for the deployment");
-				try {
-					Thread.sleep(10000);
-				} catch (InterruptedException e) {
-				}
-			} else {
-				if (chatty)
-					listener.getLogger().println("\n trigger fired for deployment");
-				break;
+				return null;
 			}
-		}
-		
-		if (chatty) {
-			listener.getLogger().println("\n done checking dc " + dc.getName() );
-		}
-		
-		return dc.didImageTrigger(imageTag);
-		
+			if (verbose)
+				listener.getLogger().println("\n trigger fired for deployment");
+			return Boolean.TRUE;
+		}, polling, deadline).thenApply(fired -> {
+			if (verbose)
+				listener.getLogger().println("\n done checking dc " + dc.getName() + " after " + polling.getPolls() + " polls");
+			return latest[0];
+		});
 	}
 	
 	public static boolean didImageChangeFromPreviousVersion(IClient client, int latestVersion, boolean chatty, TaskListener listener, 
@@ -95,6 +115,20 @@ public class Deployment {
 	}
 	
 	public static boolean didAllImagesChangeIfNeeded(String buildConfig, TaskListener listener, boolean chatty, IClient client, String namespace, long wait) {
+		return didAllImagesChangeIfNeeded(buildConfig, listener, chatty, client, namespace, wait, null, null);
+	}
+	
+	// with auth and token, the DeploymentTriggerIndex for the namespace is kept current by a watch and reused across builds
+	public static boolean didAllImagesChangeIfNeeded(String buildConfig, TaskListener listener, boolean chatty, IClient client, String namespace, long wait,
+			Auth auth, String token) {
+		AsyncWaits waits = new AsyncWaits();
+		return Boolean.TRUE.equals(waits.await(didAllImagesChangeIfNeededAsync(buildConfig, listener, chatty, client, namespace, wait, auth, token, waits)));
+	}
+	
+	// the dcs are checked all at once, their waits for their triggers to fire taking turns on the AsyncWaits pool;  the answer
+	// is false as soon as one dc's check is, at which point the other checks are stopped
+	public static CompletableFuture<Boolean> didAllImagesChangeIfNeededAsync(String buildConfig, TaskListener listener, boolean chatty, IClient client, String namespace, long wait,
+			Auth auth, String token, AsyncWaits waits) {
 		if (chatty)
 			listener.getLogger().println("\n checking if the build config " + buildConfig + " got the image changes it needed");
 		IBuildConfig bc = client.get(ResourceKind.BUILD_CONFIG, buildConfig, namespace);
@@ -113,51 +147,98 @@ public class Deployment {
 		if (imageTag == null) {
 			if (chatty)
 				listener.getLogger().println("\n\n build config " + bc.getName() + " does not output an image");
-			return true;
+			return CompletableFuture.completedFuture(true);
 		}
 		
-		// find deployment configs with image change triggers 
-		List<IDeploymentConfig> allDC = client.list(ResourceKind.DEPLOYMENT_CONFIG, namespace);
-		if (allDC == null || allDC.size() == 0) {
+		// find deployment configs with image change triggers on the tag
+		Set<String> dcNames = DeploymentTriggerIndex.getDeploymentConfigs(client, auth, token, namespace, imageTag);
+		if (dcNames.size() == 0) {
 			if (chatty)
-				listener.getLogger().println("\n\n no deployment configs present");
-			return true;
+				listener.getLogger().println("\n\n no deployment configs trigger on " + imageTag);
+			return CompletableFuture.completedFuture(true);
+		}
+		// each dc can wait up to a third of the overall wait for its triggers to fire; check them all at once against the
+		// same deadline, so the total time is bounded by the slowest dc rather than the sum across dcs
+		final String tag = imageTag;
+		final long deadline = System.currentTimeMillis() + (wait / 3);
+		AsyncWaits checkWaits = waits.fork();
+		CompletableFuture<Boolean> result = new CompletableFuture<Boolean>();
+		List<CompletableFuture<Boolean>> checks = new ArrayList<CompletableFuture<Boolean>>();
+		for (String dcName : dcNames) {
+			CompletableFuture<Boolean> check = checkWaits.<IDeploymentConfig>supply(() -> {
+				try {
+					// the dc may have just been triggered by the build, so skip the ResourceCache
+					return ResourceCache.bypass(() -> client.get(ResourceKind.DEPLOYMENT_CONFIG, dcName, namespace));
+				} catch (NotFoundException e) {
+					// deleted since the index last heard of it
+					if (chatty)
+						listener.getLogger().println("\n dc " + dcName + " no longer exists");
+					DeploymentTriggerIndex.removeDeploymentConfig(client, auth, token, namespace, dcName);
+					return null;
+				}
+			}).thenCompose(dc -> {
+				if (dc == null)
+					return CompletableFuture.completedFuture(true);
+				return didDCGetImageChangeIfNeededAsync(dc, tag, chatty, listener, client, namespace, deadline, checkWaits);
+			});
+			check.whenComplete((ok, t) -> {
+				if (t != null && !checkWaits.isCancelled())
+					AsyncWaits.cause(t).printStackTrace(listener.getLogger());
+				if (t != null || !ok)
+					result.complete(false);
+			});
+			checks.add(check);
 		}
-		List<IDeploymentConfig> dcsToCheck = new ArrayList<IDeploymentConfig>();
-		for (IDeploymentConfig dc : allDC) {
-			if (chatty) listener.getLogger().println("\n checking triggers on dc " + dc.getName());
-			if (doesDCTriggerOnImageTag(dc, imageTag, chatty, listener, wait)) {
-				if (chatty) listener.getLogger().println("\n adding dc to check " + dc.getName());
-				dcsToCheck.add(dc);
+		CompletableFuture.allOf(checks.toArray(new CompletableFuture<?>[checks.size()])).whenComplete((v, t) -> {
+			for (CompletableFuture<Boolean> check : checks) {
+				if (check.isCompletedExceptionally() || !check.join())
+					result.complete(false);
 			}
+			result.complete(true);
+		});
+		// stops any checks still waiting on their triggers once the answer is known
+		result.whenComplete((ok, t) -> checkWaits.cancel());
+		return result;
+	}
+	
+	// returns false only if the dc triggers on imageTag but its latest deployment did not pick up a new image
+	private static CompletableFuture<Boolean> didDCGetImageChangeIfNeededAsync(IDeploymentConfig dc, String imageTag, boolean chatty, TaskListener listener, 
+			IClient client, String namespace, long deadline, AsyncWaits waits) {
+		if (chatty) listener.getLogger().println("\n checking triggers on dc " + dc.getName());
+		return waitOnDCTriggersAsync(dc, chatty, listener, client, namespace, deadline, waits).thenApplyAsync(latest -> {
+			if (!latest.didImageTrigger(imageTag))
+				return true;
+			return didDCGetImageChange(latest, imageTag, chatty, listener, client, namespace);
+		}, AsyncWaits.executor());
+	}
+	
+	private static boolean didDCGetImageChange(IDeploymentConfig dc, String imageTag, boolean chatty, TaskListener listener, 
+			IClient client, String namespace) {
+		if (chatty) listener.getLogger().println("\n adding dc to check " + dc.getName());
+		
+		// compare latest and previous RC, see if image changed
+		if (chatty) {
+			ModelNode dcNode = ((DeploymentConfig)dc).getNode();
+			listener.getLogger().println("\n looking at image ids for " + dc.getName() + " with json " + dcNode.toJSONString(false));
 		}
+		String latestImageHexID = dc.getImageHexIDForImageNameAndTag(imageTag);
 		
-		// cycle through the DCs triggering, comparing latest and previous RC, see if image changed
-		for (IDeploymentConfig dc : dcsToCheck) {
-			if (chatty) {
-				ModelNode dcNode = ((DeploymentConfig)dc).getNode();
-				listener.getLogger().println("\n looking at image ids for " + dc.getName() + " with json " + dcNode.toJSONString(false));
-			}
-			String latestImageHexID = dc.getImageHexIDForImageNameAndTag(imageTag);
-			
-			if (latestImageHexID == null) {
-				if (chatty)
-					listener.getLogger().println("\n dc " + dc.getName() + " did not have a reference to " + imageTag);
-				continue;
-			}
-			
-			if (didImageChangeFromPreviousVersion(client, dc.getLatestVersionNumber(), 
-					chatty, listener, dc.getName(), namespace, latestImageHexID, imageTag)) {
-				if (chatty)
-					listener.getLogger().println("\n dc " + dc.getName() + " did trigger based on image change as expected");
-			} else {
-				if (chatty)
-					listener.getLogger().println("\n dc " + dc.getName() + " did not trigger based on image change as expected");
-				return false;
-			}
+		if (latestImageHexID == null) {
+			if (chatty)
+				listener.getLogger().println("\n dc " + dc.getName() + " did not have a reference to " + imageTag);
+			return true;
 		}
 		
-		return true;
+		if (didImageChangeFromPreviousVersion(client, dc.getLatestVersionNumber(), 
+				chatty, listener, dc.getName(), namespace, latestImageHexID, imageTag)) {
+			if (chatty)
+				listener.getLogger().println("\n dc " + dc.getName() + " did trigger based on image change as expected");
+			return true;
+		} else {
+			if (chatty)
+				listener.getLogger().println("\n dc " + dc.getName() + " did not trigger based on image change as expected");
+			return false;
+		}
 	}
 
 	public static boolean didImageChangeIfNeeded(IReplicationController rc, TaskListener listener, boolean chatty, int latestVersion,
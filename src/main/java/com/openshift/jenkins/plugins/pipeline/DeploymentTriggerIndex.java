@@ -0,0 +1,257 @@
+package com.openshift.jenkins.plugins.pipeline;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import org.jboss.dmr.ModelNode;
+
+import com.openshift.internal.restclient.model.DeploymentConfig;
+import com.openshift.restclient.IClient;
+import com.openshift.restclient.ResourceKind;
+import com.openshift.restclient.model.IDeploymentConfig;
+
+/*
+ * Per project (and api server / credential), maps an image stream tag to the names of the DeploymentConfigs whose
+ * image change triggers reference it, so that after a build we only look at the DCs its output image can trigger.
+ * The index is built from one list of the project's DCs and then kept current by a watch on deploymentconfigs
+ * resumed from the newest resourceVersion in that list (or, should that resourceVersion be gone from the api server, rebuilt from
+ * a fresh list and watched from there).  When a watch is not possible (no credential to open it
+ * with, or the api server refuses it), each lookup rebuilds the index from a fresh list instead.
+ */
+public class DeploymentTriggerIndex {
+
+	private static final Logger LOGGER = Logger.getLogger(DeploymentTriggerIndex.class.getName());
+
+	// an index no build has looked at for this long stops its watch and is dropped
+	private static final long IDLE_TIMEOUT = 10 * 60 * 1000;
+	// how long a single watch request stays open before we re-establish it
+	private static final long WATCH_PERIOD = 5 * 60 * 1000;
+
+	private static final ConcurrentHashMap<String, NamespaceIndex> indexes = new ConcurrentHashMap<String, NamespaceIndex>();
+
+	private DeploymentTriggerIndex() {
+	}
+
+	// a DC the index still held, but which has since been deleted
+	public static void removeDeploymentConfig(IClient client, Auth auth, String token, String namespace, String dcName) {
+		String apiURL = client.getBaseURL().toString();
+		if (apiURL.endsWith("/"))
+			apiURL = apiURL.substring(0, apiURL.length() - 1);
+		NamespaceIndex index = indexes.get(apiURL + "|" + namespace + "|" + ClientRegistry.hash(token));
+		if (index != null)
+			index.remove(dcName);
+	}
+
+	// the names of the DCs in namespace with an image change trigger on imageTag (i.e. "frontend:latest")
+	public static Set<String> getDeploymentConfigs(IClient client, Auth auth, String token, String namespace, String imageTag) {
+		String apiURL = client.getBaseURL().toString();
+		if (apiURL.endsWith("/"))
+			apiURL = apiURL.substring(0, apiURL.length() - 1);
+		String key = apiURL + "|" + namespace + "|" + ClientRegistry.hash(token);
+
+		if (auth == null || token == null) {
+			// nothing to keep an index current with, so one for this lookup alone
+			NamespaceIndex index = new NamespaceIndex(key, namespace);
+			index.rebuild(list(client, namespace));
+			return index.lookup(imageTag);
+		}
+
+		while (true) {
+			// the first lookup for the key lists and starts the watch, any others at the same time wait on it rather than
+			// starting watches of their own
+			NamespaceIndex index = indexes.computeIfAbsent(key, k -> new NamespaceIndex(k, namespace));
+			index.lastUsed = System.currentTimeMillis();
+			boolean listed = false;
+			synchronized (index) {
+				if (!index.started) {
+					listed = true;
+					String resourceVersion = index.rebuild(list(client, namespace));
+					index.started = true;
+					index.live = true;
+					Thread t = new Thread(new IndexWatch(index, new ResourceWatcher(apiURL, auth, token), resourceVersion),
+							"OpenShift DeploymentConfig trigger watch " + apiURL + "|" + namespace);
+					t.setDaemon(true);
+					t.start();
+				}
+			}
+			// what we just listed is current enough for this lookup, whatever became of the watch since
+			if (listed || index.live)
+				return index.lookup(imageTag);
+			// that index's watch just broke, start over with a fresh one
+			indexes.remove(key, index);
+		}
+	}
+
+	private static List<ModelNode> list(IClient client, String namespace) {
+		List<IDeploymentConfig> allDC = client.list(ResourceKind.DEPLOYMENT_CONFIG, namespace);
+		List<ModelNode> nodes = new ArrayList<ModelNode>();
+		if (allDC != null) {
+			for (IDeploymentConfig dc : allDC)
+				nodes.add(((DeploymentConfig) dc).getNode());
+		}
+		return nodes;
+	}
+
+	public static int getSize() {
+		return indexes.size();
+	}
+
+	// the ImageStreamTag names referenced by the dc's image change triggers
+	static Set<String> getImageTriggerTags(ModelNode dc) {
+		Set<String> tags = new HashSet<String>();
+		if (!dc.has("spec") || !dc.get("spec").has("triggers"))
+			return tags;
+		for (ModelNode trigger : dc.get("spec").get("triggers").asList()) {
+			if (!"ImageChange".equals(ResourceWatcher.getString(trigger, "type")))
+				continue;
+			String kind = ResourceWatcher.getString(trigger, "imageChangeParams", "from", "kind");
+			String name = ResourceWatcher.getString(trigger, "imageChangeParams", "from", "name");
+			if (name != null && (kind == null || "ImageStreamTag".equals(kind)))
+				tags.add(name);
+		}
+		return tags;
+	}
+
+	private static String newer(String rv1, String rv2) {
+		if (rv1 == null)
+			return rv2;
+		if (rv2 == null)
+			return rv1;
+		// resource versions are opaque, but in practice etcd indexes; if they are not numeric just keep the first one
+		try {
+			return Long.parseLong(rv2) > Long.parseLong(rv1) ? rv2 : rv1;
+		} catch (NumberFormatException e) {
+			return rv1;
+		}
+	}
+
+	private static final class NamespaceIndex {
+		private final String key;
+		private final String namespace;
+		// image stream tag to dc names, and dc name to the tags it was last indexed under
+		private final Map<String, Set<String>> byTag = new HashMap<String, Set<String>>();
+		private final Map<String, Set<String>> byDC = new HashMap<String, Set<String>>();
+		private volatile long lastUsed = System.currentTimeMillis();
+		private volatile boolean live = false;
+		// set, under the index's lock, once the first lookup has listed the DCs and started the watch
+		private boolean started = false;
+
+		private NamespaceIndex(String key, String namespace) {
+			this.key = key;
+			this.namespace = namespace;
+		}
+
+		// replaces what the index holds with the DCs in a fresh list, returning the newest resourceVersion among them
+		private synchronized String rebuild(List<ModelNode> dcs) {
+			byTag.clear();
+			byDC.clear();
+			String resourceVersion = null;
+			for (ModelNode dc : dcs) {
+				String name = ResourceWatcher.getString(dc, "metadata", "name");
+				if (name != null)
+					update(name, getImageTriggerTags(dc));
+				resourceVersion = newer(resourceVersion, ResourceWatcher.getResourceVersion(dc));
+			}
+			return resourceVersion;
+		}
+
+		private synchronized Set<String> lookup(String imageTag) {
+			Set<String> dcs = byTag.get(imageTag);
+			if (dcs == null)
+				return Collections.emptySet();
+			return new HashSet<String>(dcs);
+		}
+
+		private synchronized void update(String dcName, Set<String> tags) {
+			remove(dcName);
+			if (tags.isEmpty())
+				return;
+			byDC.put(dcName, tags);
+			for (String tag : tags) {
+				Set<String> dcs = byTag.get(tag);
+				if (dcs == null) {
+					dcs = new HashSet<String>();
+					byTag.put(tag, dcs);
+				}
+				dcs.add(dcName);
+			}
+		}
+
+		private synchronized void remove(String dcName) {
+			Set<String> tags = byDC.remove(dcName);
+			if (tags == null)
+				return;
+			for (String tag : tags) {
+				Set<String> dcs = byTag.get(tag);
+				if (dcs == null)
+					continue;
+				dcs.remove(dcName);
+				if (dcs.isEmpty())
+					byTag.remove(tag);
+			}
+		}
+	}
+
+	private static final class IndexWatch implements Runnable {
+		private final NamespaceIndex index;
+		private final ResourceWatcher watcher;
+		private String resourceVersion;
+
+		private IndexWatch(NamespaceIndex index, ResourceWatcher watcher, String resourceVersion) {
+			this.index = index;
+			this.watcher = watcher;
+			this.resourceVersion = resourceVersion;
+		}
+
+		@Override
+		public void run() {
+			try {
+				while (System.currentTimeMillis() - index.lastUsed < IDLE_TIMEOUT) {
+					watcher.watch(ResourceWatcher.OAPI, index.namespace, "deploymentconfigs", null, null, resourceVersion,
+							System.currentTimeMillis() + WATCH_PERIOD, new ResourceWatcher.EventHandler() {
+								@Override
+								public boolean onEvent(String type, ModelNode object) {
+									String name = ResourceWatcher.getString(object, "metadata", "name");
+									if (name != null) {
+										if ("DELETED".equals(type))
+											index.remove(name);
+										else
+											index.update(name, getImageTriggerTags(object));
+									}
+									String rv = ResourceWatcher.getResourceVersion(object);
+									if (rv != null)
+										resourceVersion = rv;
+									return System.currentTimeMillis() - index.lastUsed >= IDLE_TIMEOUT;
+								}
+
+								// we missed events, deletions among them, so start over from a fresh list rather than merging
+								// the replayed state into what we have
+								@Override
+								public String onExpired() throws IOException {
+									List<ModelNode> dcs = watcher.list(ResourceWatcher.OAPI, index.namespace, "deploymentconfigs", null, null);
+									if (dcs == null)
+										throw new IOException("relist of deploymentconfigs in " + index.namespace + " failed");
+									resourceVersion = index.rebuild(dcs);
+									return resourceVersion;
+								}
+							});
+				}
+			} catch (Throwable t) {
+				// the next lookup rebuilds the index from a list
+				LOGGER.log(Level.FINE, "watch on deploymentconfigs in " + index.namespace + " broke", t);
+			} finally {
+				index.live = false;
+				indexes.remove(index.key, index);
+			}
+		}
+	}
+}
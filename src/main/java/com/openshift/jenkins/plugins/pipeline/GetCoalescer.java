@@ -0,0 +1,81 @@
+package com.openshift.jenkins.plugins.pipeline;
+
+import java.util.Arrays;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+import com.openshift.restclient.IClient;
+import com.openshift.restclient.model.IResource;
+
+/*
+ * Lets concurrent, identical IClient.get(kind, name, namespace) calls share one in flight request.  Steps running in parallel
+ * pipelines tend to poll the same objects at the same time (i.e. several deployment verifiers watching the same DeploymentConfig
+ * and its latest ReplicationController);  the first caller makes the request and the others wait for its result.  As the steps
+ * modify what they get back (i.e. the scaler sets the replica count on the RC before updating it), the leader shares the
+ * resource's json, taken before anyone can touch it, and every caller, the leader included, gets its own copy built from that.  The wrapped client is per api server and credential (see ClientRegistry),
+ * so only callers that could have made the same request share it.
+ */
+public class GetCoalescer {
+
+	private static final AtomicLong requests = new AtomicLong();
+	private static final AtomicLong coalesced = new AtomicLong();
+
+	private GetCoalescer() {
+	}
+
+	public static IClient wrap(IClient client) {
+		if (client == null)
+			return null;
+		ConcurrentHashMap<String, CompletableFuture<String>> inFlight = new ConcurrentHashMap<String, CompletableFuture<String>>();
+		return DelegatingClient.wrap(client, (delegate, method, args) -> {
+			if (!"get".equals(method.getName()) || args == null || args.length != 3 || !Arrays.stream(args).allMatch(a -> a instanceof String)) {
+				return DelegatingClient.invoke(delegate, method, args);
+			}
+
+			requests.incrementAndGet();
+			String key = args[0] + "|" + args[2] + "|" + args[1];
+			CompletableFuture<String> mine = new CompletableFuture<String>();
+			CompletableFuture<String> leader = inFlight.putIfAbsent(key, mine);
+			if (leader == null) {
+				try {
+					Object result = DelegatingClient.invoke(delegate, method, args);
+					String json = result instanceof IResource ? ((IResource) result).toJson() : null;
+					mine.complete(json);
+					return copy(delegate, json);
+				} catch (Throwable t) {
+					mine.completeExceptionally(t);
+					throw t;
+				} finally {
+					inFlight.remove(key, mine);
+				}
+			}
+
+			coalesced.incrementAndGet();
+			String json = null;
+			try {
+				json = leader.join();
+			} catch (CompletionException e) {
+				throw e.getCause();
+			}
+			return copy(delegate, json);
+		});
+	}
+
+	public static long getRequests() {
+		return requests.get();
+	}
+
+	public static long getCoalesced() {
+		return coalesced.get();
+	}
+
+	public static String getStats() {
+		return "gets " + getRequests() + " coalesced " + getCoalesced();
+	}
+
+	private static IResource copy(IClient client, String json) {
+		return json != null ? client.getResourceFactory().create(json) : null;
+	}
+}
@@ -5,17 +5,20 @@ import hudson.FilePath;
 import hudson.Launcher;
 import hudson.model.AbstractBuild;
 import hudson.model.BuildListener;
+import hudson.model.Computer;
+import hudson.model.Describable;
 import hudson.model.Run;
 import hudson.model.TaskListener;
 
 import java.io.IOException;
-import java.lang.reflect.Field;
-import java.lang.reflect.Modifier;
+import java.util.Arrays;
 import java.util.HashMap;
 import java.util.Map;
 import java.util.Map.Entry;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeoutException;
 
-import com.openshift.restclient.ClientBuilder;
 import com.openshift.restclient.IClient;
 import com.openshift.restclient.ResourceKind;
 import com.openshift.restclient.authorization.TokenAuthorizationStrategy;
@@ -76,9 +79,11 @@ public interface IOpenShiftPlugin {
 	boolean coreLogic(Launcher launcher, TaskListener listener, EnvVars env, Map<String,String> overrides);
 	
 	default IClient getClient(TaskListener listener, String displayName, Map<String,String> overrides) {
-		IClient client = new ClientBuilder(getApiURL(overrides)).sslCertificateCallback(getAuth()).resourceFactory(getToken()).sslCertificate(getApiURL(overrides), getAuth().getCert()).build();
+		IClient client = ClientRegistry.getClient(getApiURL(overrides), getAuth(), getToken());
     	if (client == null) {
 	    	listener.getLogger().println(String.format(MessageConstants.CANNOT_GET_CLIENT, displayName, getApiURL(overrides)));
+    	} else if (Boolean.parseBoolean(getVerbose(overrides))) {
+    		listener.getLogger().println("\n" + displayName + " " + ClientRegistry.getStats() + ", " + ApiRateLimiter.getStats() + ", " + GetCoalescer.getStats() + ", " + ResourceCache.getStats());
     	}
     	return client;
 	}
@@ -110,17 +115,78 @@ public interface IOpenShiftPlugin {
 		return scaledAppropriately;
 	}
 	
-	default boolean doItCore(TaskListener listener, EnvVars env, Run<?, ?> run, AbstractBuild<?, ?> build, Launcher launcher) {
+	// the non blocking form of coreLogic, for the Pipeline path (see OpenShiftPipelineStep);  the steps which wait on OpenShift
+	// override it so that their waits do not hold a thread (see AsyncWaits), the others run coreLogic on a thread of its own
+	default CompletableFuture<Boolean> coreLogicAsync(Launcher launcher, TaskListener listener, EnvVars env, Map<String,String> overrides) {
+		return CompletableFuture.supplyAsync(() -> coreLogic(launcher, listener, env, overrides), Computer.threadPoolForRemoting);
+	}
+	
+	// the waits of the current run of the step
+	default AsyncWaits getWaits() {
+		return new AsyncWaits();
+	}
+	
+	default void setWaits(AsyncWaits waits) {
+	}
+	
+	default HashMap<String,String> prepare(TaskListener listener, EnvVars env, Run<?, ?> run, AsyncWaits waits) {
 		boolean chatty = Boolean.parseBoolean(getVerbose());
-		if (run == null && build == null)
+		if (run == null)
 			throw new RuntimeException("Either the run or build parameter must be set");
     	if (chatty)
     		listener.getLogger().println("\n\nOpenShift Pipeline Plugin: env vars for this job:  " + env);
 		HashMap<String,String> overrides = inspectBuildEnvAndOverrideFields(env, listener, chatty);
 		pullDefaultsIfNeeded(env, overrides, listener);
 		setAuth(Auth.createInstance(chatty ? listener : null, getApiURL(overrides), env));
-    	setToken(new TokenAuthorizationStrategy(Auth.deriveBearerToken(build != null ? build : run, getAuthToken(overrides), listener, chatty)));
-		return coreLogic(launcher, listener, env, overrides);
+    	setToken(new TokenAuthorizationStrategy(Auth.deriveBearerToken(run, getAuthToken(overrides), listener, chatty)));
+    	setTiming(new StepTiming(this instanceof Describable ? ((Describable<?>) this).getDescriptor().getDisplayName() : getClass().getSimpleName()));
+    	setWaits(waits);
+    	return overrides;
+	}
+	
+	default boolean doItCore(TaskListener listener, EnvVars env, Run<?, ?> run, AbstractBuild<?, ?> build, Launcher launcher) {
+		HashMap<String,String> overrides = prepare(listener, env, build != null ? build : run, new AsyncWaits());
+		StepTiming timing = getTiming();
+    	boolean successful = false;
+    	try {
+    		successful = coreLogic(launcher, listener, env, overrides);
+    		return successful;
+    	} finally {
+    		timing.finish(successful);
+    		StepTimingAction.forRun(build != null ? build : run).add(timing);
+    	}
+	}
+	
+	// the Pipeline path (see OpenShiftPipelineStep):  returns once the step is under way, with a future that completes when it is done
+	default CompletableFuture<Boolean> doItCoreAsync(TaskListener listener, EnvVars env, Run<?, ?> run, Launcher launcher, AsyncWaits waits) {
+		HashMap<String,String> overrides = prepare(listener, env, run, waits);
+		StepTiming timing = getTiming();
+		CompletableFuture<Boolean> result;
+		try {
+			result = coreLogicAsync(launcher, listener, env, overrides);
+		} catch (RuntimeException | Error e) {
+			timing.finish(false);
+			StepTimingAction.forRun(run).add(timing);
+			throw e;
+		}
+		return result.whenComplete((successful, t) -> {
+			timing.finish(Boolean.TRUE.equals(successful));
+			StepTimingAction.forRun(run).add(timing);
+		});
+	}
+	
+	// the phase timings of the current run of the step, if it is being timed
+	default StepTiming getTiming() {
+		return null;
+	}
+	
+	default void setTiming(StepTiming timing) {
+	}
+	
+	default void markPhase(String phase) {
+		StepTiming timing = getTiming();
+		if (timing != null)
+			timing.mark(phase);
 	}
 
 	default void doIt(Run<?, ?> run, FilePath workspace, Launcher launcher,
@@ -154,113 +220,139 @@ public interface IOpenShiftPlugin {
     }
 
 	
-    default HashMap<String,String> setFields(HashMap<String,String> overridenFields, Field[] fields, EnvVars env, boolean chatty, TaskListener listener) throws IllegalArgumentException, IllegalAccessException {
-		for (Field f : fields) {
-			String key = f.getName();
-			// parameterized builds should only apply to instance variables, not static ones (and fyi, static fields in the classes extending this one will not be accessible by default)
-			if (Modifier.isStatic(f.getModifiers()))
-				continue;
-			Object val = f.get(this);
-			if (chatty)
-				listener.getLogger().println("inspectBuildEnvAndOverrideFields found field " + key + " with current value " + val);
-			if (val == null)
-				continue;
-			if (!(val instanceof String))
-				continue;
-			String envval = env.get(val);
-			if (chatty)
-				listener.getLogger().println("inspectBuildEnvAndOverrideFields for field " + key + " got val from build env " + envval);
-			if (envval != null && envval.length() > 0) {
-				overridenFields.put(f.getName(), envval);
-			}
-		}
-    	return overridenFields;
-    }
-    
 	default HashMap<String,String> inspectBuildEnvAndOverrideFields(EnvVars env, TaskListener listener, boolean chatty) {
-		String className = this.getClass().getName();
 		if (chatty)
-			listener.getLogger().println("inspectBuildEnvAndOverrideFields class name " + className);
+			listener.getLogger().println("inspectBuildEnvAndOverrideFields class name " + this.getClass().getName());
 		HashMap<String,String> overridenFields = new HashMap<String,String>();
+		if (env == null)
+			return overridenFields;
+		// the accessors for our overridable fields are computed once per step class
+		OverridableFields fields = OverridableFields.forClass(this.getClass(), getBaseClassName());
 		try {
-			if (env == null)
-				return overridenFields;
-			Class<?> c = Class.forName(className);
-			overridenFields = this.setFields(overridenFields, c.getDeclaredFields(), env, chatty, listener);
-			
-			c = Class.forName(getBaseClassName());
-			overridenFields = this.setFields(overridenFields, c.getDeclaredFields(), env, chatty, listener);
-		} catch (ClassNotFoundException e1) {
-			e1.printStackTrace(listener.getLogger());
-		} catch (IllegalArgumentException e) {
-			e.printStackTrace(listener.getLogger());
-		} catch (IllegalAccessException e) {
-			e.printStackTrace(listener.getLogger());
+			for (int i = 0; i < fields.size(); i++) {
+				String key = fields.getName(i);
+				String val = fields.getValue(i, this);
+				if (chatty)
+					listener.getLogger().println("inspectBuildEnvAndOverrideFields found field " + key + " with current value " + val);
+				if (val == null)
+					continue;
+				String envval = env.get(val);
+				if (chatty)
+					listener.getLogger().println("inspectBuildEnvAndOverrideFields for field " + key + " got val from build env " + envval);
+				if (envval != null && envval.length() > 0) {
+					overridenFields.put(key, envval);
+				}
+			}
+		} catch (Throwable t) {
+			t.printStackTrace(listener.getLogger());
 		}
 		return overridenFields;
 	}
 	
 	default void restoreOverridenFields(HashMap<String,String> overrides, TaskListener listener) {
-		String className = this.getClass().getName();
+		OverridableFields fields = OverridableFields.forClass(this.getClass(), getBaseClassName());
 		try {
-			Class<?> c = Class.forName(className);
-			Class<?> bc = Class.forName(getBaseClassName());
 			for (Entry<String, String> entry : overrides.entrySet()) {
-				Field f = null;
-				try {
-					f = c.getDeclaredField(entry.getKey());
-				} catch (NoSuchFieldException e) {
-					f = bc.getDeclaredField(entry.getKey());
-				}
-				f.set(this, entry.getValue());
-				
+				if (!fields.setValue(entry.getKey(), this, entry.getValue()))
+					listener.getLogger().println("restoreOverridenFields could not set field " + entry.getKey());
 			}
-		} catch (ClassNotFoundException e) {
-			e.printStackTrace(listener.getLogger());
-		} catch (SecurityException e) {
-			e.printStackTrace(listener.getLogger());
-		} catch (NoSuchFieldException e) {
-			e.printStackTrace(listener.getLogger());
-		} catch (IllegalArgumentException e) {
-			e.printStackTrace(listener.getLogger());
-		} catch (IllegalAccessException e) {
-			e.printStackTrace(listener.getLogger());
+		} catch (Throwable t) {
+			t.printStackTrace(listener.getLogger());
 		}
 	}
 	
+    // waits until the build's phase is no longer one of waitPhases, returning the last phase seen
+    default String waitOnBuildPhase(IClient client, String bldId, String namespace, long deadline, boolean chatty, TaskListener listener, String... waitPhases) {
+    	return getWaits().await(waitOnBuildPhaseAsync(client, bldId, namespace, deadline, chatty, listener, waitPhases));
+    }
+    
+    // the project's builds are watched (see BuildPhaseMonitor) when the api server allows it, so we hear about the phase change as soon
+    // as it happens, otherwise we fall back on polling;  either way no thread is held while we wait
+    default CompletableFuture<String> waitOnBuildPhaseAsync(IClient client, String bldId, String namespace, long deadline, boolean chatty, TaskListener listener, String... waitPhases) {
+    	IBuild bld = client.get(ResourceKind.BUILD, bldId, namespace);
+    	if (bld == null)
+    		return CompletableFuture.completedFuture(null);
+    	final String bldState = bld.getStatus();
+    	if (chatty)
+    		listener.getLogger().println("\nOpenShift build " + bldId + " state:  " + bldState);
+    	if (!Arrays.asList(waitPhases).contains(bldState))
+    		return CompletableFuture.completedFuture(bldState);
+    	
+    	if (getAuth() != null && getToken() != null) {
+    		String apiURL = client.getBaseURL().toString();
+    		if (apiURL.endsWith("/"))
+    			apiURL = apiURL.substring(0, apiURL.length() - 1);
+    		listener.getLogger().println(String.format(MessageConstants.WAITING_ON_BUILD_WATCH, bldId));
+    		// all the steps waiting on builds in this project share one watch, rather than each holding its own
+    		CompletableFuture<String> phase = BuildPhaseMonitor.register(apiURL, getAuth(), getToken().getToken(), namespace, bldId, bld.getResourceVersion(), waitPhases);
+    		// the shared watch may already have been past the point where the build changed, so look again now that we are registered
+    		bld = client.get(ResourceKind.BUILD, bldId, namespace);
+    		if (bld == null || !Arrays.asList(waitPhases).contains(bld.getStatus())) {
+    			phase.cancel(true);
+    			return CompletableFuture.completedFuture(bld != null ? bld.getStatus() : bldState);
+    		}
+    		return getWaits().within(phase, deadline).handleAsync((state, t) -> {
+    			if (t == null) {
+    				if (chatty)
+    					listener.getLogger().println("\nOpenShift build " + bldId + " watch state:  " + state);
+    				return CompletableFuture.completedFuture(state);
+    			}
+    			Throwable cause = AsyncWaits.cause(t);
+    			if (cause instanceof TimeoutException) {
+    				IBuild latest = client.get(ResourceKind.BUILD, bldId, namespace);
+    				return CompletableFuture.completedFuture(latest != null ? latest.getStatus() : bldState);
+    			}
+    			if (cause instanceof CancellationException) {
+    				CompletableFuture<String> cancelled = new CompletableFuture<String>();
+    				cancelled.completeExceptionally(cause);
+    				return cancelled;
+    			}
+    			// the watch is not available
+    			if (chatty)
+    				cause.printStackTrace(listener.getLogger());
+    			return pollBuildPhase(client, bldId, namespace, deadline, chatty, listener, waitPhases);
+    		}, AsyncWaits.executor()).thenCompose(f -> f);
+    	}
+    	return pollBuildPhase(client, bldId, namespace, deadline, chatty, listener, waitPhases);
+    }
+    
+    default CompletableFuture<String> pollBuildPhase(IClient client, String bldId, String namespace, long deadline, boolean chatty, TaskListener listener, String... waitPhases) {
+    	listener.getLogger().println(String.format(MessageConstants.WAITING_ON_BUILD_POLL, bldId));
+    	final String[] bldState = new String[1];
+    	return getWaits().poll(() -> {
+    		IBuild bld = client.get(ResourceKind.BUILD, bldId, namespace);
+    		bldState[0] = bld != null ? bld.getStatus() : null;
+    		if (chatty)
+    			listener.getLogger().println("\nOpenShift build " + bldId + " state:  " + bldState[0]);
+    		return bld == null || !Arrays.asList(waitPhases).contains(bldState[0]) ? Boolean.TRUE : null;
+    	}, new PollingPolicy(1000, 1000), deadline).thenApply(done -> bldState[0]);
+    }
+    
     default boolean verifyBuild(long startTime, long wait, IClient client, String bldCfg, String bldId, String namespace, boolean chatty, TaskListener listener, String displayName, boolean checkDeps) {
-		String bldState = null;
-    	while (System.currentTimeMillis() < (startTime + wait)) {
-			IBuild bld = client.get(ResourceKind.BUILD, bldId, namespace);
-			bldState = bld.getStatus();
-			if (chatty)
-				listener.getLogger().println("\nOpenShiftBuilder post bld launch bld state:  " + bldState);
-			if (!bldState.equals("Complete")) {
-				try {
-					Thread.sleep(1000);
-				} catch (InterruptedException e) {
-				}
-			} else {
-				break;
+    	return Boolean.TRUE.equals(getWaits().await(verifyBuildAsync(startTime, wait, client, bldCfg, bldId, namespace, chatty, listener, displayName, checkDeps)));
+    }
+    
+    default CompletableFuture<Boolean> verifyBuildAsync(long startTime, long wait, IClient client, String bldCfg, String bldId, String namespace, boolean chatty, TaskListener listener, String displayName, boolean checkDeps) {
+		return waitOnBuildPhaseAsync(client, bldId, namespace, startTime + wait, chatty, listener, "New", "Pending", "Running").thenComposeAsync(bldState -> {
+			markPhase(bldState != null ? bldState : "build gone");
+			if (bldState == null || !bldState.equals("Complete")) {
+		    	listener.getLogger().println(String.format(MessageConstants.EXIT_BUILD_BAD, displayName, bldId, bldState));
+				return CompletableFuture.completedFuture(false);
 			}
-		}
-		if (bldState == null || !bldState.equals("Complete")) {
-	    	listener.getLogger().println(String.format(MessageConstants.EXIT_BUILD_BAD, displayName, bldId, bldState));
-			return false;
-		} else {
-			if (checkDeps) {    						
-				if (Deployment.didAllImagesChangeIfNeeded(bldCfg, listener, chatty, client, namespace, wait)) {
-    		    	listener.getLogger().println(String.format(MessageConstants.EXIT_BUILD_GOOD_DEPLOY_GOOD, displayName, bldId));
-					return true;
-				} else {
-    		    	listener.getLogger().println(String.format(MessageConstants.EXIT_BUILD_GOOD_DEPLOY_BAD, displayName, bldId));
-					return false;
-				}
-			} else {
+			if (!checkDeps) {
 		    	listener.getLogger().println(String.format(MessageConstants.EXIT_BUILD_GOOD_DEPLOY_IGNORED, displayName, bldId));
-				return true;
+				return CompletableFuture.completedFuture(true);
 			}
-		}
+			return Deployment.didAllImagesChangeIfNeededAsync(bldCfg, listener, chatty, client, namespace, wait, getAuth(), getToken() != null ? getToken().getToken() : null, getWaits())
+					.thenApply(deployed -> {
+						markPhase("deployments checked");
+						if (deployed)
+	    		    		listener.getLogger().println(String.format(MessageConstants.EXIT_BUILD_GOOD_DEPLOY_GOOD, displayName, bldId));
+						else
+							listener.getLogger().println(String.format(MessageConstants.EXIT_BUILD_GOOD_DEPLOY_BAD, displayName, bldId));
+						return deployed;
+					});
+		}, AsyncWaits.executor());
     }
     
 }
@@ -0,0 +1,114 @@
+package com.openshift.jenkins.plugins.pipeline;
+
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/*
+ * Many jobs tend to poll the same image stream tags; rather than each job's poll doing its own GET of the image stream,
+ * the jobs polling the same (api server, project, image stream, tag) share one fetch per interval, and each job then compares the
+ * shared image ID with its own ImageStreamRevisionState.  The credential is part of the key as well, so a job never sees a
+ * result fetched with a token it does not hold.
+ */
+public class ImageStreamPollCoordinator {
+
+	private static final ConcurrentHashMap<Key, Poll> polls = new ConcurrentHashMap<Key, Poll>();
+	private static final AtomicLong fetches = new AtomicLong();
+	private static final AtomicLong shared = new AtomicLong();
+
+	private ImageStreamPollCoordinator() {
+	}
+
+	public static String getImageId(String apiURL, String namespace, String imageStream, String tag, String token, long interval,
+			Callable<String> fetcher) throws Exception {
+		long now = System.currentTimeMillis();
+		evictUnused(now, interval);
+		Key key = new Key(apiURL, namespace, imageStream, tag, ClientRegistry.hash(token));
+		Poll poll = polls.computeIfAbsent(key, k -> new Poll());
+		poll.lastRequested = now;
+		// jobs asking for the same tuple while a fetch is in flight wait on it and share its result
+		synchronized (poll) {
+			if (poll.fetchedAt == 0 || now - poll.fetchedAt >= interval) {
+				fetches.incrementAndGet();
+				poll.imageId = fetcher.call();
+				poll.fetchedAt = System.currentTimeMillis();
+			} else {
+				shared.incrementAndGet();
+			}
+			return poll.imageId;
+		}
+	}
+
+	// lets an event source (i.e. the ImageStreamWatcher) hand over an image ID it already has, so the next poll for
+	// the tuple uses it instead of fetching
+	public static void publish(String apiURL, String namespace, String imageStream, String tag, String token, String imageId) {
+		Key key = new Key(apiURL, namespace, imageStream, tag, ClientRegistry.hash(token));
+		Poll poll = polls.computeIfAbsent(key, k -> new Poll());
+		poll.lastRequested = System.currentTimeMillis();
+		synchronized (poll) {
+			poll.imageId = imageId;
+			poll.fetchedAt = System.currentTimeMillis();
+		}
+	}
+
+	public static long getFetches() {
+		return fetches.get();
+	}
+
+	public static long getShared() {
+		return shared.get();
+	}
+
+	public static int getSize() {
+		return polls.size();
+	}
+
+	public static String getStats() {
+		return "image stream polls tracked " + getSize() + " fetches " + getFetches() + " shared " + getShared();
+	}
+
+	// forgets every shared fetch, so the next poll of each tuple fetches again
+	public static void reset() {
+		polls.clear();
+	}
+
+	// drop tuples no job has asked about for a good while (i.e. the job was deleted or reconfigured)
+	private static void evictUnused(long now, long interval) {
+		long maxIdle = Math.max(interval * 10, 10 * 60 * 1000);
+		Iterator<Poll> iter = polls.values().iterator();
+		while (iter.hasNext()) {
+			if (now - iter.next().lastRequested > maxIdle)
+				iter.remove();
+		}
+	}
+
+	private static final class Poll {
+		private volatile long lastRequested;
+		private long fetchedAt;
+		private String imageId;
+	}
+
+	private static final class Key {
+		private final String[] fields;
+
+		private Key(String... fields) {
+			this.fields = fields;
+		}
+
+		@Override
+		public int hashCode() {
+			return Arrays.hashCode(fields);
+		}
+
+		@Override
+		public boolean equals(Object obj) {
+			if (this == obj)
+				return true;
+			if (obj == null || getClass() != obj.getClass())
+				return false;
+			return Arrays.equals(fields, ((Key) obj).fields);
+		}
+	}
+}
@@ -0,0 +1,190 @@
+package com.openshift.jenkins.plugins.pipeline;
+
+import hudson.EnvVars;
+import hudson.Extension;
+import hudson.model.AbstractProject;
+import hudson.model.AsyncPeriodicWork;
+import hudson.model.TaskListener;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import jenkins.model.Jenkins;
+
+import org.jboss.dmr.ModelNode;
+
+/*
+ * When enabled in the "OpenShift ImageStreams" global settings, keeps one long lived watch on the image streams of each
+ * project (per api server and credential) referenced by jobs using the OpenShiftImageStreams SCM.  When the image ID
+ * for a tag a job polls on changes, the new ID is handed to the ImageStreamPollCoordinator and the job is polled right away,
+ * instead of waiting for its next cron based poll.  Jobs keep their regular SCM polling as the fallback for when a watch
+ * is not possible or breaks.
+ */
+@Extension
+public class ImageStreamWatcher extends AsyncPeriodicWork {
+
+	private static final Logger LOGGER = Logger.getLogger(ImageStreamWatcher.class.getName());
+
+	// how long a single watch request stays open before we re-establish it (and pick up subscription changes)
+	private static final long WATCH_PERIOD = 5 * 60 * 1000;
+
+	private final ConcurrentHashMap<String, NamespaceWatch> watches = new ConcurrentHashMap<String, NamespaceWatch>();
+
+	public ImageStreamWatcher() {
+		super("OpenShift ImageStream watcher");
+	}
+
+	@Override
+	public long getRecurrencePeriod() {
+		return MIN;
+	}
+
+	@Override
+	protected void execute(TaskListener listener) throws IOException, InterruptedException {
+		OpenShiftImageStreams.DescriptorImpl descriptor = (OpenShiftImageStreams.DescriptorImpl) Jenkins.getInstance().getDescriptor(OpenShiftImageStreams.class);
+		Map<String, NamespaceWatch> wanted = new HashMap<String, NamespaceWatch>();
+		if (descriptor != null && descriptor.isWatch()) {
+			for (AbstractProject<?, ?> project : Jenkins.getInstance().getAllItems(AbstractProject.class)) {
+				if (!(project.getScm() instanceof OpenShiftImageStreams) || project.isDisabled())
+					continue;
+				OpenShiftImageStreams scm = (OpenShiftImageStreams) project.getScm();
+				EnvVars env = null;
+				try {
+					env = project.getEnvironment(null, TaskListener.NULL);
+				} catch (IOException e) {
+					LOGGER.log(Level.FINE, "could not get the environment for " + project.getFullName(), e);
+					continue;
+				}
+				HashMap<String, String> overrides = scm.inspectBuildEnvAndOverrideFields(env, TaskListener.NULL, false);
+				scm.pullDefaultsIfNeeded(env, overrides, TaskListener.NULL);
+				String apiURL = scm.getApiURL(overrides);
+				String token = Auth.deriveBearerToken(null, scm.getAuthToken(), null, false);
+				if (apiURL == null || scm.getNamespace() == null || token == null)
+					continue;
+				String key = apiURL + "|" + scm.getNamespace() + "|" + ClientRegistry.hash(token);
+				NamespaceWatch watch = wanted.get(key);
+				if (watch == null) {
+					watch = watches.get(key);
+					if (watch == null || watch.isDone())
+						watch = new NamespaceWatch(apiURL, scm.getNamespace(), token, Auth.createInstance(null, apiURL, env));
+					watch.pending = new ArrayList<Subscription>();
+					wanted.put(key, watch);
+				}
+				watch.pending.add(new Subscription(project.getFullName(), scm.getImageStreamName(), scm.getTag()));
+			}
+		}
+
+		// stop watches no job needs any more
+		Iterator<Entry<String, NamespaceWatch>> iter = watches.entrySet().iterator();
+		while (iter.hasNext()) {
+			Entry<String, NamespaceWatch> entry = iter.next();
+			if (!wanted.containsKey(entry.getKey()) || wanted.get(entry.getKey()) != entry.getValue()) {
+				entry.getValue().stopped = true;
+				iter.remove();
+			}
+		}
+
+		// start new ones, and hand the current subscriptions to existing ones
+		for (Entry<String, NamespaceWatch> entry : wanted.entrySet()) {
+			NamespaceWatch watch = entry.getValue();
+			watch.subscriptions = watch.pending;
+			if (watches.putIfAbsent(entry.getKey(), watch) == null) {
+				Thread t = new Thread(watch, "OpenShift ImageStream watch " + entry.getKey().substring(0, entry.getKey().lastIndexOf('|')));
+				t.setDaemon(true);
+				t.start();
+			}
+		}
+	}
+
+	private static final class Subscription {
+		private final String projectName;
+		private final String imageStream;
+		private final String tag;
+
+		private Subscription(String projectName, String imageStream, String tag) {
+			this.projectName = projectName;
+			this.imageStream = imageStream;
+			this.tag = tag;
+		}
+	}
+
+	private static final class NamespaceWatch implements Runnable {
+		private final String apiURL;
+		private final String namespace;
+		private final String token;
+		private final ResourceWatcher watcher;
+		// <image stream>:<tag> to the last image ID seen for it
+		private final Map<String, String> lastImageIds = new HashMap<String, String>();
+		private volatile List<Subscription> subscriptions = new ArrayList<Subscription>();
+		private List<Subscription> pending;
+		private volatile boolean stopped = false;
+		private volatile boolean done = false;
+
+		private NamespaceWatch(String apiURL, String namespace, String token, Auth auth) {
+			this.apiURL = apiURL;
+			this.namespace = namespace;
+			this.token = token;
+			this.watcher = new ResourceWatcher(apiURL, auth, token);
+		}
+
+		private boolean isDone() {
+			return done;
+		}
+
+		@Override
+		public void run() {
+			try {
+				while (!stopped) {
+					watcher.watch(ResourceWatcher.OAPI, namespace, "imagestreams", null, null, null, System.currentTimeMillis() + WATCH_PERIOD,
+							(type, object) -> {
+								if (!"DELETED".equals(type))
+									onImageStream(object);
+								return stopped;
+							});
+				}
+			} catch (Throwable t) {
+				// the jobs' regular polling covers us until the next period tries to watch again
+				LOGGER.log(Level.FINE, "watch on image streams in " + namespace + " at " + apiURL + " broke, falling back on polling", t);
+			} finally {
+				done = true;
+			}
+		}
+
+		private void onImageStream(ModelNode object) {
+			String imageStream = ResourceWatcher.getString(object, "metadata", "name");
+			if (imageStream == null || !object.has("status") || !object.get("status").has("tags"))
+				return;
+			for (ModelNode tagNode : object.get("status").get("tags").asList()) {
+				String tag = ResourceWatcher.getString(tagNode, "tag");
+				if (tag == null || !tagNode.has("items") || tagNode.get("items").asList().isEmpty())
+					continue;
+				String imageId = ResourceWatcher.getString(tagNode.get("items").asList().get(0), "image");
+				if (imageId == null)
+					continue;
+				String previous = lastImageIds.put(imageStream + ":" + tag, imageId);
+				// the first event for a tag is just the current state, which regular polling already established
+				if (previous != null && !previous.equals(imageId))
+					onChange(imageStream, tag, imageId);
+			}
+		}
+
+		private void onChange(String imageStream, String tag, String imageId) {
+			ImageStreamPollCoordinator.publish(apiURL, namespace, imageStream, tag, token, imageId);
+			for (Subscription sub : subscriptions) {
+				if (!sub.imageStream.equals(imageStream) || !sub.tag.equals(tag))
+					continue;
+				AbstractProject<?, ?> project = Jenkins.getInstance().getItemByFullName(sub.projectName, AbstractProject.class);
+				if (project != null && !project.schedulePolling())
+					LOGGER.fine("image " + imageId + " for " + imageStream + ":" + tag + " changed but " + sub.projectName + " has no SCM polling trigger to schedule");
+			}
+		}
+	}
+}
@@ -24,6 +24,8 @@ public static final String EXIT_BUILD_BAD = "\n\nExiting \"%s\" unsuccessfully;
 public static final String EXIT_BUILD_GOOD_DEPLOY_BAD = "\n\nExiting \"%s\" unsuccessfully; build \"%s\" has completed with status:  [Complete]. However, not all deployments with ImageChange triggers based on this build's output triggered off of the new image.";
 public static final String EXIT_BUILD_GOOD_DEPLOY_IGNORED = "\n\nExiting \"%s\" successfully; build \"%s\" has completed with status:  [Complete].";
 public static final String EXIT_BUILD_GOOD_DEPLOY_GOOD = EXIT_BUILD_GOOD_DEPLOY_IGNORED + "  All deployments with ImageChange triggers based on this build's output triggered off of the new image.";
+public static final String WAITING_ON_BUILD_WATCH = "  Watching build \"%s\" for state changes ...";
+public static final String WAITING_ON_BUILD_POLL = "  Polling build \"%s\" for state changes ...";
 public static final String START_BUILD_RELATED_PLUGINS = "\n\nStarting the \"%s\" step with build config \"%s\" from the project \"%s\".";
 
 /*
@@ -35,6 +37,22 @@ public static final String EXIT_BUILD_NO_BUILD_OBJ = "\n\nExiting \"" + OpenShif
 public static final String EXIT_BUILD_NO_POD_OBJ = "\n\nExiting \"" + OpenShiftBuilder.DISPLAY_NAME + "\" unsuccessfully; the build pod for build \"%s\" was not found in time.";
 public static final String EXIT_BUILD_NO_BUILD_CONFIG_OBJ = "\n\nExiting \"" + OpenShiftBuilder.DISPLAY_NAME + "\" unsuccessfully; the build config \"%s\" could not be read.";
 
+/*
+ * These messages are for the "Trigger OpenShift Builds" jenkins build step implemented by OpenShiftMultiBuilder
+ */
+public static final String START_MULTI_BUILD = "\n\nStarting the \"%s\" step with build configs %s from the project \"%s\".";
+public static final String STARTED_MULTI_BUILD = "  Started build \"%s\" for build config \"%s\".";
+public static final String FAILED_MULTI_BUILD_TRIGGER = "  Failed to start a build for build config \"%s\".";
+public static final String WAITING_ON_BUILDS_WATCH = "  Watching %d builds for state changes ...";
+public static final String WAITING_ON_BUILDS_POLL = "  Polling %d builds for state changes ...";
+public static final String MULTI_BUILD_GOOD = "  Build \"%s\" for build config \"%s\" has completed with status:  [Complete].";
+public static final String MULTI_BUILD_BAD = "  Build \"%s\" for build config \"%s\" has completed with status:  [%s].";
+public static final String EXIT_MULTI_BUILD_GOOD = "\n\nExiting \"%s\" successfully; all %d builds have completed with status:  [Complete] in %d ms.";
+public static final String EXIT_MULTI_BUILD_NO_BUILD_CONFIGS = "\n\nExiting \"%s\" unsuccessfully; no build configs were named or matched the label selector.";
+public static final String EXIT_MULTI_BUILD_UNSUPPORTED_SELECTOR = "\n\nExiting \"%s\" unsuccessfully; the label selector \"%s\" could not be sent to the api server as is, and only selectors made of key=value (or key==value) pairs can be matched without it.";
+public static final String EXIT_MULTI_BUILD_NOT_TRIGGERED = "\n\nExiting \"%s\" unsuccessfully; not all of the builds could be started.";
+public static final String EXIT_MULTI_BUILD_TIMED_OUT = "\n\nExiting \"%s\" unsuccessfully; gave up waiting on the builds %s.";
+
 /*
  * These messages are for the "Verify OpenShift Builds" jenkins build step implemented by OpenShiftBuildVerifier
  * Reminder - "Verify OpenShift Builds" looks at builds started externally from the Jenkins project this step is in 
@@ -48,6 +66,9 @@ public static final String WAITING_ON_BUILD_STARTED_ELSEWHERE_PLUS_DEPLOY = "  W
  */
 public static final String CANCELLED_BUILD = "  Cancelled build \"%s\".";
 public static final String EXIT_BUILD_CANCEL = "\n\nExiting \"%s\" successfully with %d builds cancelled.";
+public static final String CANCELLED_BUILD_TIMED = "  Cancelled build \"%s\" in %d ms.";
+public static final String FAILED_BUILD_CANCEL = "  Failed to cancel build \"%s\":  %s";
+public static final String EXIT_BUILD_CANCEL_BAD = "\n\nExiting \"%s\" unsuccessfully; %d builds cancelled, %d could not be cancelled.";
 
 /*
  * These messages are for the "Create OpenShift Resource(s)" jenkins build step implemented by OpenShiftCreator
@@ -55,6 +76,9 @@ public static final String EXIT_BUILD_CANCEL = "\n\nExiting \"%s\" successfully
 public static final String START_CREATE_OBJS = "\n\nStarting \"" + OpenShiftCreator.DISPLAY_NAME + "\" with the project \"%s\".";
 public static final String CREATED_OBJ = "  Created a \"%s\"";
 public static final String FAILED_OBJ = "  Failed to create a \"%s\"";
+public static final String CREATED_OBJ_TIMED = "  Created a \"%s\" named \"%s\" in %d ms";
+public static final String FAILED_OBJ_TIMED = "  Failed to create a \"%s\" named \"%s\" after %d ms";
+public static final String CREATE_SUMMARY = "  Processed %d resource(s) in %d dependency tier(s) in %d ms; total per resource time %d ms, slowest resource %d ms.";
 public static final String EXIT_CREATE_BAD = "\n\nExiting \"" + OpenShiftCreator.DISPLAY_NAME + "\" unsuccessfully, with %d resource(s) created and %d failed attempt(s).";
 public static final String EXIT_CREATE_GOOD = "\n\nExiting \"" + OpenShiftCreator.DISPLAY_NAME + "\" successfully, with %d resource(s) created.";
 public static final String TYPE_NOT_SUPPORTED = "  The API resource \"%s\" is not currently supported by this step.";
@@ -136,4 +160,9 @@ public static final String EXIT_SERVICE_VERIFY_BAD = "\n\nExiting \"%s\" unsucce
 public static final String SOCKET_TIMEOUT = " a socket level communication timeout to \"%s\" occurred.";
 public static final String HTTP_ERR = " the HTTP level communication error \"%s\" for \"%s\" occurred.";
 
+/*
+ * These messages are for the steps which poll via a PollingPolicy
+ */
+public static final String POLL_COUNT = "\n\n\"%s\" polled the api server %d times.";
+
 }
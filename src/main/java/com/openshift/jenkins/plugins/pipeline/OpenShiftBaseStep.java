@@ -23,6 +23,8 @@ public abstract class OpenShiftBaseStep extends Builder  implements SimpleBuildS
     // marked transient so don't serialize these next 2 in the workflow plugin flow; constructed on per request basis
     protected transient TokenAuthorizationStrategy bearerToken;
     protected transient Auth auth;
+    protected transient StepTiming timing;
+    protected transient AsyncWaits waits;
     
     protected OpenShiftBaseStep(String apiURL, String namespace, String authToken, String verbose) {
     	this.apiURL = apiURL;
@@ -67,6 +69,29 @@ public abstract class OpenShiftBaseStep extends Builder  implements SimpleBuildS
 		this.bearerToken = token;
 	}
 
+	@Override
+	public StepTiming getTiming() {
+		return timing;
+	}
+
+	@Override
+	public void setTiming(StepTiming timing) {
+		this.timing = timing;
+	}
+
+	@Override
+	public synchronized AsyncWaits getWaits() {
+		// i.e. coreLogic called directly, rather than through doIt
+		if (waits == null)
+			waits = new AsyncWaits();
+		return waits;
+	}
+
+	@Override
+	public synchronized void setWaits(AsyncWaits waits) {
+		this.waits = waits;
+	}
+
 	@Override
 	public String getBaseClassName() {
 		return OpenShiftBaseStep.class.getName();
@@ -9,12 +9,15 @@ import hudson.tasks.BuildStepDescriptor;
 import hudson.tasks.Publisher;
 import net.sf.json.JSONObject;
 
+import org.jboss.dmr.ModelNode;
 import org.kohsuke.stapler.DataBoundConstructor;
 import org.kohsuke.stapler.StaplerRequest;
 import org.kohsuke.stapler.QueryParameter;
 
 import com.openshift.internal.restclient.http.HttpClientException;
 import com.openshift.restclient.IClient;
+import com.openshift.restclient.NotFoundException;
+import com.openshift.restclient.OpenShiftException;
 import com.openshift.restclient.ResourceKind;
 import com.openshift.restclient.capability.CapabilityVisitor;
 import com.openshift.restclient.capability.resources.IBuildCancelable;
@@ -23,12 +26,27 @@ import com.openshift.restclient.model.IBuild;
 import javax.servlet.ServletException;
 
 import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
 public class OpenShiftBuildCanceller extends OpenShiftBasePostAction {
 	
 	protected final static String DISPLAY_NAME = "Cancel OpenShift Builds";
+	protected final static String BUILD_CONFIG_LABEL = "openshift.io/build-config.name";
+	protected final static String LEGACY_BUILD_CONFIG_LABEL = "buildconfig";
+	protected final static String[] TERMINAL_PHASES = {"Complete", "Failed", "Cancelled", "Error"};
+	// upper bound on the number of builds we cancel at the same time
+	protected final static int MAX_CONCURRENT_CANCELS = 8;
+	// a cancel can conflict (409) with the build controller updating the build, so we re-get the build and try again, after a short pause
+	protected final static int MAX_CANCEL_ATTEMPTS = 3;
+	protected final static long CANCEL_RETRY_PAUSE = 250;
 	
     protected final String bldCfg;    
     
@@ -49,6 +67,101 @@ public class OpenShiftBuildCanceller extends OpenShiftBasePostAction {
     	return getBldCfg();
     }
 	
+	protected boolean isTerminal(String phase) {
+		for (String p : TERMINAL_PHASES) {
+			if (p.equalsIgnoreCase(phase))
+				return true;
+		}
+		return false;
+	}
+	
+	// the names of the build config's builds which are not done yet;  the api server filters on both the build config's
+	// label and the build's status, so neither the rest of the namespace nor the build config's history comes back to us
+	protected List<String> getActiveBuildNames(IClient client, boolean chatty, TaskListener listener, Map<String,String> overrides) {
+		StringBuilder fieldSelector = new StringBuilder();
+		for (String phase : TERMINAL_PHASES)
+			fieldSelector.append(fieldSelector.length() > 0 ? "," : "").append("status!=").append(phase);
+		ResourceWatcher watcher = new ResourceWatcher(getApiURL(overrides), getAuth(), getToken() != null ? getToken().getToken() : null);
+		List<String> names = new ArrayList<String>();
+		try {
+			for (String label : new String[] {BUILD_CONFIG_LABEL, LEGACY_BUILD_CONFIG_LABEL}) {
+				List<ModelNode> blds = watcher.list(ResourceWatcher.OAPI, getNamespace(overrides), "builds", fieldSelector.toString(), label + "=" + getBldCfg(overrides));
+				if (blds == null) {
+					names = null;
+					break;
+				}
+				for (ModelNode bld : blds)
+					names.add(ResourceWatcher.getString(bld, "metadata", "name"));
+				// builds created by older api servers only carry the short label
+				if (names.size() > 0)
+					break;
+			}
+		} catch (IOException e) {
+			if (chatty)
+				e.printStackTrace(listener.getLogger());
+			names = null;
+		}
+		if (names != null)
+			return names;
+		
+		// the api server would not filter on status, so we do
+		if (chatty)
+			listener.getLogger().println("\nOpenShiftBuildCanceller listing builds by label only");
+		names = new ArrayList<String>();
+		for (String label : new String[] {BUILD_CONFIG_LABEL, LEGACY_BUILD_CONFIG_LABEL}) {
+			Map<String,String> labels = new HashMap<String,String>();
+			labels.put(label, getBldCfg(overrides));
+			List<IBuild> blds = client.list(ResourceKind.BUILD, getNamespace(overrides), labels);
+			if (blds == null || blds.size() == 0)
+				continue;
+			for (IBuild bld : blds) {
+				if (!isTerminal(bld.getStatus()))
+					names.add(bld.getName());
+			}
+			break;
+		}
+		return names;
+	}
+	
+	// returns how long the cancel took in milliseconds, or -1 if the build finished (or was deleted) before we got to it
+	protected long cancelBuild(IClient client, String buildName, boolean chatty, TaskListener listener, Map<String,String> overrides) {
+		long start = System.currentTimeMillis();
+		for (int attempt = 1; ; attempt++) {
+			try {
+				// re-get bld (etcd employs optimistic update), so a retry after a conflicting update works from the latest version
+				IBuild bld = client.get(ResourceKind.BUILD, buildName, getNamespace(overrides));
+				if (bld == null || isTerminal(bld.getStatus()))
+					return -1;
+				// call cancel api
+				ApiRateLimiter.acquire(getApiURL(overrides), true);
+				bld.accept(new CapabilityVisitor<IBuildCancelable, IBuild>() {
+					public IBuild visit(IBuildCancelable cancelable) {
+						return ApiMetrics.time("cancel", ResourceKind.BUILD, () -> cancelable.cancel());
+					}
+				}, null);
+				return System.currentTimeMillis() - start;
+			} catch (NotFoundException e) {
+				return -1;
+			} catch (OpenShiftException e) {
+				// anything but a conflict will not go away by trying again
+				if (!isConflict(e) || attempt >= MAX_CANCEL_ATTEMPTS)
+					throw e;
+				if (chatty)
+					listener.getLogger().println("\nOpenShiftBuildCanceller attempt " + attempt + " to cancel " + buildName + " conflicted, trying again:  " + e.getMessage());
+				try {
+					Thread.sleep(CANCEL_RETRY_PAUSE);
+				} catch (InterruptedException ie) {
+					Thread.currentThread().interrupt();
+					throw e;
+				}
+			}
+		}
+	}
+	
+	private static boolean isConflict(OpenShiftException e) {
+		return e.getStatus() != null && e.getStatus().getCode() == 409;
+	}
+	
 	public boolean coreLogic(Launcher launcher, TaskListener listener,
 			EnvVars env, Map<String,String> overrides) {
 		boolean chatty = Boolean.parseBoolean(verbose);
@@ -60,33 +173,46 @@ public class OpenShiftBuildCanceller extends OpenShiftBasePostAction {
     	
     	if (client != null) {
 			try {
-				List<IBuild> list = client.list(ResourceKind.BUILD, getNamespace(overrides));
+				List<String> names = getActiveBuildNames(client, chatty, listener, overrides);
+				if (chatty)
+					listener.getLogger().println("\nOpenShiftBuildCanceller found active builds " + names);
 				int count = 0;
-				for (IBuild bld : list) {
-					String phaseStr = bld.getStatus();
-					
-					// if build active, let's cancel it
-					String buildName = bld.getName();
-					if (buildName.startsWith(getBldCfg(overrides)) && !phaseStr.equalsIgnoreCase("Complete") && !phaseStr.equalsIgnoreCase("Failed") && !phaseStr.equalsIgnoreCase("Cancelled")) {
-						if (chatty)
-							listener.getLogger().println("\nOpenShiftBuildCanceller found active build " + buildName);
-						
-						// re-get bld (etcd employs optimistic update)
-						bld = client.get(ResourceKind.BUILD, buildName, getNamespace(overrides));
-						
-						// call cancel api
-	    				bld.accept(new CapabilityVisitor<IBuildCancelable, IBuild>() {
-		    				public IBuild visit(IBuildCancelable cancelable) {
-		    					return cancelable.cancel();
-		    				}
-		    			}, null);
-	    										
-	    				listener.getLogger().println(String.format(MessageConstants.CANCELLED_BUILD, buildName));
-	    				count++;
-					
+				int failed = 0;
+				if (names.size() > 0) {
+					// cancel them all at once, so the time taken is that of the slowest cancel rather than the sum of them
+					ExecutorService pool = Executors.newFixedThreadPool(Math.min(names.size(), MAX_CONCURRENT_CANCELS));
+					try {
+						Map<Future<Long>, String> cancels = new LinkedHashMap<Future<Long>, String>();
+						for (String buildName : names)
+							cancels.put(pool.submit(() -> cancelBuild(client, buildName, chatty, listener, overrides)), buildName);
+						for (Map.Entry<Future<Long>, String> cancel : cancels.entrySet()) {
+							try {
+								long millis = cancel.getKey().get();
+								if (millis >= 0) {
+									listener.getLogger().println(String.format(MessageConstants.CANCELLED_BUILD_TIMED, cancel.getValue(), millis));
+									count++;
+								} else if (chatty) {
+									listener.getLogger().println("\nOpenShiftBuildCanceller build " + cancel.getValue() + " finished before it could be cancelled");
+								}
+							} catch (ExecutionException e) {
+								listener.getLogger().println(String.format(MessageConstants.FAILED_BUILD_CANCEL, cancel.getValue(), e.getCause()));
+								if (chatty)
+									e.getCause().printStackTrace(listener.getLogger());
+								failed++;
+							} catch (InterruptedException e) {
+								Thread.currentThread().interrupt();
+								failed++;
+							}
+						}
+					} finally {
+						pool.shutdownNow();
 					}
 				}
 
+				if (failed > 0) {
+					listener.getLogger().println(String.format(MessageConstants.EXIT_BUILD_CANCEL_BAD, DISPLAY_NAME, count, failed));
+					return false;
+				}
 		    	listener.getLogger().println(String.format(MessageConstants.EXIT_BUILD_CANCEL, DISPLAY_NAME, count));
 				
 				return true;
@@ -11,24 +11,31 @@ import net.sf.json.JSONObject;
 
 import org.kohsuke.stapler.DataBoundConstructor;
 import org.kohsuke.stapler.StaplerRequest;
+import org.jboss.dmr.ModelNode;
 import org.kohsuke.stapler.QueryParameter;
 
+import com.openshift.internal.restclient.model.KubernetesResource;
 import com.openshift.restclient.IClient;
 import com.openshift.restclient.ResourceKind;
 import com.openshift.restclient.model.IBuild;
+import com.openshift.restclient.model.IBuildConfig;
 
 import javax.servlet.ServletException;
 
 import java.io.IOException;
 import java.util.ArrayList;
-import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
 
 
 public class OpenShiftBuildVerifier extends OpenShiftBaseStep {
 	
 	protected final static String DISPLAY_NAME = "Verify OpenShift Build";
+	protected final static String BUILD_CONFIG_LABEL = "openshift.io/build-config.name";
+	protected final static String LEGACY_BUILD_CONFIG_LABEL = "buildconfig";
+	protected final static String BUILD_NUMBER_ANNOTATION = "openshift.io/build.number";
 	
     protected final String bldCfg;
     protected final String checkForTriggeredDeployments;
@@ -61,28 +68,89 @@ public class OpenShiftBuildVerifier extends OpenShiftBaseStep {
 		else return getCheckForTriggeredDeployments();
 	}
 
-	protected List<String> getBuildIDs(IClient client, Map<String,String> overrides) {
-		List<IBuild> blds = client.list(ResourceKind.BUILD, getNamespace(overrides));
-		List<String> ids = new ArrayList<String>();
-		for (IBuild bld : blds) {
-			if (bld.getName().startsWith(getBldCfg(overrides))) {
-				ids.add(bld.getName());
-			}
+	// the build config's builds, filtered by label on the api server rather than by listing every build in the namespace
+	protected List<IBuild> getBuilds(IClient client, Map<String,String> overrides) {
+		Map<String,String> labels = new HashMap<String,String>();
+		labels.put(BUILD_CONFIG_LABEL, getBldCfg(overrides));
+		List<IBuild> blds = client.list(ResourceKind.BUILD, getNamespace(overrides), labels);
+		if (blds == null || blds.size() == 0) {
+			// builds created by older api servers only carry the short label
+			labels.clear();
+			labels.put(LEGACY_BUILD_CONFIG_LABEL, getBldCfg(overrides));
+			blds = client.list(ResourceKind.BUILD, getNamespace(overrides), labels);
+		}
+		return blds != null ? blds : new ArrayList<IBuild>();
+	}
+	
+	// the build number from the build's annotation, else from its <bldCfg>-<number> name; -1 if it has neither
+	protected int getBuildNumber(IBuild bld, Map<String,String> overrides) {
+		String number = bld.getAnnotation(BUILD_NUMBER_ANNOTATION);
+		if (number == null || number.length() == 0) {
+			String prefix = getBldCfg(overrides) + "-";
+			if (!bld.getName().startsWith(prefix))
+				return -1;
+			number = bld.getName().substring(prefix.length());
+		}
+		try {
+			return Integer.parseInt(number);
+		} catch (NumberFormatException e) {
+			return -1;
 		}
-		return ids;
 	}
 	
-	protected String getLatestBuildID(List<String> ids) {
+	protected String getLatestBuildID(List<IBuild> blds, Map<String,String> overrides) {
 		String bldId = null;
-		if (ids.size() > 0) {
-			Collections.sort(ids);
-			bldId = ids.get(ids.size() - 1);
+		int latest = -1;
+		for (IBuild bld : blds) {
+			int number = getBuildNumber(bld, overrides);
+			if (bldId == null || number > latest) {
+				bldId = bld.getName();
+				latest = number;
+			}
 		}
 		return bldId;
 	}
 	
+	// the build config's status.lastVersion is the number of its latest build, so that build can be fetched by name.  The build
+	// config is read from the api server, and its lastVersion is bumped before the build is created, so there is no newer build
+	// to look for;  if the build is not there (i.e. it was pruned), the caller falls back on listing the builds
+	protected String getLatestBuildIDFromBuildConfig(IClient client, boolean chatty, TaskListener listener, Map<String,String> overrides) {
+		try {
+			// the build config's lastVersion moves with every build, so read it from the api server rather than the ResourceCache
+			IBuildConfig bc = ResourceCache.bypass(() -> client.get(ResourceKind.BUILD_CONFIG, getBldCfg(overrides), getNamespace(overrides)));
+			if (!(bc instanceof KubernetesResource))
+				return null;
+			ModelNode lastVersion = ((KubernetesResource) bc).getNode().get("status", "lastVersion");
+			if (!lastVersion.isDefined() || lastVersion.asInt() < 1)
+				return null;
+			int number = lastVersion.asInt();
+			IBuild bld = getBuild(client, getBldCfg(overrides) + "-" + number, overrides);
+			if (bld == null || getBuildNumber(bld, overrides) != number)
+				return null;
+			return bld.getName();
+		} catch (Throwable t) {
+			if (chatty)
+				t.printStackTrace(listener.getLogger());
+			return null;
+		}
+	}
+	
+	private IBuild getBuild(IClient client, String bldId, Map<String,String> overrides) {
+		try {
+			return client.get(ResourceKind.BUILD, bldId, getNamespace(overrides));
+		} catch (Throwable t) {
+			// not found
+			return null;
+		}
+	}
+	
 	public boolean coreLogic(Launcher launcher, TaskListener listener,
 			EnvVars env, Map<String,String> overrides) {
+		return Boolean.TRUE.equals(getWaits().await(coreLogicAsync(launcher, listener, env, overrides)));
+	}
+	
+	public CompletableFuture<Boolean> coreLogicAsync(Launcher launcher, TaskListener listener,
+			EnvVars env, Map<String,String> overrides) {
 		boolean chatty = Boolean.parseBoolean(getVerbose(overrides));
 		boolean checkDeps = Boolean.parseBoolean(checkForTriggeredDeployments);
     	listener.getLogger().println(String.format(MessageConstants.START_BUILD_RELATED_PLUGINS, DISPLAY_NAME, getBldCfg(overrides), getNamespace(overrides)));
@@ -93,19 +161,26 @@ public class OpenShiftBuildVerifier extends OpenShiftBaseStep {
     	if (client != null) {
 			if (chatty)
 				listener.getLogger().println("\nOpenShiftBuildVerifier wait " + getDescriptor().getWait());
-			List<String> ids = getBuildIDs(client, overrides);
-			
-			String bldId = getLatestBuildID(ids);
+			String bldId = getLatestBuildIDFromBuildConfig(client, chatty, listener, overrides);
+			if (bldId == null) {
+				if (chatty)
+					listener.getLogger().println("\nOpenShiftBuildVerifier latest build not found from the build config, listing its builds");
+				bldId = getLatestBuildID(getBuilds(client, overrides), overrides);
+			}
+			if (bldId == null) {
+		    	listener.getLogger().println(MessageConstants.EXIT_BUILD_NO_BUILD_OBJ);
+				return CompletableFuture.completedFuture(false);
+			}
 			
 			if (!checkDeps)
 				listener.getLogger().println(String.format(MessageConstants.WAITING_ON_BUILD_STARTED_ELSEWHERE, bldId));
 			else
 				listener.getLogger().println(String.format(MessageConstants.WAITING_ON_BUILD_STARTED_ELSEWHERE_PLUS_DEPLOY, bldId));
 				
-			return this.verifyBuild(System.currentTimeMillis(), getDescriptor().getWait(), client, getBldCfg(overrides), bldId, getNamespace(overrides), chatty, listener, DISPLAY_NAME, checkDeps);
+			return this.verifyBuildAsync(System.currentTimeMillis(), getDescriptor().getWait(), client, getBldCfg(overrides), bldId, getNamespace(overrides), chatty, listener, DISPLAY_NAME, checkDeps);
     				        		
     	} else {
-    		return false;
+    		return CompletableFuture.completedFuture(false);
     	}
     	
 	}
@@ -3,6 +3,7 @@ import hudson.EnvVars;
 import hudson.Launcher;
 import hudson.Extension;
 import hudson.util.FormValidation;
+import hudson.model.Computer;
 import hudson.model.TaskListener;
 import hudson.model.AbstractProject;
 import hudson.tasks.Builder;
@@ -13,8 +14,6 @@ import org.kohsuke.stapler.DataBoundConstructor;
 import org.kohsuke.stapler.StaplerRequest;
 import org.kohsuke.stapler.QueryParameter;
 
-import com.openshift.internal.restclient.http.HttpClientException;
-import com.openshift.internal.restclient.http.UrlConnectionHttpClient;
 import com.openshift.restclient.IClient;
 import com.openshift.restclient.ResourceKind;
 import com.openshift.restclient.capability.CapabilityVisitor;
@@ -26,16 +25,17 @@ import com.openshift.restclient.model.IPod;
 import javax.servlet.ServletException;
 
 import java.io.IOException;
-import java.net.MalformedURLException;
-import java.net.SocketTimeoutException;
-import java.net.URL;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
 
 
 public class OpenShiftBuilder extends OpenShiftBaseStep {
 	
 	protected final static String DISPLAY_NAME = "Trigger OpenShift Build";
+	protected final static String BUILD_POD_NAME_ANNOTATION = "openshift.io/build.pod-name";
+	protected final static String BUILD_NAME_LABEL = "openshift.io/build.name";
 	
     protected final String bldCfg;
     protected final String commitID;
@@ -107,34 +107,66 @@ public class OpenShiftBuilder extends OpenShiftBaseStep {
 
 	protected IBuild startBuild(IBuildConfig bc, IBuild prevBld, Map<String,String> overrides) {
 		IBuild bld = null;
+		// the trigger goes through the resource's own client, so take our place in line for the api server here
+		ApiRateLimiter.acquire(getApiURL(overrides), true);
 		if (bc != null) {
 			if (getCommitID(overrides) != null && getCommitID(overrides).length() > 0) {
 				final String cid = getCommitID(overrides);
     			bld = bc.accept(new CapabilityVisitor<IBuildTriggerable, IBuild>() {
 				    public IBuild visit(IBuildTriggerable triggerable) {
-				 		return triggerable.trigger(cid);
+				 		return ApiMetrics.time("trigger", ResourceKind.BUILD_CONFIG, () -> triggerable.trigger(cid));
 				 	}
 				 }, null);
 			} else {
     			bld = bc.accept(new CapabilityVisitor<IBuildTriggerable, IBuild>() {
 				    public IBuild visit(IBuildTriggerable triggerable) {
-				 		return triggerable.trigger();
+				 		return ApiMetrics.time("trigger", ResourceKind.BUILD_CONFIG, () -> triggerable.trigger());
 				 	}
 				 }, null);
 			}
 		} else if (prevBld != null) {
 			bld = prevBld.accept(new CapabilityVisitor<IBuildTriggerable, IBuild>() {
 				public IBuild visit(IBuildTriggerable triggerable) {
-					return triggerable.trigger();
+					return ApiMetrics.time("trigger", ResourceKind.BUILD, () -> triggerable.trigger());
 				}
 			}, null);
 		}
 		return bld;
 	}
 	
-	protected void waitOnBuild(IClient client, long startTime, String bldId, TaskListener listener, Map<String,String> overrides) {
-		IBuild bld = null;
-		String bldState = null;
+	// look the build pod up directly instead of listing every pod in the namespace: by the name the build
+	// records in its pod-name annotation (or the default <build>-build naming), then by the build name label
+	protected IPod findBuildPod(IClient client, String bldId, boolean chatty, TaskListener listener, Map<String,String> overrides) {
+		String podName = null;
+		try {
+			IBuild bld = client.get(ResourceKind.BUILD, bldId, getNamespace(overrides));
+			if (bld != null)
+				podName = bld.getAnnotation(BUILD_POD_NAME_ANNOTATION);
+		} catch (Throwable t) {
+			if (chatty)
+				t.printStackTrace(listener.getLogger());
+		}
+		if (podName == null || podName.length() == 0)
+			podName = bldId + "-build";
+		
+		try {
+			IPod pod = client.get(ResourceKind.POD, podName, getNamespace(overrides));
+			if (pod != null)
+				return pod;
+		} catch (Throwable t) {
+			if (chatty)
+				listener.getLogger().println("\nOpenShiftBuilder no pod named " + podName + " yet");
+		}
+		
+		Map<String,String> labels = new HashMap<String,String>();
+		labels.put(BUILD_NAME_LABEL, bldId);
+		List<IPod> pods = client.list(ResourceKind.POD, getNamespace(overrides), labels);
+		if (pods != null && pods.size() > 0)
+			return pods.get(0);
+		return null;
+	}
+	
+	protected CompletableFuture<String> waitOnBuild(IClient client, long startTime, String bldId, TaskListener listener, Map<String,String> overrides) {
 		//TODO leaving this code, commented out, in for now ... the use of the oc binary for log following allows for
 		// interactive log dumping, while simply make the REST call provides dumping of the build logs once the build is
 		// complete        						
@@ -146,20 +178,7 @@ public class OpenShiftBuilder extends OpenShiftBaseStep {
 			
 		// get internal OS Java REST Client error if access pod logs while bld is in Pending state
 		// instead of Running, Complete, or Failed
-		while (System.currentTimeMillis() < (startTime + getDescriptor().getWait())) {
-			bld = client.get(ResourceKind.BUILD, bldId, getNamespace(overrides));
-			bldState = bld.getStatus();
-			if (Boolean.parseBoolean(getVerbose(overrides)))
-				listener.getLogger().println("\nOpenShiftBuilder bld state:  " + bldState);
-			if ("Pending".equals(bldState) || "New".equals(bldState)) {
-				try {
-					Thread.sleep(1000);
-				} catch (InterruptedException e) {
-				}
-			} else {
-				break;
-			}
-		}
+		return waitOnBuildPhaseAsync(client, bldId, getNamespace(overrides), startTime + getDescriptor().getWait(), Boolean.parseBoolean(getVerbose(overrides)), listener, "New", "Pending");
 //			} else {
 //			listener.getLogger().println("\n\nOpenShiftBuilder logger for pod " + pod.getName() + " not available");
 //			bldState = pod.getStatus();
@@ -167,51 +186,19 @@ public class OpenShiftBuilder extends OpenShiftBaseStep {
 	}
 	
 	protected void dumpLogs(String bldId, TaskListener listener, Map<String,String> overrides) {
-		// create stream and copy bytes
-    	URL url = null;
-    	try {
-			url = new URL(getApiURL(overrides) + "/oapi/v1/namespaces/"+getNamespace(overrides)+"/builds/" + bldId + "/log?follow=true");
-		} catch (MalformedURLException e1) {
-			e1.printStackTrace(listener.getLogger());
-		}
-		UrlConnectionHttpClient urlClient = new UrlConnectionHttpClient(
-				null, "application/json", null, auth, null, null);
-		urlClient.setAuthorizationStrategy(bearerToken);
-		String response = null;
-		try {
-			response = urlClient.get(url, (int) getDescriptor().getWait());
-		} catch (SocketTimeoutException e1) {
-			e1.printStackTrace(listener.getLogger());
-		} catch (HttpClientException e1) {
-			e1.printStackTrace(listener.getLogger());
-		}
-		listener.getLogger().println(response);
-		
-		//TODO leaving this code, commented out, in for now ... the use of the oc binary for log following allows for
-		// interactive log dumping, while simply make the REST call provides dumping of the build logs once the build is
-		// complete        						
-//		InputStream logs = new BufferedInputStream(logger.getLogs(true));
-//		int b;
-//		try {
-//			// we still process the build stream if followLogs is false, as 
-//			// it is a good indication of build progress (vs. periodically polling);
-//			// we simply do not dump the data to the Jenkins console if set to false
-//			while ((b = logs.read()) != -1) {
-//				if (follow)
-//					listener.getLogger().write(b);
-//			}
-//		} catch (IOException e) {
-//			e.printStackTrace(listener.getLogger());
-//		} finally {
-//			try {
-//				logs.close();
-//			} catch (final IOException e) {
-//				e.printStackTrace(listener.getLogger());
-//			}
-//		}
+		// stream the followed log straight to the Jenkins console, so memory use does not grow with the size of the log and
+		// output shows up as the build produces it;  if the connection drops before the log ends, reconnect from where it dropped
+		BuildLogs logs = new BuildLogs(getApiURL(overrides), auth, bearerToken != null ? bearerToken.getToken() : null, getNamespace(overrides), bldId, "", DISPLAY_NAME);
+		logs.follow(System.currentTimeMillis() + getDescriptor().getWait(), null, null, Boolean.parseBoolean(getVerbose(overrides)), listener);
 	}
 	
 	public boolean coreLogic(Launcher launcher, TaskListener listener, EnvVars env, Map<String,String> overrides) {
+		return Boolean.TRUE.equals(getWaits().await(coreLogicAsync(launcher, listener, env, overrides)));
+	}
+	
+	// everything up to the trigger is done on the calling thread;  the waits for the build pod and the build phases are
+	// then scheduled on AsyncWaits, with only the log stream, if followed, holding a thread of its own
+	public CompletableFuture<Boolean> coreLogicAsync(Launcher launcher, TaskListener listener, EnvVars env, Map<String,String> overrides) {
 		boolean chatty = Boolean.parseBoolean(getVerbose(overrides));
 		boolean checkDeps = Boolean.parseBoolean(getCheckForTriggeredDeployments(overrides));
     	listener.getLogger().println(String.format(MessageConstants.START_BUILD_RELATED_PLUGINS, DISPLAY_NAME, getBldCfg(overrides), getNamespace(overrides)));
@@ -224,7 +211,6 @@ public class OpenShiftBuilder extends OpenShiftBaseStep {
     	IClient client = this.getClient(listener, DISPLAY_NAME, overrides);
     	
     	if (client != null) {
-			long startTime = System.currentTimeMillis();
 			boolean skipBC = getBuildName(overrides) != null && getBuildName(overrides).length() > 0;
         	IBuildConfig bc = null;
         	IBuild prevBld = null;
@@ -242,74 +228,58 @@ public class OpenShiftBuilder extends OpenShiftBaseStep {
     			
         		// Trigger / start build
     			IBuild bld = this.startBuild(bc, prevBld, overrides);
+    			markPhase("build triggered");
+    			// the trigger went through the resource rather than the client, so the cached build config did not see it
+    			ResourceCache.invalidate(client, ResourceKind.BUILD_CONFIG, getNamespace(overrides), bc != null ? bc.getName() : null);
     			
     			
     			if(bld == null) {
     		    	listener.getLogger().println(MessageConstants.EXIT_BUILD_NO_BUILD_OBJ);
-    				return false;
+    				return CompletableFuture.completedFuture(false);
     			} else {
     				String bldId = bld.getName();
+    				if (getTiming() != null)
+    					getTiming().setSubject(bldId);
     				if (!checkDeps)
     					listener.getLogger().println(String.format(MessageConstants.WAITING_ON_BUILD, bldId));
     				else
     					listener.getLogger().println(String.format(MessageConstants.WAITING_ON_BUILD_PLUS_DEPLOY, bldId));
     				
     				
-    				boolean foundPod = false;
-    				startTime = System.currentTimeMillis();
+    				long startTime = System.currentTimeMillis();
 					if (chatty)
 						listener.getLogger().println("\nOpenShiftBuilder  wait time " + getDescriptor().getWait());
     				
     				// Now find build Pod, attempt to dump the logs to the Jenkins console
-    				while (!foundPod && startTime > (System.currentTimeMillis() - getDescriptor().getWait())) {
+    				return getWaits().poll(() -> findBuildPod(client, bldId, chatty, listener, overrides), new PollingPolicy(1000, 1000), startTime + getDescriptor().getWait())
+    						.thenComposeAsync(pod -> {
+    					if (pod == null) {
+    						listener.getLogger().println(String.format(MessageConstants.EXIT_BUILD_NO_POD_OBJ, bldId));
+    						return CompletableFuture.completedFuture(false);
+    					}
+    					markPhase("build pod found");
+    					if (chatty)
+    						listener.getLogger().println("\nOpenShiftBuilder found build pod " + pod);
     					
-    					// fetch current list of pods ... this has proven to not be immediate in finding latest
-    					// entries when compared with say running oc from the cmd line
-        				List<IPod> pods = client.list(ResourceKind.POD, getNamespace(overrides));
-        				for (IPod pod : pods) {
-        					if (chatty)
-        						listener.getLogger().println("\nOpenShiftBuilder found pod " + pod.getName());
-     
-        					// build pod starts with build id
-        					if(pod.getName().startsWith(bldId)) {
-        						foundPod = true;
-        						if (chatty)
-        							listener.getLogger().println("\nOpenShiftBuilder found build pod " + pod);
-        						
-        							waitOnBuild(client, startTime, bldId, listener, overrides);
-            						
-            						if (follow)
-            							dumpLogs(bldId, listener, overrides);
-    								
-        					}
-        					
-        					if (foundPod)
-        						break;
-        				}
-        				
-        				try {
-							Thread.sleep(1000);
-						} catch (InterruptedException e) {
-						}
-        				
-    				}
-    				
-    				if (!foundPod) {
-        		    	listener.getLogger().println(String.format(MessageConstants.EXIT_BUILD_NO_POD_OBJ, bldId));
-    					return false;
-    				}
-    				
-    				return this.verifyBuild(startTime, getDescriptor().getWait(), client, getBldCfg(overrides), bldId, getNamespace(overrides), chatty, listener, DISPLAY_NAME, checkDeps);
-    				    				
+    					return waitOnBuild(client, startTime, bldId, listener, overrides).thenComposeAsync(state -> {
+    						markPhase(state != null ? state : "build gone");
+    						
+    						// the followed log is a blocking stream, so it gets a thread of its own rather than one of the wait pool's
+    						CompletableFuture<Void> logs = follow ? CompletableFuture.runAsync(() -> dumpLogs(bldId, listener, overrides), Computer.threadPoolForRemoting)
+    								: CompletableFuture.completedFuture(null);
+    						return logs.thenComposeAsync(v -> this.verifyBuildAsync(startTime, getDescriptor().getWait(), client, getBldCfg(overrides), bldId, getNamespace(overrides), chatty, listener, DISPLAY_NAME, checkDeps),
+    								AsyncWaits.executor());
+    					}, AsyncWaits.executor());
+    				}, AsyncWaits.executor());
     			}
         		
         		
         	} else {
 		    	listener.getLogger().println(String.format(MessageConstants.EXIT_BUILD_NO_BUILD_CONFIG_OBJ, getBldCfg(overrides)));
-        		return false;
+        		return CompletableFuture.completedFuture(false);
         	}
     	} else {
-    		return false;
+    		return CompletableFuture.completedFuture(false);
     	}
 
 	}
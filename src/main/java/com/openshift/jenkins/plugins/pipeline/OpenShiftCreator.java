@@ -25,9 +25,18 @@ import java.io.IOException;
 import java.net.MalformedURLException;
 import java.net.SocketTimeoutException;
 import java.net.URL;
+import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Map.Entry;
+import java.util.TreeMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
 
 
 public class OpenShiftCreator extends OpenShiftBaseStep {
@@ -36,6 +45,8 @@ public class OpenShiftCreator extends OpenShiftBaseStep {
     protected final String jsonyaml;
     
     private static final Map<String, String[]> apiMap;
+    private static final Map<String, Integer> tierMap;
+    private static final int LAST_TIER = 4;
     static
     {
     	//POST https://localhost:8443/apis/extensions/v1beta1/namespaces/test/jobs
@@ -66,7 +77,7 @@ public class OpenShiftCreator extends OpenShiftBaseStep {
 
         // Kubernetes API endpoints
     	apiMap.put("Binding", new String[]{api, "bindings"});
-    	apiMap.put("Endpoint", new String[]{api, "endpoints"});
+    	apiMap.put("Endpoints", new String[]{api, "endpoints"});
     	apiMap.put("Event", new String[]{api, "events"});
     	apiMap.put("LimitRange", new String[]{api, "limitranges"});
     	apiMap.put("PersistentVolumeClaim", new String[]{api, "persistentvolumeclaims"});
@@ -78,6 +89,16 @@ public class OpenShiftCreator extends OpenShiftBaseStep {
     	apiMap.put("ServiceAccount", new String[]{api, "serviceaccounts"});
     	apiMap.put("Service", new String[]{api, "services"});
     	apiMap.put("Job", new String[]{apis, "jobs"});
+    	
+    	tierMap = new HashMap<String, Integer>();
+    	for (String kind : new String[]{"ServiceAccount", "Secret", "ConfigMap", "PersistentVolumeClaim", "LimitRange", "ResourceQuota", "Role", "Policy"})
+    		tierMap.put(kind, 0);
+    	for (String kind : new String[]{"RoleBinding", "PolicyBinding", "ImageStream", "Template", "Service", "Endpoints"})
+    		tierMap.put(kind, 1);
+    	for (String kind : new String[]{"BuildConfig", "DeploymentConfig", "ReplicationController", "PodTemplate", "Pod", "Job", "ImageStreamMapping"})
+    		tierMap.put(kind, 2);
+    	for (String kind : new String[]{"Route", "Build", "DeploymentConfigRollback"})
+    		tierMap.put(kind, 3);
     }
     
     // Fields in config.jelly must match the parameter names in the "DataBoundConstructor"
@@ -97,9 +118,10 @@ public class OpenShiftCreator extends OpenShiftBaseStep {
     	return getJsonyaml();
     }
     
-    protected boolean makeRESTCall(boolean chatty, TaskListener listener, String path, ModelNode resource, Map<String,String> overrides) {
+    protected boolean makeRESTCall(boolean chatty, TaskListener listener, String path, ModelNode resource, IClient client, Map<String,String> overrides) {
 		String response = null;
 		URL url = null;
+		long start = System.currentTimeMillis();
 		if (apiMap.get(path) == null) {
 			listener.getLogger().println(String.format(MessageConstants.TYPE_NOT_SUPPORTED, path));
 			return false;
@@ -113,19 +135,20 @@ public class OpenShiftCreator extends OpenShiftBaseStep {
 			return false;
 		}
     	
-    	IClient client = this.getClient(listener, DISPLAY_NAME, overrides);
-    	if (client == null) {
-    		return false;
-    	}
 		try {
 	    	KubernetesResource kr = new KubernetesResource(resource, client, null);
+	    	ApiRateLimiter.acquire(getApiURL(overrides), true);
+	    	start = System.currentTimeMillis();
 			response = createHttpClient().post(url, 10 * 1000, kr);
+			ApiMetrics.record("create", resource.get("kind").asString(), System.currentTimeMillis() - start, null);
 			if (chatty) listener.getLogger().println("\nOpenShiftCreator REST POST response " + response);
 		} catch (SocketTimeoutException e1) {
+			ApiMetrics.record("create", resource.get("kind").asString(), System.currentTimeMillis() - start, e1.getClass().getSimpleName());
 			if (chatty) e1.printStackTrace(listener.getLogger());
 	    	listener.getLogger().println(String.format(MessageConstants.SOCKET_TIMEOUT, DISPLAY_NAME, getApiURL(overrides)));
 			return false;
 		} catch (HttpClientException e1) {
+			ApiMetrics.record("create", resource.get("kind").asString(), System.currentTimeMillis() - start, e1.getClass().getSimpleName());
 			if (chatty) e1.printStackTrace(listener.getLogger());
 	    	listener.getLogger().println(String.format(MessageConstants.HTTP_ERR, e1.getMessage(), DISPLAY_NAME, getApiURL(overrides)));
 			return false;
@@ -141,6 +164,78 @@ public class OpenShiftCreator extends OpenShiftBaseStep {
 		return urlClient;
     }
     
+    // kinds in a lower tier are created before kinds in a higher tier, so that things like service accounts, secrets and
+    // image streams exist before the build / deployment configs referencing them, and services exist before their routes;
+    // kinds not listed here go in the last tier
+    protected static int getTier(String kind) {
+    	Integer tier = tierMap.get(kind);
+    	return tier != null ? tier : LAST_TIER;
+    }
+    
+    // returns {created, failed}
+    protected int[] createInTiers(boolean chatty, TaskListener listener, List<ModelNode> items, IClient client, Map<String,String> overrides) {
+    	TreeMap<Integer, List<ModelNode>> tiers = new TreeMap<Integer, List<ModelNode>>();
+    	for (ModelNode node : items) {
+    		int tier = getTier(node.get("kind").asString());
+    		List<ModelNode> nodes = tiers.get(tier);
+    		if (nodes == null) {
+    			nodes = new ArrayList<ModelNode>();
+    			tiers.put(tier, nodes);
+    		}
+    		nodes.add(node);
+    	}
+    	
+    	final AtomicInteger created = new AtomicInteger();
+    	final AtomicInteger failed = new AtomicInteger();
+    	final AtomicLong totalLatency = new AtomicLong();
+    	final AtomicLong maxLatency = new AtomicLong();
+    	long start = System.currentTimeMillis();
+    	ExecutorService pool = Executors.newFixedThreadPool(getDescriptor().getParallelism());
+    	try {
+    		for (Entry<Integer, List<ModelNode>> tier : tiers.entrySet()) {
+    			if (chatty)
+    				listener.getLogger().println("\nOpenShiftCreator creating tier " + tier.getKey() + " with " + tier.getValue().size() + " item(s)");
+    			List<Future<?>> futures = new ArrayList<Future<?>>();
+    			for (final ModelNode node : tier.getValue()) {
+    				futures.add(pool.submit(new Runnable() {
+    					public void run() {
+    						String path = node.get("kind").asString();
+    						String name = node.has("metadata") ? node.get("metadata").get("name").asString() : "";
+    						long itemStart = System.currentTimeMillis();
+    						boolean success = makeRESTCall(chatty, listener, path, node, client, overrides);
+    						long latency = System.currentTimeMillis() - itemStart;
+    						totalLatency.addAndGet(latency);
+    						maxLatency.accumulateAndGet(latency, Math::max);
+    						if (success) {
+    							listener.getLogger().println(String.format(MessageConstants.CREATED_OBJ_TIMED, path, name, latency));
+    							created.incrementAndGet();
+    						} else {
+    							listener.getLogger().println(String.format(MessageConstants.FAILED_OBJ_TIMED, path, name, latency));
+    							failed.incrementAndGet();
+    						}
+    					}
+    				}));
+    			}
+    			// the next tier may depend on this one, so let it finish first
+    			for (Future<?> future : futures) {
+    				try {
+    					future.get();
+    				} catch (InterruptedException e) {
+    					Thread.currentThread().interrupt();
+    					failed.incrementAndGet();
+    				} catch (ExecutionException e) {
+    					e.getCause().printStackTrace(listener.getLogger());
+    					failed.incrementAndGet();
+    				}
+    			}
+    		}
+    	} finally {
+    		pool.shutdownNow();
+    	}
+    	listener.getLogger().println(String.format(MessageConstants.CREATE_SUMMARY, items.size(), tiers.size(), System.currentTimeMillis() - start, totalLatency.get(), maxLatency.get()));
+    	return new int[] {created.get(), failed.get()};
+    }
+    
 	public boolean coreLogic(Launcher launcher, TaskListener listener,
 			EnvVars env, Map<String,String> overrides) {
 		boolean chatty = Boolean.parseBoolean(getVerbose(overrides));
@@ -150,6 +245,12 @@ public class OpenShiftCreator extends OpenShiftBaseStep {
     	// so we set up our own trust manager like we used to do in order to verify the server cert
     	Auth.createLocalTrustStore(getAuth(), getApiURL(overrides));
     	
+    	// one client for all the items being created
+    	IClient client = this.getClient(listener, DISPLAY_NAME, overrides);
+    	if (client == null) {
+    		return false;
+    	}
+    	
     	// construct json/yaml node
     	ModelNode resources = ModelNode.fromJSONString(getJsonyaml(overrides));
     	    	
@@ -157,12 +258,16 @@ public class OpenShiftCreator extends OpenShiftBaseStep {
     	String kind = resources.get("kind").asString();
     	int created = 0;
     	int failed = 0;
-    	if (kind.equalsIgnoreCase("List")) {
+    	if (kind.equalsIgnoreCase("List") && getDescriptor().getParallelism() > 1) {
+    		int[] counts = this.createInTiers(chatty, listener, resources.get("items").asList(), client, overrides);
+    		created = counts[0];
+    		failed = counts[1];
+    	} else if (kind.equalsIgnoreCase("List")) {
     		List<ModelNode> list = resources.get("items").asList();
     		for (ModelNode node : list) {
     			String path = node.get("kind").asString();
 				
-    			boolean success = this.makeRESTCall(chatty, listener, path, node, overrides);
+    			boolean success = this.makeRESTCall(chatty, listener, path, node, client, overrides);
     			if (!success) {
     				listener.getLogger().println(String.format(MessageConstants.FAILED_OBJ, path));
     				failed++;
@@ -174,7 +279,7 @@ public class OpenShiftCreator extends OpenShiftBaseStep {
     	} else {
     		String path = kind;
 			
-    		boolean success = this.makeRESTCall(chatty, listener, path, resources, overrides);
+    		boolean success = this.makeRESTCall(chatty, listener, path, resources, client, overrides);
     		if (success) {
 				listener.getLogger().println(String.format(MessageConstants.CREATED_OBJ, path));
     			created = 1;
@@ -221,6 +326,8 @@ public class OpenShiftCreator extends OpenShiftBaseStep {
          * In order to load the persisted global configuration, you have to 
          * call load() in the constructor.
          */
+    	private int parallelism = 1;
+    	
         public DescriptorImpl() {
             load();
         }
@@ -263,11 +370,16 @@ public class OpenShiftCreator extends OpenShiftBaseStep {
         public String getDisplayName() {
             return DISPLAY_NAME;
         }
+        
+        public int getParallelism() {
+        	return parallelism;
+        }
 
         @Override
         public boolean configure(StaplerRequest req, JSONObject formData) throws FormException {
             // To persist global configuration information,
             // pull info from formData, set appropriate instance field (which should have a getter), and call save().
+        	parallelism = Math.max(1, formData.optInt("parallelism", 1));
             save();
             return super.configure(req,formData);
         }
@@ -22,6 +22,7 @@ import javax.servlet.ServletException;
 
 import java.io.IOException;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
 
 public class OpenShiftDeployer extends OpenShiftBaseStep {
 
@@ -66,6 +67,12 @@ public class OpenShiftDeployer extends OpenShiftBaseStep {
 	
 	public boolean coreLogic(Launcher launcher, TaskListener listener,
 			EnvVars env, Map<String,String> overrides) {
+		return Boolean.TRUE.equals(getWaits().await(coreLogicAsync(launcher, listener, env, overrides)));
+	}
+	
+	// each poll of the deployment is scheduled on AsyncWaits, so no thread is held in between
+	public CompletableFuture<Boolean> coreLogicAsync(Launcher launcher, TaskListener listener,
+			EnvVars env, Map<String,String> overrides) {
 		boolean chatty = Boolean.parseBoolean(getVerbose(overrides));
     	listener.getLogger().println(String.format(MessageConstants.START_DEPLOY_RELATED_PLUGINS, DISPLAY_NAME, getDepCfg(overrides), getNamespace(overrides)));
     	
@@ -77,33 +84,36 @@ public class OpenShiftDeployer extends OpenShiftBaseStep {
         		listener.getLogger().println("\nOpenShiftDeployer wait " + getDescriptor().getWait());
         	// do the oc deploy with version bump ... may need to retry
         	long currTime = System.currentTimeMillis();
-        	boolean deployDone = false;
-        	boolean versionBumped = false;
-			String state = null;
-	    	IDeploymentConfig dc = null;
-			IReplicationController rc = null; 
-			while (System.currentTimeMillis() < (currTime + getDescriptor().getWait())) {
-        		dc = client.get(ResourceKind.DEPLOYMENT_CONFIG, getDepCfg(overrides), getNamespace(overrides));
-        		if (dc != null) {
-        			if (!versionBumped) {
+        	final boolean[] versionBumped = new boolean[] {false};
+			final String[] state = new String[1];
+	    	final IDeploymentConfig[] dc = new IDeploymentConfig[1];
+			final IReplicationController[] rc = new IReplicationController[1];
+			long deadline = currTime + getDescriptor().getWait();
+			PollingPolicy polling = getDescriptor().createPollingPolicy();
+			// true once the deployment is complete, false if it failed
+			return getWaits().poll(() -> {
+        		// we are waiting on the dc to change, so skip the ResourceCache
+        		dc[0] = ResourceCache.bypass(() -> client.get(ResourceKind.DEPLOYMENT_CONFIG, getDepCfg(overrides), getNamespace(overrides)));
+        		if (dc[0] != null) {
+        			if (!versionBumped[0]) {
         				// allow some retry in case the dc creation request happened before this step ran
-        				versionBumped = bumpVersion(dc, client, listener, overrides);
+        				versionBumped[0] = bumpVersion(dc[0], client, listener, overrides);
         			}
         			
     				try {
-    					rc = this.getLatestReplicationController(dc, client, overrides);
+    					rc[0] = this.getLatestReplicationController(dc[0], client, overrides);
     					if (chatty)
-    						listener.getLogger().println("\nOpenShiftDeployer returned rep ctrl " + rc);
-    					if (rc != null) {
-    						state = this.getReplicationControllerState(rc);
-    						if (state.equalsIgnoreCase("Complete")) {
-            					deployDone = true;
-    						} else if (state.equalsIgnoreCase("Failed")) {
-    	        		    	listener.getLogger().println(String.format(MessageConstants.EXIT_DEPLOY_RELATED_PLUGINS_BAD, DISPLAY_NAME, rc.getName(), state));
-    							return false;
+    						listener.getLogger().println("\nOpenShiftDeployer returned rep ctrl " + rc[0]);
+    					if (rc[0] != null) {
+    						state[0] = this.getReplicationControllerState(rc[0]);
+    						if (state[0].equalsIgnoreCase("Complete")) {
+            					return Boolean.TRUE;
+    						} else if (state[0].equalsIgnoreCase("Failed")) {
+    	        		    	listener.getLogger().println(String.format(MessageConstants.EXIT_DEPLOY_RELATED_PLUGINS_BAD, DISPLAY_NAME, rc[0].getName(), state[0]));
+    							return Boolean.FALSE;
     						} else {
     							if (chatty)
-    								listener.getLogger().println("\nOpenShiftDeploy current phase " + state);
+    								listener.getLogger().println("\nOpenShiftDeploy current phase " + state[0]);
     						}
     					} else {
     						if (chatty)
@@ -113,37 +123,32 @@ public class OpenShiftDeployer extends OpenShiftBaseStep {
     					if (chatty)
     						t.printStackTrace(listener.getLogger());
     				}
-    				
-					
-					if (deployDone) {
-						break;
-					} else {
-						if (chatty)
-	        				listener.getLogger().println("\nOpenShiftDeployer wait 10 seconds, then try oc deploy again");
-						try {
-							Thread.sleep(10000);
-						} catch (InterruptedException e) {
-						}
-					}
-        				
-        			
         		}
-        	}
-        	
-        	if (!deployDone) {
-		    	if (dc != null)
-		    		listener.getLogger().println(String.format(MessageConstants.EXIT_DEPLOY_TRIGGER_TIMED_OUT, DISPLAY_NAME, rc.getName(), state));
-		    	else
-		    		listener.getLogger().println(String.format(MessageConstants.EXIT_DEPLOY_RELATED_PLUGINS_NO_CFG, DISPLAY_NAME, getDepCfg(overrides)));
-        		return false;
-        	}
-
-	    	listener.getLogger().println(String.format(MessageConstants.EXIT_DEPLOY_RELATED_PLUGINS_GOOD_REPLICAS_IGNORED, DISPLAY_NAME, rc.getName()));
-        	return true;
-        	
+        		
+				if (chatty)
+    				listener.getLogger().println("\nOpenShiftDeployer wait, then try oc deploy again");
+				return null;
+        	}, polling, deadline).thenApply(deployDone -> {
+	        	if (getTiming() != null)
+	        		getTiming().setPolls(polling.getPolls());
+	        	listener.getLogger().println(String.format(MessageConstants.POLL_COUNT, DISPLAY_NAME, polling.getPolls()));
+	        	
+	        	if (deployDone == null) {
+			    	if (dc[0] != null)
+			    		listener.getLogger().println(String.format(MessageConstants.EXIT_DEPLOY_TRIGGER_TIMED_OUT, DISPLAY_NAME, rc[0] != null ? rc[0].getName() : getDepCfg(overrides), state[0]));
+			    	else
+			    		listener.getLogger().println(String.format(MessageConstants.EXIT_DEPLOY_RELATED_PLUGINS_NO_CFG, DISPLAY_NAME, getDepCfg(overrides)));
+	        		return false;
+	        	}
+	        	if (!deployDone)
+	        		return false;
+	
+		    	listener.getLogger().println(String.format(MessageConstants.EXIT_DEPLOY_RELATED_PLUGINS_GOOD_REPLICAS_IGNORED, DISPLAY_NAME, rc[0].getName()));
+	        	return true;
+			});
         	
     	} else {
-    		return false;
+    		return CompletableFuture.completedFuture(false);
     	}
 	}
 
@@ -163,6 +168,8 @@ public class OpenShiftDeployer extends OpenShiftBaseStep {
     @Extension // This indicates to Jenkins that this is an implementation of an extension point.
     public static final class DescriptorImpl extends BuildStepDescriptor<Builder> {
     	private long wait = 60000;
+    	private long pollInitial = PollingPolicy.DEFAULT_INITIAL_INTERVAL;
+    	private long pollMax = PollingPolicy.DEFAULT_MAX_INTERVAL;
         /**
          * To persist global configuration information,
          * simply store it in a field and call save().
@@ -222,12 +229,26 @@ public class OpenShiftDeployer extends OpenShiftBaseStep {
         public long getWait() {
         	return wait;
         }
+        
+        public long getPollInitial() {
+        	return pollInitial;
+        }
+        
+        public long getPollMax() {
+        	return pollMax;
+        }
+        
+        public PollingPolicy createPollingPolicy() {
+        	return new PollingPolicy(pollInitial, pollMax);
+        }
 
         @Override
         public boolean configure(StaplerRequest req, JSONObject formData) throws FormException {
             // To persist global configuration information,
             // pull info from formData, set appropriate instance field (which should have a getter), and call save().
         	wait = formData.getLong("wait");
+        	pollInitial = formData.optLong("pollInitial", PollingPolicy.DEFAULT_INITIAL_INTERVAL);
+        	pollMax = formData.optLong("pollMax", PollingPolicy.DEFAULT_MAX_INTERVAL);
             save();
             return super.configure(req,formData);
         }
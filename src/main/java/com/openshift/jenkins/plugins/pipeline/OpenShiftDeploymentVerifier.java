@@ -22,6 +22,7 @@ import javax.servlet.ServletException;
 
 import java.io.IOException;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
 
 public class OpenShiftDeploymentVerifier extends OpenShiftBaseStep {
 
@@ -73,6 +74,12 @@ public class OpenShiftDeploymentVerifier extends OpenShiftBaseStep {
 	
 	public boolean coreLogic(Launcher launcher, TaskListener listener,
 			EnvVars env, Map<String,String> overrides) {
+		return Boolean.TRUE.equals(getWaits().await(coreLogicAsync(launcher, listener, env, overrides)));
+	}
+	
+	// each check of the deployment is scheduled on AsyncWaits, so no thread is held in between
+	public CompletableFuture<Boolean> coreLogicAsync(Launcher launcher, TaskListener listener,
+			EnvVars env, Map<String,String> overrides) {
     	boolean chatty = Boolean.parseBoolean(getVerbose(overrides));
     	boolean checkCount = Boolean.parseBoolean(getVerifyReplicaCount(overrides));
     	listener.getLogger().println(String.format(MessageConstants.START_DEPLOY_RELATED_PLUGINS, DISPLAY_NAME, getDepCfg(overrides), getNamespace(overrides)));
@@ -82,9 +89,9 @@ public class OpenShiftDeploymentVerifier extends OpenShiftBaseStep {
     	
     	if (client != null) {
         	// explicitly set replica count, save that
-        	int count = -1;
+        	final int[] count = new int[] {-1};
         	if (checkCount && getReplicaCount(overrides) != null && getReplicaCount(overrides).length() > 0)
-        		count = Integer.parseInt(getReplicaCount(overrides));
+        		count[0] = Integer.parseInt(getReplicaCount(overrides));
         		
 
         	if (!checkCount)
@@ -96,19 +103,19 @@ public class OpenShiftDeploymentVerifier extends OpenShiftBaseStep {
         	// in testing with the jenkins-ci sample, the initial deploy after
         	// a build is kinda slow ... gotta wait more than one minute
 			long currTime = System.currentTimeMillis();
-			String state = null;
-			String depId = null;
-        	boolean scaledAppropriately = false;
+			final String[] state = new String[1];
+			final String[] depId = new String[1];
 			if (chatty)
 				listener.getLogger().println("\nOpenShiftDeploymentVerifier wait " + getDescriptor().getWait());
-			while (System.currentTimeMillis() < (currTime + getDescriptor().getWait())) {
-				// refresh dc first
-				IDeploymentConfig dc = client.get(ResourceKind.DEPLOYMENT_CONFIG, getDepCfg(overrides), getNamespace(overrides));
+			// true once scaled appropriately, false if the deployment failed or its config is gone
+			return getWaits().poll(() -> {
+				// refresh dc first, from the api server rather than the ResourceCache
+				IDeploymentConfig dc = ResourceCache.bypass(() -> client.get(ResourceKind.DEPLOYMENT_CONFIG, getDepCfg(overrides), getNamespace(overrides)));
 				
 				if (dc != null) {
 					// if replicaCount not set, get it from config
-					if (checkCount && count == -1)
-						count = dc.getReplicas();
+					if (checkCount && count[0] == -1)
+						count[0] = dc.getReplicas();
 					
 					if (chatty)
 						listener.getLogger().println("\nOpenShiftDeploymentVerifier latest version:  " + dc.getLatestVersionNumber());
@@ -118,49 +125,45 @@ public class OpenShiftDeploymentVerifier extends OpenShiftBaseStep {
 					if (rc != null) {
 						if (chatty)
 							listener.getLogger().println("\nOpenShiftDeploymentVerifier current rc " + rc);
-						state = this.getReplicationControllerState(rc);
-						depId = rc.getName();
+						state[0] = this.getReplicationControllerState(rc);
+						depId[0] = rc.getName();
 						// first check state
-		        		if (state.equalsIgnoreCase("Failed")) {
-	        		    	listener.getLogger().println(String.format(MessageConstants.EXIT_DEPLOY_RELATED_PLUGINS_BAD, DISPLAY_NAME, getDepCfg(overrides), state));
-		        			return false;
+		        		if (state[0].equalsIgnoreCase("Failed")) {
+	        		    	listener.getLogger().println(String.format(MessageConstants.EXIT_DEPLOY_RELATED_PLUGINS_BAD, DISPLAY_NAME, getDepCfg(overrides), state[0]));
+		        			return Boolean.FALSE;
 		        		}
-						if (chatty) listener.getLogger().println("\nOpenShiftDeploymentVerifier rc current count " + rc.getCurrentReplicaCount() + " rc desired count " + rc.getDesiredReplicaCount() + " step verification amount " + count + " current state " + state + " and check count " + checkCount);
+						if (chatty) listener.getLogger().println("\nOpenShiftDeploymentVerifier rc current count " + rc.getCurrentReplicaCount() + " rc desired count " + rc.getDesiredReplicaCount() + " step verification amount " + count[0] + " current state " + state[0] + " and check count " + checkCount);
 						
-						scaledAppropriately = this.isReplicationControllerScaledAppropriately(rc, checkCount, count);
-						if (scaledAppropriately)
-							break;
+						if (this.isReplicationControllerScaledAppropriately(rc, checkCount, count[0]))
+							return Boolean.TRUE;
 		        		
 					}
 				} else {
 		    		listener.getLogger().println(String.format(MessageConstants.EXIT_DEPLOY_RELATED_PLUGINS_NO_CFG, DISPLAY_NAME, getDepCfg(overrides)));
-	    			return false;
+	    			return Boolean.FALSE;
 				}
-													        										
-        		try {
-					Thread.sleep(1000);
-				} catch (InterruptedException e) {
-				}
-
-			}
-        			
-        	if (scaledAppropriately) {
+				return null;
+			}, new PollingPolicy(1000, 1000), currTime + getDescriptor().getWait()).thenApply(scaledAppropriately -> {
+	        	if (scaledAppropriately == null) {
+	        		if (checkCount)
+	        			listener.getLogger().println(String.format(MessageConstants.EXIT_DEPLOY_VERIFY_BAD_REPLICAS_BAD, DISPLAY_NAME, depId[0], getReplicaCount(overrides)));
+	        		else
+	    		    	listener.getLogger().println(String.format(MessageConstants.EXIT_DEPLOY_RELATED_PLUGINS_BAD, DISPLAY_NAME, depId[0], state[0]));
+	    	    	return false;
+	        	}
+	        	if (!scaledAppropriately)
+	        		return false;
+	        	
     	    	if (!checkCount)
-    	    		listener.getLogger().println(String.format(MessageConstants.EXIT_DEPLOY_RELATED_PLUGINS_GOOD_REPLICAS_IGNORED, DISPLAY_NAME, depId));
+    	    		listener.getLogger().println(String.format(MessageConstants.EXIT_DEPLOY_RELATED_PLUGINS_GOOD_REPLICAS_IGNORED, DISPLAY_NAME, depId[0]));
     	    	else
-    	    		listener.getLogger().println(String.format(MessageConstants.EXIT_DEPLOY_VERIFY_GOOD_REPLICAS_GOOD, DISPLAY_NAME, depId, count));
+    	    		listener.getLogger().println(String.format(MessageConstants.EXIT_DEPLOY_VERIFY_GOOD_REPLICAS_GOOD, DISPLAY_NAME, depId[0], count[0]));
         		return true;
-        	} else {
-        		if (checkCount)
-        			listener.getLogger().println(String.format(MessageConstants.EXIT_DEPLOY_VERIFY_BAD_REPLICAS_BAD, DISPLAY_NAME, depId, getReplicaCount(overrides)));
-        		else
-    		    	listener.getLogger().println(String.format(MessageConstants.EXIT_DEPLOY_RELATED_PLUGINS_BAD, DISPLAY_NAME, depId, state));
-    	    	return false;
-        	}        	
+			});
         		
         		
     	} else {
-    		return false;
+    		return CompletableFuture.completedFuture(false);
     	}
 
 	}
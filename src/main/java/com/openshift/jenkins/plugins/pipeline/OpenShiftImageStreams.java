@@ -87,20 +87,29 @@ public class OpenShiftImageStreams extends SCM implements IOpenShiftPlugin {
 	protected String getCommitId(TaskListener listener, EnvVars env, HashMap<String,String> overrides) {
 		boolean chatty = Boolean.parseBoolean(verbose);
 		
-    	// get oc client (sometime REST, sometimes Exec of oc command
-    	setAuth(Auth.createInstance(null, getApiURL(overrides), env));
-    	setToken(new TokenAuthorizationStrategy(Auth.deriveBearerToken(null, authToken, listener, chatty)));		
-    	// get oc client 
-    	IClient client = this.getClient(listener, DISPLAY_NAME, overrides);
-    	
-    	
-		IImageStream isImpl = client.get(ResourceKind.IMAGE_STREAM, imageStreamName, namespace);
-		// we will treat the OpenShiftImageStream "imageID" as the Jenkins "commitId"
-		String commitId = isImpl.getImageId(tag);
-		
+		String token = Auth.deriveBearerToken(null, authToken, listener, chatty);
+		String commitId = null;
+		try {
+			// jobs polling the same image stream tag share a single fetch per interval
+			commitId = ImageStreamPollCoordinator.getImageId(getApiURL(overrides), namespace, imageStreamName, tag, token, ((DescriptorImpl)getDescriptor()).getPollInterval(), () -> {
+		    	// get oc client (sometime REST, sometimes Exec of oc command
+		    	setAuth(Auth.createInstance(null, getApiURL(overrides), env));
+		    	setToken(new TokenAuthorizationStrategy(token));
+		    	// get oc client 
+		    	IClient client = this.getClient(listener, DISPLAY_NAME, overrides);
+		    	if (client == null)
+		    		return null;
+		    	
+				IImageStream isImpl = client.get(ResourceKind.IMAGE_STREAM, imageStreamName, namespace);
+				// we will treat the OpenShiftImageStream "imageID" as the Jenkins "commitId"
+				return isImpl.getImageId(tag);
+			});
+		} catch (Exception e) {
+			e.printStackTrace(listener.getLogger());
+		}
 
 		if (chatty)
-			listener.getLogger().println("\n\nOpenShiftImageStreams image ID used for Jenkins 'commitId' is " + commitId);
+			listener.getLogger().println("\n\nOpenShiftImageStreams image ID used for Jenkins 'commitId' is " + commitId + ", " + ImageStreamPollCoordinator.getStats());
 		return commitId;
     	
 	}
@@ -203,10 +212,21 @@ public class OpenShiftImageStreams extends SCM implements IOpenShiftPlugin {
 	@Extension
     public static class DescriptorImpl extends SCMDescriptor {
 
+    	private long pollInterval = 30000;
+    	private boolean watch = false;
+    	
         public DescriptorImpl() {
             super(OpenShiftImageStreams.class, null);
             load();
         }
+        
+        public long getPollInterval() {
+        	return pollInterval;
+        }
+        
+        public boolean isWatch() {
+        	return watch;
+        }
 
         public FormValidation doCheckApiURL(@QueryParameter String value)
                 throws IOException, ServletException {
@@ -243,6 +263,8 @@ public class OpenShiftImageStreams extends SCM implements IOpenShiftPlugin {
 		@Override
 		public boolean configure(StaplerRequest req, JSONObject json)
 				throws FormException {
+			pollInterval = json.optLong("pollInterval", 30000);
+			watch = json.optBoolean("watch", false);
 			save();
 			return super.configure(req, json);
 		}
@@ -0,0 +1,601 @@
+package com.openshift.jenkins.plugins.pipeline;
+import hudson.EnvVars;
+import hudson.Launcher;
+import hudson.Extension;
+import hudson.util.FormValidation;
+import hudson.model.Computer;
+import hudson.model.TaskListener;
+import hudson.model.AbstractProject;
+import hudson.tasks.Builder;
+import hudson.tasks.BuildStepDescriptor;
+import net.sf.json.JSONObject;
+
+import org.jboss.dmr.ModelNode;
+import org.kohsuke.stapler.DataBoundConstructor;
+import org.kohsuke.stapler.StaplerRequest;
+import org.kohsuke.stapler.QueryParameter;
+
+import com.openshift.restclient.IClient;
+import com.openshift.restclient.NotFoundException;
+import com.openshift.restclient.ResourceKind;
+import com.openshift.restclient.capability.CapabilityVisitor;
+import com.openshift.restclient.capability.resources.IBuildCancelable;
+import com.openshift.restclient.capability.resources.IBuildTriggerable;
+import com.openshift.restclient.model.IBuild;
+import com.openshift.restclient.model.IBuildConfig;
+
+import javax.servlet.ServletException;
+
+import java.io.IOException;
+import java.net.HttpURLConnection;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.BiConsumer;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+
+public class OpenShiftMultiBuilder extends OpenShiftBaseStep {
+
+	protected final static String DISPLAY_NAME = "Trigger OpenShift Builds";
+	protected final static String[] WAIT_PHASES = {"New", "Pending", "Running"};
+	// upper bound on the number of build logs we follow at the same time, per step;  the logs of any more builds are followed, from
+	// their start, as the earlier ones end
+	protected final static int MAX_CONCURRENT_LOGS = 8;
+	// a key=value or key==value requirement, the only kind the client can list by
+	protected final static Pattern EQUALITY_REQUIREMENT = Pattern.compile("\\s*([^\\s=!(),]+)\\s*==?\\s*([^\\s=!(),]*)\\s*");
+
+    protected final String bldCfgs;
+    protected final String labelSelector;
+    protected final String showBuildLogs;
+    protected final String cancelOnFailure;
+
+
+    // Fields in config.jelly must match the parameter names in the "DataBoundConstructor"
+    @DataBoundConstructor
+    public OpenShiftMultiBuilder(String apiURL, String bldCfgs, String labelSelector, String namespace, String authToken, String verbose, String showBuildLogs, String cancelOnFailure) {
+    	super(apiURL, namespace, authToken, verbose);
+        this.bldCfgs = bldCfgs;
+        this.labelSelector = labelSelector;
+        this.showBuildLogs = showBuildLogs;
+        this.cancelOnFailure = cancelOnFailure;
+    }
+
+	public String getBldCfgs() {
+		return bldCfgs;
+	}
+
+	public String getBldCfgs(Map<String,String> overrides) {
+		if (overrides != null && overrides.containsKey("bldCfgs"))
+			return overrides.get("bldCfgs");
+		else return getBldCfgs();
+	}
+
+	public String getLabelSelector() {
+		return labelSelector;
+	}
+
+	public String getLabelSelector(Map<String,String> overrides) {
+		if (overrides != null && overrides.containsKey("labelSelector"))
+			return overrides.get("labelSelector");
+		else return getLabelSelector();
+	}
+
+	public String getShowBuildLogs() {
+		return showBuildLogs;
+	}
+
+	public String getShowBuildLogs(Map<String,String> overrides) {
+		if (overrides != null && overrides.containsKey("showBuildLogs"))
+			return overrides.get("showBuildLogs");
+		else return getShowBuildLogs();
+	}
+
+	public String getCancelOnFailure() {
+		return cancelOnFailure;
+	}
+
+	public String getCancelOnFailure(Map<String,String> overrides) {
+		if (overrides != null && overrides.containsKey("cancelOnFailure"))
+			return overrides.get("cancelOnFailure");
+		else return getCancelOnFailure();
+	}
+
+	// the named build configs, followed by any others the label selector matches, each once;  null if the selector could not be used
+	protected List<String> getBuildConfigNames(IClient client, boolean chatty, TaskListener listener, Map<String,String> overrides) {
+		Set<String> names = new LinkedHashSet<String>();
+		if (getBldCfgs(overrides) != null) {
+			for (String name : getBldCfgs(overrides).split("[,\\s]+")) {
+				if (name.length() > 0)
+					names.add(name);
+			}
+		}
+		String selector = getLabelSelector(overrides);
+		if (selector == null || selector.trim().length() == 0)
+			return new ArrayList<String>(names);
+		selector = selector.trim();
+
+		// the api server takes the selector as is, set based expressions included
+		ResourceWatcher watcher = new ResourceWatcher(getApiURL(overrides), getAuth(), getToken() != null ? getToken().getToken() : null);
+		try {
+			List<ModelNode> bcs = watcher.list(ResourceWatcher.OAPI, getNamespace(overrides), "buildconfigs", null, selector);
+			if (bcs != null) {
+				for (ModelNode bc : bcs)
+					names.add(ResourceWatcher.getString(bc, "metadata", "name"));
+				return new ArrayList<String>(names);
+			}
+		} catch (IOException e) {
+			if (chatty)
+				e.printStackTrace(listener.getLogger());
+		}
+
+		// otherwise list through the client, which only understands key=value pairs;  anything else (!=, in, notin, !key, key)
+		// would match a different set of build configs than asked for, so we refuse rather than trigger those
+		if (chatty)
+			listener.getLogger().println("\nOpenShiftMultiBuilder listing build configs through the client for selector " + selector);
+		Map<String,String> labels = new HashMap<String,String>();
+		for (String requirement : selector.split(",")) {
+			Matcher m = EQUALITY_REQUIREMENT.matcher(requirement);
+			if (!m.matches()) {
+		    	listener.getLogger().println(String.format(MessageConstants.EXIT_MULTI_BUILD_UNSUPPORTED_SELECTOR, DISPLAY_NAME, selector));
+				return null;
+			}
+			labels.put(m.group(1), m.group(2));
+		}
+		List<IBuildConfig> bcs = client.list(ResourceKind.BUILD_CONFIG, getNamespace(overrides), labels);
+		if (bcs != null) {
+			for (IBuildConfig bc : bcs)
+				names.add(bc.getName());
+		}
+		return new ArrayList<String>(names);
+	}
+
+	protected IBuild startBuild(IClient client, String bcName, Map<String,String> overrides) {
+		IBuildConfig bc = client.get(ResourceKind.BUILD_CONFIG, bcName, getNamespace(overrides));
+		if (bc == null)
+			return null;
+		// the trigger goes through the resource's own client, so take our place in line for the api server here
+		ApiRateLimiter.acquire(getApiURL(overrides), true);
+		IBuild bld = bc.accept(new CapabilityVisitor<IBuildTriggerable, IBuild>() {
+			public IBuild visit(IBuildTriggerable triggerable) {
+				return ApiMetrics.time("trigger", ResourceKind.BUILD_CONFIG, () -> triggerable.trigger());
+			}
+		}, null);
+		// nor does the client know about the trigger, so drop its cached copy of the build config
+		ResourceCache.invalidate(client, ResourceKind.BUILD_CONFIG, getNamespace(overrides), bcName);
+		return bld;
+	}
+
+	// returns false if the build had already finished
+	protected boolean cancelBuild(IClient client, String bldId, Map<String,String> overrides) {
+		IBuild bld = client.get(ResourceKind.BUILD, bldId, getNamespace(overrides));
+		if (bld == null || !Arrays.asList(WAIT_PHASES).contains(bld.getStatus()))
+			return false;
+		ApiRateLimiter.acquire(getApiURL(overrides), true);
+		bld.accept(new CapabilityVisitor<IBuildCancelable, IBuild>() {
+			public IBuild visit(IBuildCancelable cancelable) {
+				return ApiMetrics.time("cancel", ResourceKind.BUILD, () -> cancelable.cancel());
+			}
+		}, null);
+		return true;
+	}
+
+	// streams the build's followed log to the console a line at a time, each line prefixed with the build config's name so the
+	// builds' output can be told apart;  println on the console is synchronized, so lines from different builds do not interleave.
+	// The api server has no log for the build until its pod is running, so wait for that (see followLogs) before calling this
+	protected void streamLogs(IClient client, String bcName, String bldId, long deadline, Map<HttpURLConnection, String> connections,
+			AtomicBoolean stopped, TaskListener listener, Map<String,String> overrides) {
+		BuildLogs logs = new BuildLogs(getApiURL(overrides), auth, bearerToken != null ? bearerToken.getToken() : null, getNamespace(overrides), bldId, "[" + bcName + "] ", DISPLAY_NAME);
+		logs.follow(deadline, connections, stopped, Boolean.parseBoolean(getVerbose(overrides)), listener);
+	}
+
+	// streams the build's log once the build is running;  the wait for that holds no thread (see AsyncWaits), and the streams
+	// only take threads as there are slots for them in logs
+	protected CompletableFuture<Void> followLogs(IClient client, String bcName, String bldId, long deadline, Map<HttpURLConnection, String> connections,
+			AtomicBoolean stopped, LogStreams logs, TaskListener listener, Map<String,String> overrides) {
+		boolean chatty = Boolean.parseBoolean(getVerbose(overrides));
+		return waitOnBuildPhaseAsync(client, bldId, getNamespace(overrides), deadline, chatty, listener, "New", "Pending")
+				.thenComposeAsync(phase -> logs.submit(() -> streamLogs(client, bcName, bldId, deadline, connections, stopped, listener, overrides)), AsyncWaits.executor());
+	}
+
+	// waits on all the builds at once, completing as soon as the first one fails;  maps each build that finished to its phase, and
+	// leaves those still running out.  The builds are watched through the project's shared build watch (see BuildPhaseMonitor) when
+	// the api server allows it, otherwise, or once the watch fails, we poll them, all of them per poll;  either way no thread is held
+	// while we wait
+	protected CompletableFuture<Map<String,String>> waitOnBuildsAsync(IClient client, Map<String,String> builds, String resourceVersion, long deadline, boolean chatty, TaskListener listener, Map<String,String> overrides) {
+		Map<String,String> finished = new LinkedHashMap<String,String>();
+		Set<String> pending = new LinkedHashSet<String>(builds.keySet());
+		// the watch futures are cancelled from whichever thread falls back on polling
+		Map<String,CompletableFuture<String>> phases = new ConcurrentHashMap<String,CompletableFuture<String>>();
+		CompletableFuture<Map<String,String>> result = new CompletableFuture<Map<String,String>>();
+		String namespace = getNamespace(overrides);
+
+		// records a build as done, which ends the wait if it failed or was the last one
+		BiConsumer<String,String> done = (bldId, phase) -> {
+			synchronized (finished) {
+				if (result.isDone() || !pending.remove(bldId))
+					return;
+				finished.put(bldId, phase);
+				if (!"Complete".equals(phase) || pending.isEmpty())
+					result.complete(new LinkedHashMap<String,String>(finished));
+			}
+		};
+		// looks at each of the builds still pending once
+		AsyncWaits.Probe<Boolean> probe = () -> {
+			List<String> bldIds;
+			synchronized (finished) {
+				bldIds = new ArrayList<String>(pending);
+			}
+			for (String bldId : bldIds) {
+				if (result.isDone())
+					break;
+				IBuild bld = null;
+				try {
+					bld = client.get(ResourceKind.BUILD, bldId, namespace);
+				} catch (NotFoundException e) {
+					// deleted out from under us, which we report as the build being gone
+				}
+				String phase = bld != null ? bld.getStatus() : null;
+				if (chatty)
+					listener.getLogger().println("\nOpenShiftMultiBuilder build " + bldId + " state:  " + phase);
+				if (phase == null || !Arrays.asList(WAIT_PHASES).contains(phase))
+					done.accept(bldId, phase);
+			}
+			return result.isDone() ? Boolean.TRUE : null;
+		};
+		AtomicBoolean polling = new AtomicBoolean();
+		Runnable poll = () -> {
+			if (!polling.compareAndSet(false, true))
+				return;
+			for (CompletableFuture<String> phase : phases.values())
+				phase.cancel(true);
+			listener.getLogger().println(String.format(MessageConstants.WAITING_ON_BUILDS_POLL, pending.size()));
+			getWaits().poll(probe, new PollingPolicy(), deadline).whenComplete((v, t) -> {
+				if (t != null)
+					result.completeExceptionally(t);
+			});
+		};
+
+		if (getAuth() != null && getToken() != null) {
+    		String apiURL = client.getBaseURL().toString();
+    		if (apiURL.endsWith("/"))
+    			apiURL = apiURL.substring(0, apiURL.length() - 1);
+			listener.getLogger().println(String.format(MessageConstants.WAITING_ON_BUILDS_WATCH, pending.size()));
+			for (String bldId : pending)
+				phases.put(bldId, BuildPhaseMonitor.register(apiURL, getAuth(), getToken().getToken(), namespace, bldId, resourceVersion, WAIT_PHASES));
+			for (Map.Entry<String,CompletableFuture<String>> phase : phases.entrySet()) {
+				String bldId = phase.getKey();
+				phase.getValue().whenCompleteAsync((state, t) -> {
+					if (t == null) {
+						if (chatty)
+							listener.getLogger().println("\nOpenShiftMultiBuilder build " + bldId + " watch state:  " + state);
+						done.accept(bldId, state);
+					} else if (!(AsyncWaits.cause(t) instanceof CancellationException)) {
+						// the watch is gone, so from here on we poll
+						if (chatty)
+							AsyncWaits.cause(t).printStackTrace(listener.getLogger());
+						poll.run();
+					}
+				}, AsyncWaits.executor());
+			}
+			// the shared watch may already have been past the point where a build changed, so we look at each of them once
+			getWaits().supply(() -> probe.probe()).whenComplete((v, t) -> {
+				if (t != null)
+					result.completeExceptionally(t);
+			});
+		} else {
+			poll.run();
+		}
+
+		return getWaits().within(result, deadline).handle((bldPhases, t) -> {
+			for (CompletableFuture<String> phase : phases.values())
+				phase.cancel(true);
+			if (t == null)
+				return bldPhases;
+			Throwable cause = AsyncWaits.cause(t);
+			if (!(cause instanceof TimeoutException))
+				throw new CompletionException(cause);
+			// gave up on the rest
+			synchronized (finished) {
+				return new LinkedHashMap<String,String>(finished);
+			}
+		});
+	}
+
+	public boolean coreLogic(Launcher launcher, TaskListener listener, EnvVars env, Map<String,String> overrides) {
+		return Boolean.TRUE.equals(getWaits().await(coreLogicAsync(launcher, listener, env, overrides)));
+	}
+
+	// the build configs are resolved on the calling thread;  the triggers and cancels then run on AsyncWaits' pool, and the wait on
+	// the builds holds no thread, with only the followed logs each holding one while there is a log to read
+	public CompletableFuture<Boolean> coreLogicAsync(Launcher launcher, TaskListener listener, EnvVars env, Map<String,String> overrides) {
+		boolean chatty = Boolean.parseBoolean(getVerbose(overrides));
+		boolean follow = Boolean.parseBoolean(getShowBuildLogs(overrides));
+		boolean cancel = Boolean.parseBoolean(getCancelOnFailure(overrides));
+
+    	// get oc client
+    	IClient client = this.getClient(listener, DISPLAY_NAME, overrides);
+    	if (client == null)
+    		return CompletableFuture.completedFuture(false);
+
+		List<String> bcNames = getBuildConfigNames(client, chatty, listener, overrides);
+		if (bcNames == null)
+			return CompletableFuture.completedFuture(false);
+		listener.getLogger().println(String.format(MessageConstants.START_MULTI_BUILD, DISPLAY_NAME, bcNames, getNamespace(overrides)));
+		if (bcNames.size() == 0) {
+	    	listener.getLogger().println(String.format(MessageConstants.EXIT_MULTI_BUILD_NO_BUILD_CONFIGS, DISPLAY_NAME));
+			return CompletableFuture.completedFuture(false);
+		}
+		markPhase("build configs resolved");
+
+		long startTime = System.currentTimeMillis();
+		long deadline = startTime + getDescriptor().getWait();
+		// build name -> build config name, in the order the build configs were given
+		Map<String,String> builds = new LinkedHashMap<String,String>();
+		Map<HttpURLConnection,String> connections = new ConcurrentHashMap<HttpURLConnection,String>();
+		AtomicBoolean stopped = new AtomicBoolean();
+		LogStreams logs = new LogStreams();
+		List<CompletableFuture<Void>> logStreams = new ArrayList<CompletableFuture<Void>>();
+
+		// trigger them all at once, so the time taken is that of the slowest trigger rather than the sum of them
+		Map<String,CompletableFuture<IBuild>> triggers = new LinkedHashMap<String,CompletableFuture<IBuild>>();
+		for (String bcName : bcNames)
+			triggers.put(bcName, getWaits().supply(() -> startBuild(client, bcName, overrides)));
+		return CompletableFuture.allOf(triggers.values().toArray(new CompletableFuture<?>[triggers.size()])).handleAsync((v, failed) -> {
+			if (getWaits().isCancelled())
+				throw new CancellationException();
+			boolean triggered = true;
+			// for a watch started on our behalf, the point from which to watch
+			String resourceVersion = null;
+			for (Map.Entry<String,CompletableFuture<IBuild>> trigger : triggers.entrySet()) {
+				IBuild bld = null;
+				try {
+					bld = trigger.getValue().join();
+				} catch (CompletionException | CancellationException e) {
+					if (chatty)
+						AsyncWaits.cause(e).printStackTrace(listener.getLogger());
+				}
+				if (bld == null) {
+			    	listener.getLogger().println(String.format(MessageConstants.FAILED_MULTI_BUILD_TRIGGER, trigger.getKey()));
+			    	triggered = false;
+			    	continue;
+				}
+				String bldId = bld.getName();
+				builds.put(bldId, trigger.getKey());
+				if (resourceVersion == null)
+					resourceVersion = bld.getResourceVersion();
+				listener.getLogger().println(String.format(MessageConstants.STARTED_MULTI_BUILD, bldId, trigger.getKey()));
+				if (follow)
+					logStreams.add(followLogs(client, trigger.getKey(), bldId, deadline, connections, stopped, logs, listener, overrides));
+			}
+			markPhase("builds triggered");
+			if (getTiming() != null)
+				getTiming().setSubject(builds.keySet().toString());
+
+			boolean allTriggered = triggered;
+			CompletableFuture<Map<String,String>> wait = triggered ? waitOnBuildsAsync(client, builds, resourceVersion, deadline, chatty, listener, overrides)
+					: CompletableFuture.completedFuture(new LinkedHashMap<String,String>());
+			return wait.thenComposeAsync(finished -> finish(client, builds, finished, allTriggered, logStreams, startTime, deadline, chatty, cancel, listener, overrides),
+					AsyncWaits.executor());
+		}, AsyncWaits.executor()).thenCompose(f -> f).whenComplete((successful, t) -> {
+			stopped.set(true);
+			// the logs still waiting on their builds to start
+			for (CompletableFuture<Void> logStream : logStreams)
+				logStream.cancel(true);
+			// a blocked read is not interrupted by the above, closing its connection is what stops it
+			for (HttpURLConnection conn : new ArrayList<HttpURLConnection>(connections.keySet())) {
+				connections.remove(conn);
+				conn.disconnect();
+			}
+		});
+	}
+
+	// reports how the builds finished, and cancels the ones still running if we failed fast and were asked to
+	protected CompletableFuture<Boolean> finish(IClient client, Map<String,String> builds, Map<String,String> finished, boolean triggered,
+			List<CompletableFuture<Void>> logStreams, long startTime, long deadline, boolean chatty, boolean cancel, TaskListener listener, Map<String,String> overrides) {
+		String failedBld = null;
+		for (Map.Entry<String,String> bld : finished.entrySet()) {
+			String bcName = builds.get(bld.getKey());
+			if ("Complete".equals(bld.getValue())) {
+				listener.getLogger().println(String.format(MessageConstants.MULTI_BUILD_GOOD, bld.getKey(), bcName));
+			} else {
+				listener.getLogger().println(String.format(MessageConstants.MULTI_BUILD_BAD, bld.getKey(), bcName, bld.getValue()));
+				failedBld = bld.getKey();
+			}
+			markPhase(bcName + " " + (bld.getValue() != null ? bld.getValue() : "build gone"));
+		}
+
+		if (triggered && failedBld == null && finished.size() == builds.size()) {
+			// the builds are done, so their logs end shortly;  let them, so the output comes before our summary
+			CompletableFuture<Void> logsDone = CompletableFuture.allOf(logStreams.toArray(new CompletableFuture<?>[logStreams.size()]));
+			return getWaits().within(logsDone, deadline).handle((v, t) -> {
+				if (t != null && chatty)
+					AsyncWaits.cause(t).printStackTrace(listener.getLogger());
+		    	listener.getLogger().println(String.format(MessageConstants.EXIT_MULTI_BUILD_GOOD, DISPLAY_NAME, builds.size(), System.currentTimeMillis() - startTime));
+				return true;
+			});
+		}
+
+		// fail fast:  we do not wait on the builds still running
+		List<String> running = new ArrayList<String>();
+		for (String bldId : builds.keySet()) {
+			if (!finished.containsKey(bldId))
+				running.add(bldId);
+		}
+		Map<String,CompletableFuture<Boolean>> cancels = new LinkedHashMap<String,CompletableFuture<Boolean>>();
+		if (cancel) {
+			for (String bldId : running)
+				cancels.put(bldId, getWaits().supply(() -> cancelBuild(client, bldId, overrides)));
+		}
+		String failed = failedBld;
+		return CompletableFuture.allOf(cancels.values().toArray(new CompletableFuture<?>[cancels.size()])).handle((v, t) -> {
+			for (Map.Entry<String,CompletableFuture<Boolean>> c : cancels.entrySet()) {
+				try {
+					if (c.getValue().join())
+						listener.getLogger().println(String.format(MessageConstants.CANCELLED_BUILD, c.getKey()));
+				} catch (CompletionException | CancellationException e) {
+					listener.getLogger().println(String.format(MessageConstants.FAILED_BUILD_CANCEL, c.getKey(), AsyncWaits.cause(e)));
+				}
+			}
+			if (cancels.size() > 0)
+				markPhase("builds cancelled");
+			if (failed != null)
+		    	listener.getLogger().println(String.format(MessageConstants.EXIT_BUILD_BAD, DISPLAY_NAME, failed, finished.get(failed)));
+			else if (!triggered)
+		    	listener.getLogger().println(String.format(MessageConstants.EXIT_MULTI_BUILD_NOT_TRIGGERED, DISPLAY_NAME));
+			else
+		    	listener.getLogger().println(String.format(MessageConstants.EXIT_MULTI_BUILD_TIMED_OUT, DISPLAY_NAME, running));
+			return false;
+		});
+	}
+
+	/*
+	 * The step's followed log streams, each of which blocks a thread on Jenkins' shared pool until its build is done.  At most
+	 * MAX_CONCURRENT_LOGS of them run at a time;  the rest queue, holding no thread, and start as the earlier ones end.
+	 */
+	protected static final class LogStreams {
+		private final Queue<Runnable> queued = new ArrayDeque<Runnable>();
+		private int running = 0;
+
+		// completes once the stream has run;  cancelling it before then means it never starts
+		CompletableFuture<Void> submit(Runnable stream) {
+			CompletableFuture<Void> done = new CompletableFuture<Void>();
+			Runnable task = () -> {
+				try {
+					if (!done.isDone())
+						stream.run();
+					done.complete(null);
+				} catch (Throwable t) {
+					done.completeExceptionally(t);
+				} finally {
+					next();
+				}
+			};
+			synchronized (this) {
+				if (running >= MAX_CONCURRENT_LOGS) {
+					queued.add(task);
+					return done;
+				}
+				running++;
+			}
+			Computer.threadPoolForRemoting.execute(task);
+			return done;
+		}
+
+		private void next() {
+			Runnable task;
+			synchronized (this) {
+				task = queued.poll();
+				if (task == null) {
+					running--;
+					return;
+				}
+			}
+			Computer.threadPoolForRemoting.execute(task);
+		}
+	}
+
+
+
+	// Overridden for better type safety.
+    // If your plugin doesn't really define any property on Descriptor,
+    // you don't have to do this.
+    @Override
+    public DescriptorImpl getDescriptor() {
+        return (DescriptorImpl)super.getDescriptor();
+    }
+
+    /**
+     * Descriptor for {@link OpenShiftMultiBuilder}. Used as a singleton.
+     * The class is marked as public so that it can be accessed from views.
+     *
+     */
+    @Extension // This indicates to Jenkins that this is an implementation of an extension point.
+    public static final class DescriptorImpl extends BuildStepDescriptor<Builder> {
+    	private long wait = 900000;
+
+        /**
+         * To persist global configuration information,
+         * simply store it in a field and call save().
+         *
+         * <p>
+         * If you don't want fields to be persisted, use <tt>transient</tt>.
+         */
+
+        /**
+         * In order to load the persisted global configuration, you have to
+         * call load() in the constructor.
+         */
+        public DescriptorImpl() {
+            load();
+        }
+
+        /**
+         * Performs on-the-fly validation of the various fields.
+         *
+         * @param value
+         *      This parameter receives the value that the user has typed.
+         * @return
+         *      Indicates the outcome of the validation. This is sent to the browser.
+         *      <p>
+         *      Note that returning {@link FormValidation#error(String)} does not
+         *      prevent the form from being saved. It just means that a message
+         *      will be displayed to the user.
+         */
+        public FormValidation doCheckApiURL(@QueryParameter String value)
+                throws IOException, ServletException {
+        	return ParamVerify.doCheckApiURL(value);
+        }
+
+        public FormValidation doCheckBldCfgs(@QueryParameter String value)
+                throws IOException, ServletException {
+        	return ParamVerify.doCheckBldCfgs(value);
+        }
+
+        public FormValidation doCheckNamespace(@QueryParameter String value)
+                throws IOException, ServletException {
+        	return ParamVerify.doCheckNamespace(value);
+        }
+
+        public boolean isApplicable(Class<? extends AbstractProject> aClass) {
+            // Indicates that this builder can be used with all kinds of project types
+            return true;
+        }
+
+        /**
+         * This human readable name is used in the configuration screen.
+         */
+        public String getDisplayName() {
+            return DISPLAY_NAME;
+        }
+
+        public long getWait() {
+        	return wait;
+        }
+
+        @Override
+        public boolean configure(StaplerRequest req, JSONObject formData) throws FormException {
+            // To persist global configuration information,
+            // pull info from formData, set appropriate instance field (which should have a getter), and call save().
+        	wait = formData.getLong("wait");
+            save();
+            return super.configure(req,formData);
+        }
+
+    }
+
+}
@@ -0,0 +1,121 @@
+package com.openshift.jenkins.plugins.pipeline;
+
+import hudson.AbortException;
+import hudson.EnvVars;
+import hudson.Extension;
+import hudson.model.Computer;
+import hudson.model.Descriptor;
+import hudson.model.Run;
+import hudson.model.TaskListener;
+import hudson.tasks.Builder;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+import jenkins.model.Jenkins;
+
+import org.jenkinsci.plugins.workflow.steps.AbstractStepDescriptorImpl;
+import org.jenkinsci.plugins.workflow.steps.AbstractStepExecutionImpl;
+import org.jenkinsci.plugins.workflow.steps.AbstractStepImpl;
+import org.jenkinsci.plugins.workflow.steps.StepContextParameter;
+import org.kohsuke.stapler.DataBoundConstructor;
+
+import com.google.inject.Inject;
+
+/*
+ * Runs one of our build steps from a Pipeline script without holding a thread while it waits on OpenShift, i.e.
+ * openShiftStep([$class: 'OpenShiftBuilder', bldCfg: 'frontend', ...]).  The generic `step` path blocks its thread in
+ * SimpleBuildStep.perform for the whole wait, so a pipeline with many OpenShift steps in parallel holds as many threads;
+ * here the step is started through doItCoreAsync, and the execution is completed when the step's future is (see AsyncWaits).
+ */
+public class OpenShiftPipelineStep extends AbstractStepImpl {
+
+	private final OpenShiftBaseStep delegate;
+
+	@DataBoundConstructor
+	public OpenShiftPipelineStep(OpenShiftBaseStep delegate) {
+		this.delegate = delegate;
+	}
+
+	public OpenShiftBaseStep getDelegate() {
+		return delegate;
+	}
+
+	public static class Execution extends AbstractStepExecutionImpl {
+
+		private static final long serialVersionUID = 1L;
+
+		@Inject(optional = true)
+		private transient OpenShiftPipelineStep step;
+		@StepContextParameter
+		private transient Run<?, ?> run;
+		@StepContextParameter
+		private transient TaskListener listener;
+		@StepContextParameter
+		private transient EnvVars env;
+		// the waits of the step's run, so that stopping the execution stops them
+		private transient AsyncWaits waits;
+
+		@Override
+		public boolean start() throws Exception {
+			OpenShiftBaseStep delegate = step.getDelegate();
+			String name = delegate.getDescriptor().getDisplayName();
+			waits = new AsyncWaits();
+			// the part of the step up to its first wait runs off the CPS thread too, as it makes api calls
+			CompletableFuture.supplyAsync(() -> delegate.doItCoreAsync(listener, env, run, null, waits), Computer.threadPoolForRemoting)
+				.thenCompose(f -> f)
+				.whenComplete((successful, t) -> {
+					if (t != null)
+						getContext().onFailure(AsyncWaits.cause(t));
+					else if (!Boolean.TRUE.equals(successful))
+						getContext().onFailure(new AbortException("\"" + name + "\" failed"));
+					else
+						getContext().onSuccess(null);
+				});
+			// completed asynchronously
+			return false;
+		}
+
+		@Override
+		public void stop(Throwable cause) throws Exception {
+			if (waits != null)
+				waits.cancel();
+			getContext().onFailure(cause);
+		}
+
+		@Override
+		public void onResume() {
+			// the waits are not persisted, so there is nothing to pick back up after a restart
+			getContext().onFailure(new AbortException("OpenShift step cannot be resumed after a Jenkins restart"));
+		}
+	}
+
+	@Extension(optional = true)
+	public static final class DescriptorImpl extends AbstractStepDescriptorImpl {
+
+		public DescriptorImpl() {
+			super(Execution.class);
+		}
+
+		@Override
+		public String getFunctionName() {
+			return "openShiftStep";
+		}
+
+		@Override
+		public String getDisplayName() {
+			return "Run an OpenShift build step without holding a thread while it waits";
+		}
+
+		// the OpenShift build steps, for the delegate drop down
+		public List<Descriptor<?>> getApplicableDescriptors() {
+			List<Descriptor<?>> descriptors = new ArrayList<Descriptor<?>>();
+			for (Descriptor<Builder> d : Jenkins.getInstance().getDescriptorList(Builder.class)) {
+				if (OpenShiftBaseStep.class.isAssignableFrom(d.clazz))
+					descriptors.add(d);
+			}
+			return descriptors;
+		}
+	}
+}
@@ -22,6 +22,7 @@ import javax.servlet.ServletException;
 
 import java.io.IOException;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
 
 public class OpenShiftScaler extends OpenShiftBaseStep {
 
@@ -72,6 +73,12 @@ public class OpenShiftScaler extends OpenShiftBaseStep {
 	
 	public boolean coreLogic(Launcher launcher, TaskListener listener,
 			EnvVars env, Map<String,String> overrides) {
+		return Boolean.TRUE.equals(getWaits().await(coreLogicAsync(launcher, listener, env, overrides)));
+	}
+	
+	// each attempt at the scale is scheduled on AsyncWaits, so no thread is held in between
+	public CompletableFuture<Boolean> coreLogicAsync(Launcher launcher, TaskListener listener,
+			EnvVars env, Map<String,String> overrides) {
 		boolean chatty = Boolean.parseBoolean(getVerbose(overrides));
     	boolean checkCount = Boolean.parseBoolean(getVerifyReplicaCount(overrides));
     	listener.getLogger().println(String.format(MessageConstants.START_DEPLOY_RELATED_PLUGINS, DISPLAY_NAME, getDepCfg(overrides), getNamespace(overrides)));
@@ -80,8 +87,11 @@ public class OpenShiftScaler extends OpenShiftBaseStep {
     	IClient client = this.getClient(listener, DISPLAY_NAME, overrides);
     	
     	if (client != null) {
-        	IReplicationController rc = null;
-        	IDeploymentConfig dc = null;
+        	final IReplicationController[] rc = new IReplicationController[1];
+        	// set when the step is over for a reason other than the scale finishing or timing out, with its message already out
+        	final boolean[] exited = new boolean[] {false};
+        	// set once the rc has taken the new replica count, after which it only has to be read back
+        	final boolean[] updated = new boolean[] {false};
         	long currTime = System.currentTimeMillis();
         	// in testing with the jenkins-ci sample, the initial deploy after
         	// a build is kinda slow ... gotta wait more than one minute
@@ -94,69 +104,86 @@ public class OpenShiftScaler extends OpenShiftBaseStep {
         		listener.getLogger().println(String.format(MessageConstants.SCALING_PLUS_REPLICA_CHECK, getReplicaCount(overrides)));        	
         	
         	// do the oc scale ... may need to retry        	
-        	boolean scaleDone = false;
-        	while (System.currentTimeMillis() < (currTime + getDescriptor().getWait())) {
-        		dc = client.get(ResourceKind.DEPLOYMENT_CONFIG, getDepCfg(overrides), getNamespace(overrides));
+        	long deadline = currTime + getDescriptor().getWait();
+        	PollingPolicy polling = getDescriptor().createPollingPolicy();
+        	return getWaits().poll(() -> {
+        		if (updated[0]) {
+        			// we are waiting on the rc to change, so skip the ResourceCache
+        			IReplicationController latest = ResourceCache.bypass(() -> client.get(ResourceKind.REPLICATION_CONTROLLER, rc[0].getName(), getNamespace(overrides)));
+        			if (latest != null)
+        				rc[0] = latest;
+	        		if (chatty)
+	        			listener.getLogger().println("\nOpenShiftScaler rc current replica count " + rc[0].getCurrentReplicaCount() + " desired count " + rc[0].getDesiredReplicaCount());
+					if (this.isReplicationControllerScaledAppropriately(rc[0], checkCount, Integer.decode(getReplicaCount(overrides))))
+						return Boolean.TRUE;
+					if (chatty) listener.getLogger().println("\nOpenShiftScaler will wait, then check the replica count again");
+					return null;
+        		}
+        		
+        		// we are waiting on the dc to change, so skip the ResourceCache
+        		IDeploymentConfig dc = ResourceCache.bypass(() -> client.get(ResourceKind.DEPLOYMENT_CONFIG, getDepCfg(overrides), getNamespace(overrides)));
         		if (dc == null) {
 			    	listener.getLogger().println(String.format(MessageConstants.EXIT_DEPLOY_RELATED_PLUGINS_NO_CFG, DISPLAY_NAME, getDepCfg(overrides)));
-	    			return false;
+			    	exited[0] = true;
+	    			return Boolean.FALSE;
         		}
         		
         		if (dc.getLatestVersionNumber() > 0)
-        			rc = this.getLatestReplicationController(dc, client, overrides);
-            	if (rc == null) {
+        			rc[0] = this.getLatestReplicationController(dc, client, overrides);
+            	if (rc[0] == null) {
             		//TODO if not found, and we are scaling down to zero, don't consider an error - this may be safety
             		// measure to scale down if exits ... perhaps we make this behavior configurable over time, but for now.
             		// we refrain from adding yet 1 more config option
             		if (getReplicaCount(overrides).equals("0")) {
         		    	listener.getLogger().println(String.format(MessageConstants.EXIT_SCALING_NOOP, getDepCfg(overrides)));
-            			return true;
+        		    	exited[0] = true;
+            			return Boolean.TRUE;
             		}
             	} else {
             		int count = Integer.decode(getReplicaCount(overrides));
-    	        	rc.setDesiredReplicaCount(count);
+    	        	rc[0].setDesiredReplicaCount(count);
     	        	if (chatty)
-    	        		listener.getLogger().println("\nOpenShiftScaler setting desired replica count of " + getReplicaCount(overrides) + " on " + rc.getName());
+    	        		listener.getLogger().println("\nOpenShiftScaler setting desired replica count of " + getReplicaCount(overrides) + " on " + rc[0].getName());
     	        	try {
-    	        		rc = client.update(rc);
+    	        		rc[0] = client.update(rc[0]);
+    	        		updated[0] = true;
     	        		if (chatty)
-    	        			listener.getLogger().println("\nOpenShiftScaler rc returned from update current replica count " + rc.getCurrentReplicaCount() + " desired count " + rc.getDesiredReplicaCount());
-						scaleDone = this.isReplicationControllerScaledAppropriately(rc, checkCount, count);
+    	        			listener.getLogger().println("\nOpenShiftScaler rc returned from update current replica count " + rc[0].getCurrentReplicaCount() + " desired count " + rc[0].getDesiredReplicaCount());
+						if (this.isReplicationControllerScaledAppropriately(rc[0], checkCount, count))
+							return Boolean.TRUE;
     	        	} catch (Throwable t) {
     	        		if (chatty)
     	        			t.printStackTrace(listener.getLogger());
     	        	}
             	}
             	
-				
-				if (scaleDone) {
-					break;
-				} else {
-					if (chatty) listener.getLogger().println("\nOpenShiftScaler will wait 10 seconds, then try to scale again");
-					try {
-						Thread.sleep(10000);
-					} catch (InterruptedException e) {
-					}
-				}
-	    	}
-        	
-        	if (!scaleDone) {
-        		if (!checkCount) {
-        	    	listener.getLogger().println(String.format(MessageConstants.EXIT_SCALING_BAD, getApiURL(overrides)));        			
-        		} else {
-        	    	listener.getLogger().println(String.format(MessageConstants.EXIT_SCALING_TIMED_OUT, rc.getName(), getReplicaCount(overrides)));
-        		}
-        		return false;
-        	}
-        	
-	    	if (!checkCount)
-	    		listener.getLogger().println(String.format(MessageConstants.EXIT_SCALING_GOOD, rc.getName()));
-	    	else
-	    		listener.getLogger().println(String.format(MessageConstants.EXIT_SCALING_GOOD_REPLICAS_GOOD, rc.getName(), getReplicaCount(overrides)));
-        	return true;
+				if (chatty) listener.getLogger().println("\nOpenShiftScaler will wait, then try to scale again");
+				return null;
+	    	}, polling, deadline).thenApply(scaleDone -> {
+	        	if (getTiming() != null)
+	        		getTiming().setPolls(polling.getPolls());
+	        	listener.getLogger().println(String.format(MessageConstants.POLL_COUNT, DISPLAY_NAME, polling.getPolls()));
+	        	if (exited[0])
+	        		return scaleDone;
+	        	
+	        	if (scaleDone == null) {
+	        		if (!checkCount || rc[0] == null) {
+	        	    	listener.getLogger().println(String.format(MessageConstants.EXIT_SCALING_BAD, getApiURL(overrides)));        			
+	        		} else {
+	        	    	listener.getLogger().println(String.format(MessageConstants.EXIT_SCALING_TIMED_OUT, rc[0].getName(), getReplicaCount(overrides)));
+	        		}
+	        		return false;
+	        	}
+	        	
+		    	if (!checkCount)
+		    		listener.getLogger().println(String.format(MessageConstants.EXIT_SCALING_GOOD, rc[0].getName()));
+		    	else
+		    		listener.getLogger().println(String.format(MessageConstants.EXIT_SCALING_GOOD_REPLICAS_GOOD, rc[0].getName(), getReplicaCount(overrides)));
+	        	return true;
+        	});
         	        	
     	} else {
-    		return false;
+    		return CompletableFuture.completedFuture(false);
     	}
 	}
 
@@ -177,6 +204,8 @@ public class OpenShiftScaler extends OpenShiftBaseStep {
     @Extension // This indicates to Jenkins that this is an implementation of an extension point.
     public static final class DescriptorImpl extends BuildStepDescriptor<Builder> {
     	private long wait = 180000;
+    	private long pollInitial = PollingPolicy.DEFAULT_INITIAL_INTERVAL;
+    	private long pollMax = PollingPolicy.DEFAULT_MAX_INTERVAL;
         /**
          * To persist global configuration information,
          * simply store it in a field and call save().
@@ -241,12 +270,26 @@ public class OpenShiftScaler extends OpenShiftBaseStep {
         public long getWait() {
         	return wait;
         }
+        
+        public long getPollInitial() {
+        	return pollInitial;
+        }
+        
+        public long getPollMax() {
+        	return pollMax;
+        }
+        
+        public PollingPolicy createPollingPolicy() {
+        	return new PollingPolicy(pollInitial, pollMax);
+        }
 
         @Override
         public boolean configure(StaplerRequest req, JSONObject formData) throws FormException {
             // To persist global configuration information,
             // pull info from formData, set appropriate instance field (which should have a getter), and call save().
         	wait = formData.getLong("wait");
+        	pollInitial = formData.optLong("pollInitial", PollingPolicy.DEFAULT_INITIAL_INTERVAL);
+        	pollMax = formData.optLong("pollMax", PollingPolicy.DEFAULT_MAX_INTERVAL);
             save();
             return super.configure(req,formData);
         }
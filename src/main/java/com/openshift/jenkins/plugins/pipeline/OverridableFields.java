@@ -0,0 +1,103 @@
+package com.openshift.jenkins.plugins.pipeline;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/*
+ * The String instance fields of a step class (followed by those of its base class) which can be overridden by build parameters,
+ * with method handles to read and write them.  Built once per step class, on first use, rather than redoing the
+ * Class.forName / getDeclaredFields / Field lookups on every step run.
+ */
+public class OverridableFields {
+
+	private static final ConcurrentHashMap<Class<?>, OverridableFields> tables = new ConcurrentHashMap<Class<?>, OverridableFields>();
+
+	private final List<String> names;
+	private final List<MethodHandle> getters;
+	private final Map<String, MethodHandle> setters;
+
+	private OverridableFields(List<String> names, List<MethodHandle> getters, Map<String, MethodHandle> setters) {
+		this.names = names;
+		this.getters = getters;
+		this.setters = setters;
+	}
+
+	public static OverridableFields forClass(Class<?> c, String baseClassName) {
+		OverridableFields table = tables.get(c);
+		if (table == null) {
+			table = build(c, baseClassName);
+			OverridableFields prev = tables.putIfAbsent(c, table);
+			if (prev != null)
+				table = prev;
+		}
+		return table;
+	}
+
+	private static OverridableFields build(Class<?> c, String baseClassName) {
+		List<String> names = new ArrayList<String>();
+		List<MethodHandle> getters = new ArrayList<MethodHandle>();
+		Map<String, MethodHandle> setters = new HashMap<String, MethodHandle>();
+		MethodHandles.Lookup lookup = MethodHandles.lookup();
+		List<Class<?>> classes = new ArrayList<Class<?>>();
+		classes.add(c);
+		try {
+			Class<?> bc = Class.forName(baseClassName, true, c.getClassLoader());
+			if (bc != c)
+				classes.add(bc);
+		} catch (ClassNotFoundException e) {
+		}
+		for (Class<?> clazz : classes) {
+			for (Field f : clazz.getDeclaredFields()) {
+				// parameterized builds should only apply to instance variables, not static ones (and fyi, static fields in the classes extending this one will not be accessible by default)
+				if (Modifier.isStatic(f.getModifiers()) || f.getType() != String.class)
+					continue;
+				try {
+					getters.add(lookup.unreflectGetter(f));
+					names.add(f.getName());
+				} catch (IllegalAccessException e) {
+					continue;
+				}
+				try {
+					// the fields are final (they come in through the DataBoundConstructor), and a method handle can only write to
+					// a final instance field through a Field that has had its access checks suppressed
+					if (!setters.containsKey(f.getName())) {
+						f.setAccessible(true);
+						setters.put(f.getName(), lookup.unreflectSetter(f));
+					}
+				} catch (IllegalAccessException | SecurityException e) {
+					// left out, so restoring the field reports that it could not be set
+				}
+			}
+		}
+		return new OverridableFields(Collections.unmodifiableList(names), Collections.unmodifiableList(getters), Collections.unmodifiableMap(setters));
+	}
+
+	public int size() {
+		return names.size();
+	}
+
+	public String getName(int i) {
+		return names.get(i);
+	}
+
+	public String getValue(int i, Object target) throws Throwable {
+		return (String) getters.get(i).invoke(target);
+	}
+
+	// returns false if the field does not exist or can not be set
+	public boolean setValue(String name, Object target, String value) throws Throwable {
+		MethodHandle setter = setters.get(name);
+		if (setter == null)
+			return false;
+		setter.invoke(target, value);
+		return true;
+	}
+}
@@ -25,6 +25,13 @@ public class ParamVerify {
         return FormValidation.ok();
     }
     
+    public static FormValidation doCheckBldCfgs(@QueryParameter String value)
+            throws IOException, ServletException {
+        if (value.length() == 0)
+            return FormValidation.warning("Unless you specify a label selector, you must set a comma separated list of BuildConfig names");
+        return FormValidation.ok();
+    }
+    
     public static FormValidation doCheckNamespace(@QueryParameter String value)
             throws IOException, ServletException {
         if (value.length() == 0)
@@ -0,0 +1,56 @@
+package com.openshift.jenkins.plugins.pipeline;
+
+import java.util.concurrent.ThreadLocalRandom;
+
+/*
+ * The pacing between retries of a step's poll loop:  the first few probes come quickly, so that something which finishes
+ * in a couple of seconds does not cost the step a fixed 10 second sleep, then the interval doubles up to a ceiling, so that
+ * something which is stuck is not hit at a fixed rate for the whole wait.  Each interval is randomized by +/- 20% so that
+ * steps started together do not poll the api server in lock step.  One instance per step run, as it counts that run's polls.
+ */
+public class PollingPolicy {
+
+	public static final long DEFAULT_INITIAL_INTERVAL = 500;
+	public static final long DEFAULT_MAX_INTERVAL = 10000;
+
+	private static final double MULTIPLIER = 2.0;
+	private static final double JITTER = 0.2;
+
+	private final long maxInterval;
+	private long interval;
+	private int polls = 0;
+
+	public PollingPolicy() {
+		this(DEFAULT_INITIAL_INTERVAL, DEFAULT_MAX_INTERVAL);
+	}
+
+	public PollingPolicy(long initialInterval, long maxInterval) {
+		this.interval = Math.max(1, initialInterval);
+		this.maxInterval = Math.max(this.interval, maxInterval);
+	}
+
+	// counts a poll, as it is made
+	public void polled() {
+		polls++;
+	}
+
+	/*
+	 * Returns how long to wait before the next poll, or -1 if there is no time left for another before the deadline;  the
+	 * caller schedules the next poll rather than sleeping until it (see AsyncWaits).
+	 */
+	public long next(long deadline) {
+		long delay = Math.min(jitter(interval), deadline - System.currentTimeMillis());
+		interval = Math.min(maxInterval, (long) (interval * MULTIPLIER));
+		return delay > 0 ? delay : -1;
+	}
+
+	// the number of polls the step made
+	public int getPolls() {
+		return polls;
+	}
+
+	private static long jitter(long interval) {
+		double factor = 1.0 + JITTER * (2 * ThreadLocalRandom.current().nextDouble() - 1);
+		return Math.max(1, (long) (interval * factor));
+	}
+}
@@ -0,0 +1,164 @@
+package com.openshift.jenkins.plugins.pipeline;
+
+import java.lang.reflect.Method;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Supplier;
+import java.util.concurrent.atomic.AtomicLong;
+
+import com.openshift.restclient.IClient;
+import com.openshift.restclient.ResourceKind;
+import com.openshift.restclient.model.IResource;
+
+/*
+ * A short lived cache in front of IClient.get(kind, name, namespace) for the read mostly kinds the steps keep re-fetching
+ * (i.e. Deployment.didAllImagesChangeIfNeeded getting the BuildConfig OpenShiftBuilder just got).  Entries hold the JSON
+ * (with its resourceVersion) of what the api server returned, so every caller gets its own copy to modify, and expire
+ * after a few seconds.  Any mutation made through the same client (create, update, delete, execute) drops the cached copy
+ * of what it touched before going to the api server;  changes made some other way, i.e. a build trigger through the
+ * BuildConfig's own capability, are dropped by the caller through invalidate.  The steps' wait loops are waiting for the
+ * resource to change, so their reads go through bypass, straight to the api server.
+ *
+ * The time to live (in milliseconds) and number of entries can be set with
+ * -Dcom.openshift.jenkins.plugins.pipeline.ResourceCache.ttl=... and -Dcom.openshift.jenkins.plugins.pipeline.ResourceCache.size=...;
+ * a ttl of 0 turns the cache off.
+ */
+public class ResourceCache implements DelegatingClient.Handler {
+
+	private static final long TTL = Long.getLong(ResourceCache.class.getName() + ".ttl", 2000);
+	private static final int SIZE = Integer.getInteger(ResourceCache.class.getName() + ".size", 256);
+
+	private static final Set<String> CACHED_KINDS = new HashSet<String>(Arrays.asList(ResourceKind.BUILD_CONFIG, ResourceKind.DEPLOYMENT_CONFIG, ResourceKind.IMAGE_STREAM));
+	private static final Set<String> MUTATING_METHODS = new HashSet<String>(Arrays.asList("create", "update", "delete", "execute"));
+
+	private static final AtomicLong hits = new AtomicLong();
+	private static final AtomicLong misses = new AtomicLong();
+	// set while the current thread's gets should not be served from the cache
+	private static final ThreadLocal<Boolean> bypassing = new ThreadLocal<Boolean>();
+
+	// namespace|kind|name to the cached resource, least recently used first
+	private final LinkedHashMap<String, Cached> entries = new LinkedHashMap<String, Cached>(16, 0.75f, true) {
+		private static final long serialVersionUID = 1L;
+
+		@Override
+		protected boolean removeEldestEntry(Map.Entry<String, Cached> eldest) {
+			return size() > SIZE;
+		}
+	};
+
+	private ResourceCache() {
+	}
+
+	// the client is per api server and credential (see ClientRegistry), and so is the cache
+	public static IClient wrap(IClient client) {
+		if (client == null || TTL <= 0)
+			return client;
+		return DelegatingClient.wrap(client, new ResourceCache());
+	}
+
+	// runs call with the gets it makes going to the api server, though what they get is still cached for other callers
+	public static <T> T bypass(Supplier<T> call) {
+		Boolean prev = bypassing.get();
+		bypassing.set(Boolean.TRUE);
+		try {
+			return call.get();
+		} finally {
+			if (prev == null)
+				bypassing.remove();
+			else
+				bypassing.set(prev);
+		}
+	}
+
+	// drops the cached copy of a resource changed other than through client;  with a null name, every cached resource of the kind in namespace
+	public static void invalidate(IClient client, String kind, String namespace, String name) {
+		ResourceCache cache = DelegatingClient.getHandler(client, ResourceCache.class);
+		if (cache != null)
+			cache.invalidate(kind, namespace, name);
+	}
+
+	@Override
+	public Object invoke(IClient client, Method method, Object[] args) throws Throwable {
+		String name = method.getName();
+		if (MUTATING_METHODS.contains(name)) {
+			invalidate(args);
+			return DelegatingClient.invoke(client, method, args);
+		}
+		if (!"get".equals(name) || args == null || args.length != 3 || !(args[0] instanceof String) || !CACHED_KINDS.contains(args[0])
+				|| !(args[1] instanceof String) || !(args[2] instanceof String)) {
+			return DelegatingClient.invoke(client, method, args);
+		}
+
+		String key = args[2] + "|" + args[0] + "|" + args[1];
+		String json = bypassing.get() == null ? lookup(key) : null;
+		if (json != null) {
+			hits.incrementAndGet();
+			return client.getResourceFactory().create(json);
+		}
+		misses.incrementAndGet();
+		Object result = DelegatingClient.invoke(client, method, args);
+		if (result instanceof IResource)
+			store(key, ((IResource) result).toJson());
+		return result;
+	}
+
+	public static long getHits() {
+		return hits.get();
+	}
+
+	public static long getMisses() {
+		return misses.get();
+	}
+
+	public static String getStats() {
+		long h = getHits();
+		long total = h + getMisses();
+		return "resource cache hits " + h + " misses " + getMisses() + " hit rate " + (total > 0 ? (h * 100 / total) : 0) + "%";
+	}
+
+	private synchronized String lookup(String key) {
+		Cached cached = entries.get(key);
+		if (cached == null)
+			return null;
+		if (System.currentTimeMillis() - cached.fetched > TTL) {
+			entries.remove(key);
+			return null;
+		}
+		return cached.json;
+	}
+
+	private synchronized void store(String key, String json) {
+		entries.put(key, new Cached(json));
+	}
+
+	private synchronized void invalidate(String kind, String namespace, String name) {
+		if (name != null) {
+			entries.remove(namespace + "|" + kind + "|" + name);
+			return;
+		}
+		String prefix = namespace + "|" + kind + "|";
+		entries.keySet().removeIf(key -> key.startsWith(prefix));
+	}
+
+	private synchronized void invalidate(Object[] args) {
+		if (args != null && args.length > 0 && args[0] instanceof IResource) {
+			IResource resource = (IResource) args[0];
+			entries.remove(resource.getNamespace() + "|" + resource.getKind() + "|" + resource.getName());
+		} else {
+			// not sure what the call touches (i.e. an execute on a sub resource), so start over
+			entries.clear();
+		}
+	}
+
+	private static final class Cached {
+		private final String json;
+		private final long fetched = System.currentTimeMillis();
+
+		private Cached(String json) {
+			this.json = json;
+		}
+	}
+}
@@ -0,0 +1,214 @@
+package com.openshift.jenkins.plugins.pipeline;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.net.HttpURLConnection;
+import java.net.SocketTimeoutException;
+import java.net.URL;
+import java.net.URLEncoder;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import javax.net.ssl.HttpsURLConnection;
+
+import org.jboss.dmr.ModelNode;
+
+/*
+ * Drives a Kubernetes / OpenShift style "?watch=true" request, handing each event to an EventHandler
+ * until the handler says it is done or the deadline passes.  The watch is resumed from the last
+ * resourceVersion seen whenever the api server closes the stream.  An IOException is thrown when the watch
+ * can not be used at all (i.e. the api server rejects it), so that callers can fall back on polling.  Plain lists, with
+ * selectors openshift-restclient-java has no way to pass, go through here as well.
+ */
+public class ResourceWatcher {
+
+	public static final String OAPI = "/oapi/v1";
+	public static final String API = "/api/v1";
+
+	// how many times in a row we will try to reestablish a watch that failed to connect before giving up on watching
+	private static final int MAX_RECONNECT_FAILURES = 3;
+	// read timeout, in milliseconds, for plain lists
+	private static final int LIST_READ_TIMEOUT = 60 * 1000;
+
+	public interface EventHandler {
+		// type is ADDED, MODIFIED, DELETED (ERROR events are handled here); return true when no more events are needed
+		boolean onEvent(String type, ModelNode object);
+
+		// called when the resourceVersion we resumed from is too old (410 Gone), so events have been missed;  returns the
+		// resourceVersion to watch from next, or null to have the api server replay the current state as ADDED events
+		default String onExpired() throws IOException {
+			return null;
+		}
+	}
+
+	private final String apiURL;
+	private final Auth auth;
+	private final String token;
+
+	public ResourceWatcher(String apiURL, Auth auth, String token) {
+		this.apiURL = apiURL;
+		this.auth = auth;
+		this.token = token;
+	}
+
+	public static String getResourceVersion(ModelNode object) {
+		return getString(object, "metadata", "resourceVersion");
+	}
+
+	public static String getString(ModelNode object, String... path) {
+		ModelNode node = object;
+		for (String p : path) {
+			if (!node.has(p))
+				return null;
+			node = node.get(p);
+		}
+		return node.isDefined() ? node.asString() : null;
+	}
+
+	/*
+	 * Returns true if the handler signaled it was done, false if the deadline passed first.
+	 */
+	public boolean watch(String apiPrefix, String namespace, String resourcePlural, String fieldSelector, String labelSelector,
+			String resourceVersion, long deadline, EventHandler handler) throws IOException {
+		String rv = resourceVersion;
+		int failures = 0;
+		while (System.currentTimeMillis() < deadline) {
+			HttpURLConnection conn = null;
+			try {
+				long start = System.currentTimeMillis();
+				conn = open(apiPrefix, namespace, resourcePlural, fieldSelector, labelSelector, rv, deadline);
+				int rc = conn.getResponseCode();
+				ApiMetrics.record("watch", resourcePlural, System.currentTimeMillis() - start, rc != HttpURLConnection.HTTP_OK ? "HTTP " + rc : null);
+				if (rc != HttpURLConnection.HTTP_OK) {
+					// anything other than a 5xx means the api server will not let us watch; no point in retrying
+					if (rc < 500 || ++failures >= MAX_RECONNECT_FAILURES)
+						throw new WatchUnavailableException("watch on " + resourcePlural + " in " + namespace + " returned HTTP " + rc);
+					try {
+						Thread.sleep(1000);
+					} catch (InterruptedException e) {
+					}
+					continue;
+				}
+				failures = 0;
+				BufferedReader reader = new BufferedReader(new InputStreamReader(conn.getInputStream(), StandardCharsets.UTF_8));
+				String line = null;
+				while ((line = reader.readLine()) != null) {
+					if (line.length() == 0)
+						continue;
+					ModelNode event = ModelNode.fromJSONString(line);
+					String type = getString(event, "type");
+					ModelNode object = event.get("object");
+					if ("ERROR".equals(type)) {
+						// typically a 410 Gone because the resource version we resumed from has been compacted;
+						// restart from the current state, as the handler would have it
+						rv = handler.onExpired();
+						break;
+					}
+					String objectRV = getResourceVersion(object);
+					if (objectRV != null)
+						rv = objectRV;
+					if (handler.onEvent(type, object))
+						return true;
+				}
+			} catch (WatchUnavailableException e) {
+				throw e;
+			} catch (SocketTimeoutException e) {
+				// read timeout is bounded by the deadline, so just loop and let the while condition decide
+			} catch (IOException e) {
+				if (++failures >= MAX_RECONNECT_FAILURES)
+					throw e;
+			} finally {
+				if (conn != null)
+					conn.disconnect();
+			}
+		}
+		return false;
+	}
+
+	private HttpURLConnection open(String apiPrefix, String namespace, String resourcePlural, String fieldSelector, String labelSelector,
+			String resourceVersion, long deadline) throws IOException {
+		StringBuilder sb = url(apiPrefix, namespace, resourcePlural, fieldSelector, labelSelector);
+		param(sb, "watch", "true");
+		param(sb, "resourceVersion", resourceVersion);
+
+		long remaining = deadline - System.currentTimeMillis();
+		return openConnection(sb.toString(), auth, token, (int) Math.max(1, Math.min(remaining, Integer.MAX_VALUE)));
+	}
+
+	/*
+	 * A plain list of the resources matching the selectors, for the selectors openshift-restclient-java can not express (i.e. a
+	 * field selector on a build's status).  Returns null if the api server will not serve the request (i.e. it does not support
+	 * the field selector), so callers can fall back on listing through the client.
+	 */
+	public List<ModelNode> list(String apiPrefix, String namespace, String resourcePlural, String fieldSelector, String labelSelector) throws IOException {
+		HttpURLConnection conn = null;
+		try {
+			long start = System.currentTimeMillis();
+			conn = openConnection(url(apiPrefix, namespace, resourcePlural, fieldSelector, labelSelector).toString(), auth, token, LIST_READ_TIMEOUT);
+			int rc = conn.getResponseCode();
+			ApiMetrics.record("list", resourcePlural, System.currentTimeMillis() - start, rc != HttpURLConnection.HTTP_OK ? "HTTP " + rc : null);
+			if (rc != HttpURLConnection.HTTP_OK)
+				return null;
+			StringBuilder json = new StringBuilder();
+			BufferedReader reader = new BufferedReader(new InputStreamReader(conn.getInputStream(), StandardCharsets.UTF_8));
+			char[] buf = new char[8192];
+			int len;
+			while ((len = reader.read(buf)) != -1)
+				json.append(buf, 0, len);
+			ModelNode list = ModelNode.fromJSONString(json.toString());
+			if (!list.has("items") || !list.get("items").isDefined())
+				return new ArrayList<ModelNode>();
+			return list.get("items").asList();
+		} finally {
+			if (conn != null)
+				conn.disconnect();
+		}
+	}
+
+	private StringBuilder url(String apiPrefix, String namespace, String resourcePlural, String fieldSelector, String labelSelector) throws IOException {
+		StringBuilder sb = new StringBuilder(apiURL).append(apiPrefix).append("/namespaces/").append(namespace).append("/")
+				.append(resourcePlural);
+		param(sb, "fieldSelector", fieldSelector);
+		param(sb, "labelSelector", labelSelector);
+		return sb;
+	}
+
+	private static void param(StringBuilder sb, String name, String value) throws IOException {
+		if (value == null)
+			return;
+		sb.append(sb.indexOf("?") < 0 ? '?' : '&').append(name).append('=').append(URLEncoder.encode(value, "UTF-8"));
+	}
+
+	// a GET connection to the api server with our trust handling and bearer token, for the
+	// streaming calls (watches, followed logs) that openshift-restclient-java would otherwise buffer
+	public static HttpURLConnection openConnection(String url, Auth auth, String token, int readTimeout) throws IOException {
+		ApiRateLimiter.acquire(url, false);
+		HttpURLConnection conn = (HttpURLConnection) new URL(url).openConnection();
+		if (conn instanceof HttpsURLConnection && auth != null) {
+			HttpsURLConnection https = (HttpsURLConnection) conn;
+			try {
+				https.setSSLSocketFactory(auth.createSSLSocketFactory(url));
+			} catch (Exception e) {
+				throw new IOException(e);
+			}
+			// same as Auth.allowHostname
+			https.setHostnameVerifier((hostname, session) -> auth.allowHostname(hostname, session));
+		}
+		if (token != null)
+			conn.setRequestProperty("Authorization", "Bearer " + token);
+		conn.setRequestProperty("Accept", "application/json");
+		conn.setConnectTimeout(10 * 1000);
+		conn.setReadTimeout(readTimeout);
+		return conn;
+	}
+
+	public static class WatchUnavailableException extends IOException {
+		private static final long serialVersionUID = 1L;
+
+		public WatchUnavailableException(String msg) {
+			super(msg);
+		}
+	}
+}
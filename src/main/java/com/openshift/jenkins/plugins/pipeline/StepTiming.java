@@ -0,0 +1,110 @@
+package com.openshift.jenkins.plugins.pipeline;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import org.kohsuke.stapler.export.Exported;
+import org.kohsuke.stapler.export.ExportedBean;
+
+/*
+ * The phase timestamps of one run of a step (i.e. for OpenShiftBuilder: started, build triggered, build pod found,
+ * Running, Complete, deployments checked, finished), kept in the build's StepTimingAction.
+ */
+@ExportedBean(defaultVisibility = 2)
+public class StepTiming implements Serializable {
+
+	private static final long serialVersionUID = 1L;
+
+	private final String step;
+	private final long start;
+	private String subject;
+	private Boolean successful;
+	// for the steps which poll the api server while they wait, how many times they did
+	private int polls;
+	private final List<Phase> phases = new ArrayList<Phase>();
+
+	public StepTiming(String step) {
+		this.step = step;
+		this.start = System.currentTimeMillis();
+		mark("started");
+	}
+
+	public synchronized void mark(String phase) {
+		phases.add(new Phase(phase, System.currentTimeMillis() - start));
+	}
+
+	public synchronized void finish(boolean successful) {
+		this.successful = successful;
+		mark("finished");
+	}
+
+	@Exported
+	public String getStep() {
+		return step;
+	}
+
+	// what the step acted on, i.e. the build name for OpenShiftBuilder
+	@Exported
+	public synchronized String getSubject() {
+		return subject;
+	}
+
+	public synchronized void setSubject(String subject) {
+		this.subject = subject;
+	}
+
+	@Exported
+	public synchronized int getPolls() {
+		return polls;
+	}
+
+	public synchronized void setPolls(int polls) {
+		this.polls = polls;
+	}
+
+	@Exported
+	public long getStart() {
+		return start;
+	}
+
+	@Exported
+	public synchronized Boolean getSuccessful() {
+		return successful;
+	}
+
+	@Exported
+	public synchronized List<Phase> getPhases() {
+		return Collections.unmodifiableList(new ArrayList<Phase>(phases));
+	}
+
+	@Exported
+	public synchronized long getDuration() {
+		return phases.isEmpty() ? 0 : phases.get(phases.size() - 1).getOffset();
+	}
+
+	@ExportedBean(defaultVisibility = 3)
+	public static class Phase implements Serializable {
+		private static final long serialVersionUID = 1L;
+
+		private final String name;
+		private final long offset;
+
+		public Phase(String name, long offset) {
+			this.name = name;
+			this.offset = offset;
+		}
+
+		@Exported
+		public String getName() {
+			return name;
+		}
+
+		// milliseconds since the step started
+		@Exported
+		public long getOffset() {
+			return offset;
+		}
+	}
+}
@@ -0,0 +1,95 @@
+package com.openshift.jenkins.plugins.pipeline;
+
+import hudson.model.Api;
+import hudson.model.Run;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import jenkins.model.RunAction2;
+
+import org.kohsuke.stapler.export.Exported;
+import org.kohsuke.stapler.export.ExportedBean;
+
+/*
+ * Persisted with the build, the phase timings of each OpenShift step that ran in it;  shown as a table on the build's
+ * "OpenShift Step Timings" page and available as JSON from its api (i.e. .../openshift-step-timings/api/json), so the
+ * time spent queued in OpenShift vs. running vs. verifying deployments can be tracked across builds.
+ */
+@ExportedBean
+public class StepTimingAction implements RunAction2 {
+
+	private static final Logger LOGGER = Logger.getLogger(StepTimingAction.class.getName());
+
+	private final List<StepTiming> steps = new ArrayList<StepTiming>();
+	private transient Run<?, ?> run;
+
+	public static StepTimingAction forRun(Run<?, ?> run) {
+		synchronized (run) {
+			StepTimingAction action = run.getAction(StepTimingAction.class);
+			if (action == null) {
+				action = new StepTimingAction();
+				run.addAction(action);
+			}
+			if (action.run == null)
+				action.run = run;
+			return action;
+		}
+	}
+
+	// called once the step is done with the timing;  the action is already part of the run, so the run is saved again to keep it
+	public void add(StepTiming timing) {
+		synchronized (this) {
+			steps.add(timing);
+		}
+		if (run == null)
+			return;
+		try {
+			run.save();
+		} catch (IOException e) {
+			LOGGER.log(Level.WARNING, "could not save the OpenShift step timings of " + run, e);
+		}
+	}
+
+	@Exported(inline = true)
+	public synchronized List<StepTiming> getSteps() {
+		return Collections.unmodifiableList(new ArrayList<StepTiming>(steps));
+	}
+
+	public Run<?, ?> getRun() {
+		return run;
+	}
+
+	@Override
+	public void onAttached(Run<?, ?> r) {
+		this.run = r;
+	}
+
+	@Override
+	public void onLoad(Run<?, ?> r) {
+		this.run = r;
+	}
+
+	public Api getApi() {
+		return new Api(this);
+	}
+
+	@Override
+	public String getIconFileName() {
+		return "clock.png";
+	}
+
+	@Override
+	public String getDisplayName() {
+		return "OpenShift Step Timings";
+	}
+
+	@Override
+	public String getUrlName() {
+		return "openshift-step-timings";
+	}
+}
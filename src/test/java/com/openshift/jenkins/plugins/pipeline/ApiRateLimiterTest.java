@@ -0,0 +1,98 @@
+package com.openshift.jenkins.plugins.pipeline;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+public class ApiRateLimiterTest {
+
+	// a token every half second, and at most two saved up
+	private static final int RATE = 2;
+	private static final int BURST = 2;
+
+	// each test gets an api server, and so a bucket, of its own
+	private static int servers = 0;
+
+	@BeforeClass
+	public static void slowTheLimiterDown() {
+		// read when ApiRateLimiter is first loaded, which no other test does
+		System.setProperty("com.openshift.jenkins.plugins.pipeline.ApiRateLimiter.rate", String.valueOf(RATE));
+		System.setProperty("com.openshift.jenkins.plugins.pipeline.ApiRateLimiter.burst", String.valueOf(BURST));
+	}
+
+	@Test
+	public void aBurstGoesStraightThroughThenWaitsForTheRefill() {
+		String apiURL = newServer();
+		long throttled = ApiRateLimiter.getThrottled();
+		long start = System.currentTimeMillis();
+		for (int i = 0; i < BURST; i++)
+			ApiRateLimiter.acquire(apiURL, false);
+		assertEquals(throttled, ApiRateLimiter.getThrottled());
+		assertTrue(System.currentTimeMillis() - start < 1000 / RATE);
+
+		ApiRateLimiter.acquire(apiURL, false);
+		long waited = System.currentTimeMillis() - start;
+		assertEquals(throttled + 1, ApiRateLimiter.getThrottled());
+		assertTrue("waited " + waited + " ms for a token", waited >= 1000 / RATE - 50);
+	}
+
+	@Test
+	public void theBucketHoldsNoMoreThanTheBurst() throws Exception {
+		String apiURL = newServer();
+		ApiRateLimiter.acquire(apiURL, true);
+		// long enough to refill three tokens, were there room for them
+		Thread.sleep(3 * 1000 / RATE);
+		long throttled = ApiRateLimiter.getThrottled();
+		for (int i = 0; i < BURST; i++)
+			ApiRateLimiter.acquire(apiURL, true);
+		assertEquals(throttled, ApiRateLimiter.getThrottled());
+		ApiRateLimiter.acquire(apiURL, true);
+		assertEquals(throttled + 1, ApiRateLimiter.getThrottled());
+	}
+
+	@Test
+	public void waitingWritesGoBeforeWaitingReads() throws Exception {
+		String apiURL = newServer();
+		for (int i = 0; i < BURST; i++)
+			ApiRateLimiter.acquire(apiURL, false);
+
+		List<String> order = new CopyOnWriteArrayList<String>();
+		Thread read = new Thread(() -> {
+			ApiRateLimiter.acquire(apiURL, false);
+			order.add("read");
+		});
+		Thread write = new Thread(() -> {
+			ApiRateLimiter.acquire(apiURL, true);
+			order.add("write");
+		});
+		read.start();
+		// the read is queued well before the next token, then the write queues behind it
+		Thread.sleep(1000 / RATE / 5);
+		write.start();
+		read.join(5000);
+		write.join(5000);
+		assertEquals("[write, read]", order.toString());
+	}
+
+	@Test
+	public void aRateIsKeptPerApiServer() {
+		String apiURL = newServer();
+		for (int i = 0; i < BURST; i++)
+			ApiRateLimiter.acquire(apiURL, false);
+		long throttled = ApiRateLimiter.getThrottled();
+		// a full url on the same server shares its bucket, another server has a bucket of its own
+		ApiRateLimiter.acquire(newServer() + "/oapi/v1/namespaces/test/builds", false);
+		assertEquals(throttled, ApiRateLimiter.getThrottled());
+		ApiRateLimiter.acquire(apiURL + "/oapi/v1/namespaces/test/builds", false);
+		assertEquals(throttled + 1, ApiRateLimiter.getThrottled());
+	}
+
+	private static synchronized String newServer() {
+		return "https://api" + (++servers) + ".example.com:8443";
+	}
+}
@@ -0,0 +1,110 @@
+package com.openshift.jenkins.plugins.pipeline;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Proxy;
+import java.util.HashMap;
+import java.util.Map;
+
+import com.openshift.restclient.IClient;
+import com.openshift.restclient.IResourceFactory;
+import com.openshift.restclient.model.IResource;
+
+/*
+ * Stand ins for the openshift-restclient-java types the tests need, as dynamic proxies:  only the methods the code under test
+ * calls answer with anything, everything else returns null (or the primitive's zero).
+ */
+final class Fakes {
+
+	interface Get {
+		IResource get(String kind, String name, String namespace) throws Exception;
+	}
+
+	private Fakes() {
+	}
+
+	// a resource whose getters answer from values, by method name (i.e. "getName"), and whose toJson answers json
+	static <T extends IResource> T resource(Class<T> type, String json, Map<String, Object> values) {
+		Map<String, Object> answers = new HashMap<String, Object>(values);
+		answers.put("toJson", json);
+		return type.cast(proxy(type, (proxy, method, args) -> {
+			if (method.getName().equals("getAnnotation"))
+				return answers.get("annotation:" + args[0]);
+			return answers.get(method.getName());
+		}));
+	}
+
+	static IResource resource(String kind, String namespace, String name, String json) {
+		Map<String, Object> values = new HashMap<String, Object>();
+		values.put("getKind", kind);
+		values.put("getNamespace", namespace);
+		values.put("getName", name);
+		return resource(IResource.class, json, values);
+	}
+
+	// a client whose gets go to get, whose updates return what they were given, and whose resource factory makes resources
+	// back from their json
+	static IClient client(Get get) {
+		IResourceFactory factory = (IResourceFactory) proxy(IResourceFactory.class, (proxy, method, args) -> {
+			if (method.getName().equals("create") && args != null && args.length == 1 && args[0] instanceof String)
+				return resource(IResource.class, (String) args[0], new HashMap<String, Object>());
+			return null;
+		});
+		return (IClient) proxy(IClient.class, (proxy, method, args) -> {
+			switch (method.getName()) {
+			case "get":
+				return get.get((String) args[0], (String) args[1], (String) args[2]);
+			case "update":
+				return args[0];
+			case "getResourceFactory":
+				return factory;
+			default:
+				return null;
+			}
+		});
+	}
+
+	private static Object proxy(Class<?> type, InvocationHandler answers) {
+		return Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[] {type}, (proxy, method, args) -> {
+			switch (method.getName()) {
+			case "equals":
+				if (method.getParameterCount() == 1)
+					return proxy == args[0];
+				break;
+			case "hashCode":
+				if (method.getParameterCount() == 0)
+					return System.identityHashCode(proxy);
+				break;
+			case "toString":
+				if (method.getParameterCount() == 0)
+					return type.getSimpleName() + "@" + Integer.toHexString(System.identityHashCode(proxy));
+				break;
+			default:
+				break;
+			}
+			Object answer = answers.invoke(proxy, method, args);
+			if (answer == null && method.getReturnType().isPrimitive())
+				return zero(method.getReturnType());
+			return answer;
+		});
+	}
+
+	private static Object zero(Class<?> type) {
+		if (type == boolean.class)
+			return false;
+		if (type == void.class)
+			return null;
+		if (type == char.class)
+			return (char) 0;
+		if (type == long.class)
+			return 0L;
+		if (type == float.class)
+			return 0f;
+		if (type == double.class)
+			return 0d;
+		if (type == byte.class)
+			return (byte) 0;
+		if (type == short.class)
+			return (short) 0;
+		return 0;
+	}
+}
@@ -0,0 +1,109 @@
+package com.openshift.jenkins.plugins.pipeline;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.After;
+import org.junit.Test;
+
+import com.openshift.restclient.IClient;
+import com.openshift.restclient.ResourceKind;
+import com.openshift.restclient.model.IResource;
+
+public class GetCoalescerTest {
+
+	private static final int CALLERS = 5;
+
+	private final ExecutorService pool = Executors.newFixedThreadPool(CALLERS);
+	private final AtomicInteger gets = new AtomicInteger();
+	private final CountDownLatch release = new CountDownLatch(1);
+
+	@After
+	public void tearDown() {
+		pool.shutdownNow();
+	}
+
+	@Test
+	public void concurrentIdenticalGetsShareOneRequest() throws Exception {
+		IClient client = GetCoalescer.wrap(Fakes.client((kind, name, namespace) -> {
+			gets.incrementAndGet();
+			release.await();
+			return Fakes.resource(kind, namespace, name, "{\"name\":\"" + name + "\"}");
+		}));
+		List<Future<IResource>> results = startGets(client);
+		release.countDown();
+
+		List<IResource> resources = new ArrayList<IResource>();
+		for (Future<IResource> result : results)
+			resources.add(result.get(5, TimeUnit.SECONDS));
+		assertEquals(1, gets.get());
+		for (IResource resource : resources) {
+			assertNotNull(resource);
+			assertEquals("{\"name\":\"frontend\"}", resource.toJson());
+		}
+		// every caller gets a copy of its own to modify
+		for (int i = 1; i < resources.size(); i++)
+			assertNotSame(resources.get(0), resources.get(i));
+	}
+
+	@Test
+	public void theFailureIsSharedToo() throws Exception {
+		IllegalStateException failure = new IllegalStateException("api server down");
+		IClient client = GetCoalescer.wrap(Fakes.client((kind, name, namespace) -> {
+			gets.incrementAndGet();
+			release.await();
+			throw failure;
+		}));
+		List<Future<IResource>> results = startGets(client);
+		release.countDown();
+
+		for (Future<IResource> result : results) {
+			try {
+				result.get(5, TimeUnit.SECONDS);
+			} catch (ExecutionException e) {
+				assertSame(failure, e.getCause());
+				continue;
+			}
+			throw new AssertionError("get did not fail");
+		}
+		assertEquals(1, gets.get());
+	}
+
+	@Test
+	public void laterGetsMakeTheirOwnRequest() {
+		IClient client = GetCoalescer.wrap(Fakes.client((kind, name, namespace) -> {
+			gets.incrementAndGet();
+			return Fakes.resource(kind, namespace, name, "{}");
+		}));
+		client.get(ResourceKind.DEPLOYMENT_CONFIG, "frontend", "test");
+		client.get(ResourceKind.DEPLOYMENT_CONFIG, "frontend", "test");
+		client.get(ResourceKind.DEPLOYMENT_CONFIG, "backend", "test");
+		assertEquals(3, gets.get());
+	}
+
+	// starts the gets, and returns once all but the first are waiting on it
+	private List<Future<IResource>> startGets(IClient client) throws InterruptedException {
+		long coalesced = GetCoalescer.getCoalesced();
+		List<Future<IResource>> results = new ArrayList<Future<IResource>>();
+		for (int i = 0; i < CALLERS; i++)
+			results.add(pool.submit(() -> client.<IResource>get(ResourceKind.DEPLOYMENT_CONFIG, "frontend", "test")));
+		long deadline = System.currentTimeMillis() + 5000;
+		while (GetCoalescer.getCoalesced() - coalesced < CALLERS - 1 && System.currentTimeMillis() < deadline)
+			Thread.sleep(10);
+		assertTrue("the gets did not line up behind the first", GetCoalescer.getCoalesced() - coalesced >= CALLERS - 1);
+		return results;
+	}
+}
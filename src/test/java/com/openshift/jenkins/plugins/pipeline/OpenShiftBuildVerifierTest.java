@@ -0,0 +1,56 @@
+package com.openshift.jenkins.plugins.pipeline;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+
+import org.junit.Test;
+
+import com.openshift.restclient.model.IBuild;
+
+public class OpenShiftBuildVerifierTest {
+
+	private final OpenShiftBuildVerifier verifier = new OpenShiftBuildVerifier("https://openshift.example.com:8443", "frontend", "test", "", "false", "false");
+
+	@Test
+	public void theNumberComesFromTheAnnotationFirst() {
+		assertEquals(7, verifier.getBuildNumber(build("frontend-3", "7"), null));
+		assertEquals(3, verifier.getBuildNumber(build("frontend-3", null), null));
+		assertEquals(3, verifier.getBuildNumber(build("frontend-3", ""), null));
+	}
+
+	@Test
+	public void buildsWithNoNumberRankBelowTheRest() {
+		assertEquals(-1, verifier.getBuildNumber(build("backend-3", null), null));
+		assertEquals(-1, verifier.getBuildNumber(build("frontend-latest", null), null));
+		assertEquals(-1, verifier.getBuildNumber(build("frontend-3", "three"), null));
+	}
+
+	@Test
+	public void theLatestIsTheHighestNumberNotTheLastName() {
+		// by name, frontend-9 sorts after frontend-10
+		assertEquals("frontend-10", verifier.getLatestBuildID(Arrays.asList(build("frontend-9", null), build("frontend-10", null), build("frontend-2", null)), null));
+		assertEquals("frontend-10", verifier.getLatestBuildID(Arrays.asList(build("frontend-10", null), build("frontend-9", null)), null));
+		assertEquals("frontend-2", verifier.getLatestBuildID(Arrays.asList(build("frontend-latest", null), build("frontend-2", null)), null));
+		assertNull(verifier.getLatestBuildID(Collections.<IBuild>emptyList(), null));
+	}
+
+	@Test
+	public void theOverriddenBuildConfigNameIsUsed() {
+		Map<String,String> overrides = new HashMap<String,String>();
+		overrides.put("bldCfg", "backend");
+		assertEquals(4, verifier.getBuildNumber(build("backend-4", null), overrides));
+		assertEquals(-1, verifier.getBuildNumber(build("frontend-4", null), overrides));
+	}
+
+	private static IBuild build(String name, String number) {
+		Map<String,Object> values = new HashMap<String,Object>();
+		values.put("getName", name);
+		values.put("annotation:" + OpenShiftBuildVerifier.BUILD_NUMBER_ANNOTATION, number);
+		return Fakes.resource(IBuild.class, "{}", values);
+	}
+}
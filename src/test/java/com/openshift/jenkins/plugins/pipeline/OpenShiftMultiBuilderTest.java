@@ -0,0 +1,46 @@
+package com.openshift.jenkins.plugins.pipeline;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.regex.Matcher;
+
+import org.junit.Test;
+
+public class OpenShiftMultiBuilderTest {
+
+	@Test
+	public void equalityRequirementsMatch() {
+		assertRequirement("app=web", "app", "web");
+		assertRequirement("app==web", "app", "web");
+		assertRequirement(" app = web ", "app", "web");
+		assertRequirement("app.kubernetes.io/name=web-1", "app.kubernetes.io/name", "web-1");
+		// an empty value is a value
+		assertRequirement("tier=", "tier", "");
+	}
+
+	@Test
+	public void otherRequirementsDoNotMatch() {
+		// each of these would list a different set of build configs than asked for, were it taken as key=value
+		assertNoRequirement("app!=web");
+		assertNoRequirement("app in (web,api)");
+		assertNoRequirement("app notin (web)");
+		assertNoRequirement("!app");
+		assertNoRequirement("app");
+		assertNoRequirement("app=web=api");
+		assertNoRequirement("=web");
+		assertNoRequirement("");
+	}
+
+	private static void assertRequirement(String requirement, String key, String value) {
+		Matcher m = OpenShiftMultiBuilder.EQUALITY_REQUIREMENT.matcher(requirement);
+		assertTrue(requirement, m.matches());
+		assertEquals(key, m.group(1));
+		assertEquals(value, m.group(2));
+	}
+
+	private static void assertNoRequirement(String requirement) {
+		assertFalse(requirement, OpenShiftMultiBuilder.EQUALITY_REQUIREMENT.matcher(requirement).matches());
+	}
+}
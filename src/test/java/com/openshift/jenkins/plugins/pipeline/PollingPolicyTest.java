@@ -0,0 +1,62 @@
+package com.openshift.jenkins.plugins.pipeline;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.HashSet;
+import java.util.Set;
+
+import org.junit.Test;
+
+public class PollingPolicyTest {
+
+	private static final long FAR = Long.MAX_VALUE / 2;
+
+	@Test
+	public void intervalDoublesUpToTheCeilingWithinTheJitter() {
+		PollingPolicy polling = new PollingPolicy(1000, 4000);
+		assertBetween(800, 1200, polling.next(FAR));
+		assertBetween(1600, 2400, polling.next(FAR));
+		assertBetween(3200, 4800, polling.next(FAR));
+		// stays at the ceiling
+		for (int i = 0; i < 10; i++)
+			assertBetween(3200, 4800, polling.next(FAR));
+	}
+
+	@Test
+	public void jitterSpreadsThePolls() {
+		Set<Long> delays = new HashSet<Long>();
+		for (int i = 0; i < 50; i++)
+			delays.add(new PollingPolicy(1000, 1000).next(FAR));
+		assertTrue("50 polls all waited " + delays, delays.size() > 1);
+	}
+
+	@Test
+	public void neverWaitsPastTheDeadline() {
+		PollingPolicy polling = new PollingPolicy(10000, 10000);
+		long delay = polling.next(System.currentTimeMillis() + 100);
+		assertBetween(1, 100, delay);
+		assertEquals(-1, polling.next(System.currentTimeMillis() - 1));
+	}
+
+	@Test
+	public void countsThePollsMade() {
+		PollingPolicy polling = new PollingPolicy();
+		assertEquals(0, polling.getPolls());
+		polling.polled();
+		polling.next(FAR);
+		polling.polled();
+		assertEquals(2, polling.getPolls());
+	}
+
+	@Test
+	public void oddIntervalsAreMadeSane() {
+		// a zero interval would poll in a tight loop, a ceiling under the first interval would shrink it
+		assertBetween(1, 1, new PollingPolicy(0, 0).next(FAR));
+		assertBetween(800, 1200, new PollingPolicy(1000, 10).next(FAR));
+	}
+
+	private static void assertBetween(long low, long high, long actual) {
+		assertTrue(actual + " not in [" + low + ", " + high + "]", actual >= low && actual <= high);
+	}
+}
@@ -0,0 +1,114 @@
+package com.openshift.jenkins.plugins.pipeline;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.Before;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import com.openshift.restclient.IClient;
+import com.openshift.restclient.ResourceKind;
+import com.openshift.restclient.model.IResource;
+
+public class ResourceCacheTest {
+
+	private static final long TTL = 200;
+
+	private final AtomicInteger gets = new AtomicInteger();
+	private IClient client;
+
+	@BeforeClass
+	public static void shortenTheCache() {
+		// read when ResourceCache is first loaded, which no other test does
+		System.setProperty("com.openshift.jenkins.plugins.pipeline.ResourceCache.ttl", String.valueOf(TTL));
+		System.setProperty("com.openshift.jenkins.plugins.pipeline.ResourceCache.size", "2");
+	}
+
+	@Before
+	public void setUp() {
+		client = ResourceCache.wrap(Fakes.client((kind, name, namespace) -> {
+			int n = gets.incrementAndGet();
+			return Fakes.resource(kind, namespace, name, "{\"name\":\"" + name + "\",\"get\":" + n + "}");
+		}));
+	}
+
+	@Test
+	public void servesRepeatedGetsFromTheCacheAsCopies() {
+		IResource first = client.get(ResourceKind.BUILD_CONFIG, "frontend", "test");
+		IResource second = client.get(ResourceKind.BUILD_CONFIG, "frontend", "test");
+		assertEquals(1, gets.get());
+		assertEquals(first.toJson(), second.toJson());
+		assertNotSame(first, second);
+	}
+
+	@Test
+	public void entriesExpireAfterTheirTimeToLive() throws Exception {
+		client.get(ResourceKind.BUILD_CONFIG, "frontend", "test");
+		Thread.sleep(TTL + 100);
+		IResource again = client.get(ResourceKind.BUILD_CONFIG, "frontend", "test");
+		assertEquals(2, gets.get());
+		assertEquals("{\"name\":\"frontend\",\"get\":2}", again.toJson());
+	}
+
+	@Test
+	public void evictsTheLeastRecentlyUsed() {
+		client.get(ResourceKind.BUILD_CONFIG, "a", "test");
+		client.get(ResourceKind.BUILD_CONFIG, "b", "test");
+		// a is now more recently used than b, so c pushes b out
+		client.get(ResourceKind.BUILD_CONFIG, "a", "test");
+		client.get(ResourceKind.BUILD_CONFIG, "c", "test");
+		assertEquals(3, gets.get());
+		client.get(ResourceKind.BUILD_CONFIG, "a", "test");
+		assertEquals(3, gets.get());
+		client.get(ResourceKind.BUILD_CONFIG, "b", "test");
+		assertEquals(4, gets.get());
+	}
+
+	@Test
+	public void invalidateDropsTheNamedResource() {
+		client.get(ResourceKind.BUILD_CONFIG, "frontend", "test");
+		client.get(ResourceKind.BUILD_CONFIG, "backend", "test");
+		ResourceCache.invalidate(client, ResourceKind.BUILD_CONFIG, "test", "frontend");
+		client.get(ResourceKind.BUILD_CONFIG, "frontend", "test");
+		client.get(ResourceKind.BUILD_CONFIG, "backend", "test");
+		assertEquals(3, gets.get());
+	}
+
+	@Test
+	public void invalidateWithoutANameDropsTheKindInTheNamespace() {
+		client.get(ResourceKind.BUILD_CONFIG, "frontend", "test");
+		client.get(ResourceKind.DEPLOYMENT_CONFIG, "frontend", "test");
+		ResourceCache.invalidate(client, ResourceKind.BUILD_CONFIG, "test", null);
+		client.get(ResourceKind.BUILD_CONFIG, "frontend", "test");
+		client.get(ResourceKind.DEPLOYMENT_CONFIG, "frontend", "test");
+		assertEquals(3, gets.get());
+	}
+
+	@Test
+	public void updatesThroughTheClientDropTheirResource() {
+		client.get(ResourceKind.DEPLOYMENT_CONFIG, "frontend", "test");
+		client.update(Fakes.resource(ResourceKind.DEPLOYMENT_CONFIG, "test", "frontend", "{}"));
+		client.get(ResourceKind.DEPLOYMENT_CONFIG, "frontend", "test");
+		assertEquals(2, gets.get());
+	}
+
+	@Test
+	public void bypassGoesToTheApiServerButStillFillsTheCache() {
+		client.get(ResourceKind.BUILD_CONFIG, "frontend", "test");
+		ResourceCache.bypass(() -> client.get(ResourceKind.BUILD_CONFIG, "frontend", "test"));
+		assertEquals(2, gets.get());
+		IResource cached = client.get(ResourceKind.BUILD_CONFIG, "frontend", "test");
+		assertEquals(2, gets.get());
+		assertEquals("{\"name\":\"frontend\",\"get\":2}", cached.toJson());
+	}
+
+	@Test
+	public void otherKindsAreNotCached() {
+		client.get(ResourceKind.BUILD, "frontend-1", "test");
+		client.get(ResourceKind.BUILD, "frontend-1", "test");
+		assertEquals(2, gets.get());
+	}
+}